@@ -0,0 +1,108 @@
+package JFXGrid.data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the data layer: building datasets, stepping through chunks, and inserting/seeking in a JFXDataDeque.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataBenchmark {
+
+    @Param({"32", "128"})
+    public int gridSize;
+
+    @Param({"100", "1000"})
+    public int numFrames;
+
+    @Param({"50"})
+    public int chunkSize;
+
+    private List<double[]> frames;
+    private DataChunk chunk;
+    private JFXDataDeque deque;
+    private int[] seekTargets;
+    private int seekIndex;
+
+    @Setup
+    public void setup() {
+        Random rand = new Random(42);
+        frames = new ArrayList<>(numFrames);
+        for(int i = 0; i < numFrames; i++) {
+            double[] frame = new double[gridSize * gridSize];
+            for(int j = 0; j < frame.length; j++) {
+                frame[j] = rand.nextDouble();
+            }
+            frames.add(frame);
+        }
+
+        chunk = new DataChunk(frames, 0);
+        deque = buildDeque();
+
+        seekTargets = new int[1024];
+        for(int i = 0; i < seekTargets.length; i++) {
+            seekTargets[i] = 1 + rand.nextInt(numFrames);
+        }
+    }
+
+    private JFXDataDeque buildDeque() {
+        return (JFXDataDeque) new JFXDatasetFactory(gridSize, gridSize)
+                .setDataType(JFXDatasetFactory.DataType.Batch_Chunking)
+                .setChunkSize(chunkSize)
+                .addAll(frames)
+                .build();
+    }
+
+    @Benchmark
+    public JFXDataset factoryBuild() {
+        return new JFXDatasetFactory(gridSize, gridSize).addAll(frames).build();
+    }
+
+    @Benchmark
+    public JFXDataset factoryBuildChunked() {
+        return buildDeque();
+    }
+
+    @Benchmark
+    public double[] chunkStepForward() {
+        if(!chunk.hasNext()) {
+            chunk.setFrameFront();
+        }
+        return chunk.stepForward();
+    }
+
+    @Benchmark
+    public double[] dequeStepForward() {
+        if(deque.getFrameNum() == deque.size()) {
+            deque.gotoFrame(1);
+        }
+        return deque.stepForward();
+    }
+
+    @Benchmark
+    public double[] dequeSeek() {
+        seekIndex = (seekIndex + 1) & (seekTargets.length - 1);
+        return deque.gotoFrame(seekTargets[seekIndex]);
+    }
+
+    @Benchmark
+    public JFXDataDeque dequeInsert() {
+        JFXDataDeque target = new JFXDataDeque(gridSize, gridSize);
+        double[][] chunkFrames = frames.subList(0, Math.min(chunkSize, numFrames)).toArray(new double[0][]);
+
+        //Inserts the chunks back to front so each insert exercises the ordered placement
+        for(int start = numFrames - chunkSize; start > -chunkSize; start -= chunkSize) {
+            target.insert(new DataChunk(chunkFrames, Math.max(start, 0)));
+        }
+        return target;
+    }
+}
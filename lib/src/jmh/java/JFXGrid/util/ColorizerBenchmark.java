@@ -0,0 +1,97 @@
+package JFXGrid.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the colorizing hot path: building the color lookup table, single lookups and whole frames.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ColorizerBenchmark {
+
+    /**
+     * A frame to colorize, for each grid size, table size and kernel
+     */
+    @State(Scope.Benchmark)
+    public static class FrameState {
+        @Param({"64", "256", "1024"})
+        public int gridSize;
+
+        @Param({"1024", "65536", "16777216"})
+        public int gradations;
+
+        @Param({"true", "false"})
+        public boolean vectorized;
+
+        private Colorizer colorizer;
+        private double[] matrix;
+
+        @Setup
+        public void setup() {
+            colorizer = new Colorizer();
+            colorizer.setNumColorGradations(gradations);
+            ImageGenerator.setVectorized(vectorized);
+
+            Random rand = new Random(42);
+            matrix = new double[gridSize * gridSize];
+            for(int i = 0; i < matrix.length; i++) {
+                matrix[i] = rand.nextDouble();
+            }
+        }
+    }
+
+    /**
+     * The lookup table alone, which doesn't depend on the grid size or kernel
+     */
+    @State(Scope.Benchmark)
+    public static class LookupTableState {
+        @Param({"1024", "65536", "16777216"})
+        public int gradations;
+
+        private Colorizer colorizer;
+        private double[] lookupValues;
+
+        @Setup
+        public void setup() {
+            colorizer = new Colorizer();
+            colorizer.setNumColorGradations(gradations);
+
+            Random rand = new Random(42);
+            lookupValues = new double[1024];
+            for(int i = 0; i < lookupValues.length; i++) {
+                lookupValues[i] = rand.nextDouble();
+            }
+        }
+    }
+
+    @Benchmark
+    public IntBuffer getBufferedARGB(FrameState state) {
+        return ImageGenerator.getBufferedARGB(state.gridSize, state.gridSize, state.matrix, state.colorizer);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public void getNearestARGBColor(LookupTableState state, Blackhole blackhole) {
+        for(double val : state.lookupValues) {
+            blackhole.consume(state.colorizer.getNearestARGBColor(val));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public Colorizer processARGBVals(LookupTableState state) {
+        state.colorizer.processARGBVals(state.gradations);
+        return state.colorizer;
+    }
+}
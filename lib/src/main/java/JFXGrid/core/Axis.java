@@ -131,7 +131,12 @@ public class Axis extends Pane implements TickListener {
     }
 
     public void setMinVal(double newVal) {
+        if(minVal == newVal) {
+            return;
+        }
+
         minVal = newVal;
+        renderer.setDirty(true);
     }
 
     public double getMaxVal() {
@@ -139,7 +144,12 @@ public class Axis extends Pane implements TickListener {
     }
 
     public void setMaxVal(double newVal) {
+        if(maxVal == newVal) {
+            return;
+        }
+
         maxVal = newVal;
+        renderer.setDirty(true);
     }
 
     public AxisRenderer getRenderer() {
@@ -197,7 +207,12 @@ public class Axis extends Pane implements TickListener {
     }
 
     public void setSwitched(boolean switched) {
+        if(isSwitched == switched) {
+            return;
+        }
+
         isSwitched = switched;
+        renderer.setDirty(true);
     }
 
 }
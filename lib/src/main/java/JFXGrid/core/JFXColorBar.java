@@ -21,30 +21,112 @@
 //SOFTWARE.
 package JFXGrid.core;
 
-import JFXGrid.util.Style;
-import javafx.scene.paint.LinearGradient;
+import JFXGrid.events.JFXProcessManager;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.ImagePattern;
 import javafx.scene.shape.Rectangle;
 
+/**
+ * The color bar is an axis with the grid's color gradient drawn alongside it. The gradient is a small image sampled
+ * from the grid's Colorizer lookup table, which is only rebuilt when the lookup table changes (e.g. a new Style).
+ * Scaling it to the bar's size is left to JavaFX, so the color bar never redraws itself per frame.
+ *
+ * @author aram-ap
+ */
 public class JFXColorBar extends Axis {
+    //Number of colors sampled from the lookup table for the gradient image
+    private static final int GRADIENT_RESOLUTION = 256;
+
     private JFXGrid grid;
-    private LinearGradient gradient;
-    private Rectangle gradientBar;
-    private Style style;
+    private WritableImage gradientImage;
+    private final Rectangle gradientBar = new Rectangle();
+
+    //The Colorizer lookup table version the gradient image was sampled from
+    private long gradientVersion = -1;
+
     public JFXColorBar(JFXGrid grid, Align align) {
         super(align);
         this.grid = grid;
+
+        //Vertical bars show the highest value on top
+        if(isVertical()) {
+            setSwitched(true);
+        }
+
+        gradientBar.getStyleClass().add("color-bar");
+        gradientBar.setMouseTransparent(true);
+        getChildren().add(0, gradientBar);
+    }
+
+    private boolean isVertical() {
+        return getLabelAlignment() == Align.Left || getLabelAlignment() == Align.Right;
     }
 
+    /**
+     * Samples the Colorizer lookup table into the gradient image and applies it to the bar.
+     */
     public void updateGradient() {
+        var colorizer = grid.getStylizer().getColorizer();
+        boolean vertical = isVertical();
+        int width = vertical ? 1 : GRADIENT_RESOLUTION;
+        int height = vertical ? GRADIENT_RESOLUTION : 1;
+
+        int[] pixels = new int[GRADIENT_RESOLUTION];
+        for(int i = 0; i < GRADIENT_RESOLUTION; i++) {
+            double val = (double) i / (GRADIENT_RESOLUTION - 1);
+            pixels[i] = colorizer.getNearestARGBColor(vertical ? 1 - val : val);
+        }
 
+        WritableImage image = new WritableImage(width, height);
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        gradientImage = image;
+
+        JFXProcessManager.addFXTask(() -> gradientBar.setFill(new ImagePattern(image)));
+    }
+
+    /**
+     * @return the cached gradient image, null until the first update
+     */
+    public WritableImage getGradientImage() {
+        return gradientImage;
+    }
+
+    /**
+     * Lays the bar out along the tick side of the axis. Only runs on layout passes, not per frame.
+     */
+    @Override
+    protected void layoutChildren() {
+        super.layoutChildren();
+
+        var canvas = getCanvas();
+        double thickness = getTickLength();
+        switch(getLabelAlignment()) {
+            case Left -> gradientBar.relocate(canvas.getWidth() - thickness, 0);
+            case Up -> gradientBar.relocate(0, canvas.getHeight() - thickness);
+            default -> gradientBar.relocate(0, 0);
+        }
+
+        if(isVertical()) {
+            gradientBar.setWidth(thickness);
+            gradientBar.setHeight(canvas.getHeight());
+        } else {
+            gradientBar.setWidth(canvas.getWidth());
+            gradientBar.setHeight(thickness);
+        }
     }
 
     public void update() {
+        var colorizer = grid.getStylizer().getColorizer();
+
+        //Keeps the labels in line with the range currently mapped onto the gradient, only redraws when it changes
+        var range = colorizer.getNormalizer().getRange();
+        setMinVal(range.min());
+        setMaxVal(range.max());
         super.update();
 
-        var stylizer = grid.getStylizer();
-        if(style != stylizer.getStyle()) {
-            style = stylizer.getStyle();
+        if(gradientVersion != colorizer.getVersion()) {
+            gradientVersion = colorizer.getVersion();
             updateGradient();
         }
     }
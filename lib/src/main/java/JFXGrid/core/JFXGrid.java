@@ -21,21 +21,27 @@
 //SOFTWARE.
 package JFXGrid.core;
 
+import JFXGrid.data.FrameSnapshot;
 import JFXGrid.data.JFXDataset;
 import JFXGrid.events.JFXClock;
 import JFXGrid.events.JFXProcessManager;
 import JFXGrid.events.TickListener;
+import JFXGrid.metrics.GridMetrics;
 import JFXGrid.plugin.Plugin;
 import JFXGrid.renderer.GridRenderer;
+import JFXGrid.util.CellMask;
 import JFXGrid.util.GridStyler;
 import JFXGrid.util.ResizableCanvas;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.scene.Node;
 import javafx.scene.image.WritableImage;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * The JFXGrid is the javafx-compatible chart/imaging object, designed for high-performance
@@ -45,6 +51,13 @@ import java.util.Optional;
  */
 public class JFXGrid extends GridFormatPane implements TickListener {
     private static ArrayList<JFXGrid> gridInstances = new ArrayList<>();
+    private static final AtomicInteger gridCounter = new AtomicInteger();
+
+    //Unique id of this grid, used to tell grids apart in the metrics
+    private final int gridId = gridCounter.getAndIncrement();
+
+    //Rendering metrics, registered as an MXBean while the grid is in a scene
+    private final GridMetrics metrics = new GridMetrics();
 
     //The canvas for which the grid will be displayed on
     private final ResizableCanvas canvas;
@@ -61,8 +74,14 @@ public class JFXGrid extends GridFormatPane implements TickListener {
     //Responsible for specific style configurations like colors, default line sizes, chart sizes, tick marks, etc...
     private final GridStyler gridStyler;
 
-    //The current dataset displayed on the grid
-    private JFXDataset dataset;
+    //The current dataset displayed on the grid, read by the clock and JavaFX threads
+    private volatile JFXDataset dataset;
+
+    //Redraws the grid whenever the dataset publishes a new frame
+    private final Consumer<FrameSnapshot> frameListener = this::frameChanged;
+
+    //Cells drawn in the styler's mask color instead of their value, null if none
+    private volatile CellMask mask;
 
     //Marks whether or not the aspect ratio of the grid is free to change
     private boolean keepAspect = true;
@@ -80,6 +99,14 @@ public class JFXGrid extends GridFormatPane implements TickListener {
         getStyleClass().add("jfx-grid");
         gridStyler = new GridStyler();
         canvas = new ResizableCanvas();
+        //The MXBean lives as long as the grid is shown, so discarded grids don't stay registered
+        sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if(newScene != null) {
+                metrics.register(gridId);
+            } else {
+                metrics.unregister();
+            }
+        });
         gridRenderer = new GridRenderer(this);
         gridRenderer.render();
 
@@ -103,7 +130,16 @@ public class JFXGrid extends GridFormatPane implements TickListener {
      * @param newDataset The dataset, created by JFXDatasetFactory, to add to this grid
      */
     public void setData(JFXDataset newDataset) {
+        var oldDataset = dataset;
+        if(oldDataset != null) {
+            oldDataset.removeFrameListener(frameListener);
+        }
+
         this.dataset = newDataset;
+        if(newDataset != null) {
+            newDataset.addFrameListener(frameListener);
+        }
+        setDirty();
     }
 
     /**
@@ -114,6 +150,64 @@ public class JFXGrid extends GridFormatPane implements TickListener {
         return dataset;
     }
 
+    /**
+     * Gets the frame to display: the dataset's published current frame (see {@link JFXDataset#getSnapshot()}), passed
+     * through each plugin's {@link Plugin#process}
+     * @return the displayed frame, null if there's no data
+     */
+    public double[] getDisplayFrame() {
+        var data = dataset;
+        if(data == null) {
+            return null;
+        }
+
+        return processFrame(data.getSnapshot().getFrame());
+    }
+
+    /**
+     * Passes a frame through each plugin's {@link Plugin#process}
+     * @param frame the dataset frame
+     * @return the frame to display, null if given null
+     */
+    public double[] processFrame(double[] frame) {
+        for(Plugin plugin : plugins) {
+            if(frame == null) {
+                break;
+            }
+            frame = plugin.process(frame);
+        }
+        return frame;
+    }
+
+    /**
+     * @return true if any plugin may currently replace the displayed frame, see {@link Plugin#processesFrames()}
+     */
+    public boolean processesFrames() {
+        for(Plugin plugin : plugins) {
+            if(plugin.processesFrames()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the cells drawn in the styler's mask color instead of their value, e.g. cells deleted with the Marquee.
+     * The data itself is left untouched. Call again after editing the mask so the grid is redrawn.
+     * @param mask cells to mask, must match the dataset's rows and columns. Null to show every cell
+     */
+    public void setMask(CellMask mask) {
+        this.mask = mask;
+        setDirty();
+    }
+
+    /**
+     * @return the masked cells, null if none
+     */
+    public CellMask getMask() {
+        return mask;
+    }
+
     /**
      * @return list of plugins
      */
@@ -173,6 +267,22 @@ public class JFXGrid extends GridFormatPane implements TickListener {
         setDirty();
     }
 
+    /**
+     * Adds a node drawn over the heatmap, e.g. a plugin's selection outline. The node is positioned at the canvas'
+     * top left corner and uses the canvas' coordinates, it isn't resized or otherwise laid out.
+     * @param overlay node to draw over the heatmap
+     */
+    public void addOverlay(Node overlay) {
+        if(overlay == null) {
+            return;
+        }
+
+        overlay.setManaged(false);
+        overlay.layoutXProperty().bind(canvas.layoutXProperty());
+        overlay.layoutYProperty().bind(canvas.layoutYProperty());
+        getChildren().add(overlay);
+    }
+
     public ResizableCanvas getCanvas() {
         return canvas;
     }
@@ -208,6 +318,22 @@ public class JFXGrid extends GridFormatPane implements TickListener {
         return gridRenderer.getFPS();
     }
 
+    /**
+     * @return the unique id of this grid
+     */
+    public int getGridId() {
+        return gridId;
+    }
+
+    /**
+     * Gets the rendering metrics of this grid, which are also available over JMX as
+     * {@code JFXGrid:type=GridMetrics,grid=<id>} while the grid is in a scene
+     * @return
+     */
+    public GridMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Arranges the axes and grid into their respective locations.
      */
@@ -220,22 +346,40 @@ public class JFXGrid extends GridFormatPane implements TickListener {
     }
 
     /**
-     * Queues the grid and axes for a new update
+     * Queues the grid and axes for a new update, e.g. after changing the style or normalization
      */
-    private void setDirty() {
+    public void setDirty() {
         gridRenderer.setDirty(true);
         for(Axis axis : axes) {
             axis.getRenderer().setDirty(true);
         }
     }
 
+    /**
+     * Queues only the grid itself for a new render, e.g. when a plugin changes the displayed frame. The axes are left
+     * alone, they redraw on their own when their range changes.
+     */
+    public void requestRender() {
+        gridRenderer.setDirty(true);
+    }
+
+    /**
+     * Called by the dataset, on the thread that moved it, each time it publishes a new frame
+     */
+    private void frameChanged(FrameSnapshot snapshot) {
+        gridRenderer.setDirty(true);
+    }
+
     /**
      * Called at each render cycle.
      * @param clock the JFXClock calling the tick
      */
     @Override
     public void update(JFXClock clock) {
-        gridRenderer.render();
+        //The grid itself is redrawn when marked dirty, by frame changes and layout/style changes, rather than polled here
+        for(Axis axis : axes) {
+            axis.update();
+        }
     }
 
     /**
@@ -265,11 +409,26 @@ public class JFXGrid extends GridFormatPane implements TickListener {
         }
     }
 
+    /**
+     * Releases this grid once it's no longer used: unregisters its metrics and stops listening to its dataset
+     */
+    public void dispose() {
+        metrics.unregister();
+        var oldDataset = dataset;
+        if(oldDataset != null) {
+            oldDataset.removeFrameListener(frameListener);
+        }
+        gridInstances.remove(this);
+    }
+
     /**
      * Shuts down all running background processes.
      */
     public static void shutdown() {
         JFXClock.get().setRunning(false);
         JFXProcessManager.end();
+        for(JFXGrid grid : gridInstances) {
+            grid.metrics.unregister();
+        }
     }
 }
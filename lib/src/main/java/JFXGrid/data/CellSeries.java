@@ -0,0 +1,487 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A cell-major copy of a dataset, for reading the history of single cells or small regions across every frame (e.g.
+ * to plot a pixel's trace) without touching each frame.
+ * <p>
+ * The copy is tiled in space and time: frames are split into blocks of {@link #getBlockFrames()} frames, and the grid
+ * into tiles of {@link #TILE_SIZE} x {@link #TILE_SIZE} cells. Within a block, each tile's cells are stored one after
+ * the other, and each cell's values back to back in frame order. Reading a cell's whole history is then one sequential
+ * run of a block's length per block, whatever the size of the grid, and a region one run per tile column it covers.
+ * <p>
+ * The copy is built on a background thread, streaming over the chunks. Each block is transposed a band of tiles at a
+ * time, so building needs at most {@link #BUILD_BUFFER_BYTES} whatever the size of the grid; grids larger than that
+ * read a block's frames once per band. A paged dataset's copy is stored as {@code cells.bin} next to its chunk files,
+ * and can be reopened with {@link #open}. Other datasets keep it in memory.
+ * <p>
+ * Reading is safe from any thread.
+ *
+ * @author aram-ap
+ */
+public final class CellSeries implements AutoCloseable {
+    //Frames per block by default, each cell's run in a block is 2 KB
+    public static final int DEFAULT_BLOCK_FRAMES = 256;
+    //Rows and columns of cells per tile
+    public static final int TILE_SIZE = 32;
+    //Memory used to transpose a band of tiles while building
+    public static final int BUILD_BUFFER_BYTES = 64 << 20;
+
+    private static final int MAGIC = 0x4A465853; //"JFXS", chunk files use "JFXC"
+    //magic, rows, columns, frames, frames per block, tile size
+    private static final int HEADER_BYTES = 6 * Integer.BYTES;
+    private static final String FILE_NAME = "cells.bin";
+
+    private final int rows;
+    private final int columns;
+    private final int cells;
+    private final int numFrames;
+    private final int blockFrames;
+
+    //Tiles are numbered column-major like the cells, tileStart[t] is the number of cells in the tiles before t
+    private final int tilesDown;
+    private final int tilesAcross;
+    private final int[] tileStart;
+
+    //Each block's tiles, indexed block * tiles + tile. One of the two is null
+    private final double[][] memoryTiles;
+    private final FileChannel file;
+
+    private CellSeries(int rows, int columns, int numFrames, int blockFrames, boolean inMemory, FileChannel file) {
+        this.rows = rows;
+        this.columns = columns;
+        this.cells = rows * columns;
+        this.numFrames = numFrames;
+        this.blockFrames = blockFrames;
+        this.tilesDown = (rows + TILE_SIZE - 1) / TILE_SIZE;
+        this.tilesAcross = (columns + TILE_SIZE - 1) / TILE_SIZE;
+        this.tileStart = new int[tilesDown * tilesAcross + 1];
+        for(int t = 0; t < tilesDown * tilesAcross; t++) {
+            tileStart[t + 1] = tileStart[t] + tileHeight(t) * tileWidth(t);
+        }
+        this.memoryTiles = inMemory ? new double[numBlocks() * tilesDown * tilesAcross][] : null;
+        this.file = file;
+    }
+
+    /**
+     * Builds the cell-major copy of the dataset on a background thread, with blocks of {@link #DEFAULT_BLOCK_FRAMES}
+     */
+    public static CompletableFuture<CellSeries> build(JFXDataset dataset) {
+        return build(dataset, DEFAULT_BLOCK_FRAMES);
+    }
+
+    /**
+     * Builds the cell-major copy of the dataset on a background thread. Doesn't move the dataset's frame pointer.
+     * @param dataset the dataset, frames added to it afterwards aren't covered
+     * @param blockFrames number of frames transposed together, each cell's history is read in runs of this length.
+     *                    Must be in [1, {@link #BUILD_BUFFER_BYTES} / 8 / tile cells]
+     * @return completes with the copy once every frame is stored
+     */
+    public static CompletableFuture<CellSeries> build(JFXDataset dataset, int blockFrames) {
+        return build(dataset, blockFrames, BUILD_BUFFER_BYTES);
+    }
+
+    /**
+     * @param bufferBytes memory used to transpose a band of tiles, must hold a block of one tile
+     */
+    static CompletableFuture<CellSeries> build(JFXDataset dataset, int blockFrames, int bufferBytes) {
+        if(blockFrames <= 0 || (long) blockFrames * TILE_SIZE * TILE_SIZE * Double.BYTES > bufferBytes) {
+            throw new IllegalArgumentException("Block frames must be in [1, "
+                    + bufferBytes / Double.BYTES / TILE_SIZE / TILE_SIZE + "], got " + blockFrames);
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return create(dataset, blockFrames, bufferBytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Opens the copy stored next to a paged dataset's chunks
+     * @return the copy, null if the dataset isn't paged or no matching copy is stored
+     * @throws IOException if the file can't be read
+     */
+    public static CellSeries open(JFXDataset dataset) throws IOException {
+        Path directory = directory(dataset);
+        if(directory == null || !Files.exists(directory.resolve(FILE_NAME))) {
+            return null;
+        }
+
+        FileChannel channel = FileChannel.open(directory.resolve(FILE_NAME), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            if(header.position() != HEADER_BYTES || header.getInt(0) != MAGIC
+                    || header.getInt(4) != dataset.getNumRows() || header.getInt(8) != dataset.getNumColumns()
+                    || header.getInt(12) != dataset.size() || header.getInt(16) <= 0
+                    || header.getInt(20) != TILE_SIZE) {
+                channel.close();
+                return null;
+            }
+            return new CellSeries(dataset.getNumRows(), dataset.getNumColumns(), dataset.size(), header.getInt(16),
+                    false, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static CellSeries create(JFXDataset dataset, int blockFrames, int bufferBytes) throws IOException {
+        final int rows = dataset.getNumRows(), cols = dataset.getNumColumns();
+        final List<ChunkStats> chunks = dataset.getChunkStats();
+        final ChunkStats last = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        final int numFrames = last == null ? 0 : last.getUid() + last.size();
+        blockFrames = Math.max(1, Math.min(blockFrames, numFrames));
+
+        //Written to a temporary file and moved into place once complete, like the chunk files
+        Path directory = directory(dataset);
+        Path temp = directory == null ? null : directory.resolve(FILE_NAME + ".tmp");
+        FileChannel channel = null;
+        if(directory != null) {
+            channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        try {
+            CellSeries series = new CellSeries(rows, cols, numFrames, blockFrames, directory == null, channel);
+            if(channel != null) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putInt(rows).putInt(cols).putInt(numFrames).putInt(blockFrames)
+                        .putInt(TILE_SIZE).flip();
+                series.write(header, 0);
+            }
+
+            final int bandCells = Math.max(TILE_SIZE * TILE_SIZE,
+                    Math.min(series.cells, bufferBytes / Double.BYTES / blockFrames));
+            final double[] transposed = new double[Math.min(series.cells, bandCells) * blockFrames];
+            ByteBuffer buffer = channel == null ? null : ByteBuffer.allocate(transposed.length * Double.BYTES);
+            ChunkReader reader = new ChunkReader(dataset, chunks);
+            for(int blockNum = 0; blockNum < series.numBlocks(); blockNum++) {
+                int tiles = series.tileStart.length - 1;
+                for(int first = 0; first < tiles; ) {
+                    //As many tiles as fit the buffer, at least one
+                    int end = first + 1;
+                    while(end < tiles && series.tileStart[end + 1] - series.tileStart[first] <= bandCells) {
+                        end++;
+                    }
+                    series.transpose(reader, blockNum, first, end, transposed);
+                    series.store(blockNum, first, end, transposed, buffer);
+                    first = end;
+                }
+            }
+            if(channel == null) {
+                return series;
+            }
+
+            channel.force(false);
+            channel.close();
+            Path file = directory.resolve(FILE_NAME);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new CellSeries(rows, cols, numFrames, blockFrames, false,
+                    FileChannel.open(file, StandardOpenOption.READ));
+        } catch (IOException | RuntimeException e) {
+            if(channel != null) {
+                channel.close();
+                Files.deleteIfExists(temp);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Transposes the block's frames over a band of tiles, each cell's run is the block's length
+     */
+    private void transpose(ChunkReader reader, int blockNum, int firstTile, int endTile, double[] transposed)
+            throws IOException {
+        final int length = blockLength(blockNum);
+        final int base = tileStart[firstTile];
+        for(int t = 0; t < length; t++) {
+            double[] frame = reader.frame(blockNum * blockFrames + t + 1);
+            for(int tile = firstTile; tile < endTile; tile++) {
+                int x0 = tileColumn(tile), y0 = tileRow(tile), height = tileHeight(tile), width = tileWidth(tile);
+                int index = (tileStart[tile] - base) * length + t;
+                for(int x = x0; x < x0 + width; x++) {
+                    for(int y = x * rows + y0, yEnd = y + height; y < yEnd; y++, index += length) {
+                        transposed[index] = frame[y];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores a transposed band of tiles, the band is contiguous in the file
+     */
+    private void store(int blockNum, int firstTile, int endTile, double[] transposed, ByteBuffer buffer)
+            throws IOException {
+        final int length = blockLength(blockNum);
+        final int base = tileStart[firstTile];
+        if(memoryTiles != null) {
+            int tiles = tileStart.length - 1;
+            for(int tile = firstTile; tile < endTile; tile++) {
+                int size = (tileStart[tile + 1] - tileStart[tile]) * length;
+                double[] values = new double[size];
+                System.arraycopy(transposed, (tileStart[tile] - base) * length, values, 0, size);
+                memoryTiles[blockNum * tiles + tile] = values;
+            }
+            return;
+        }
+
+        int size = (tileStart[endTile] - base) * length;
+        buffer.clear();
+        buffer.asDoubleBuffer().put(transposed, 0, size);
+        buffer.limit(size * Double.BYTES);
+        write(buffer, tileOffset(blockNum, firstTile));
+    }
+
+    private void write(ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) {
+            position += file.write(buffer, position);
+        }
+    }
+
+    /**
+     * Reads doubles of a stored tile, starting at the given value within it
+     */
+    private void read(int blockNum, int tile, int index, double[] out, int outOffset, int length) throws IOException {
+        if(memoryTiles != null) {
+            System.arraycopy(memoryTiles[blockNum * (tileStart.length - 1) + tile], index, out, outOffset, length);
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length * Double.BYTES);
+        long position = tileOffset(blockNum, tile) + (long) index * Double.BYTES;
+        while(buffer.hasRemaining()) {
+            if(file.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + FILE_NAME + " at block " + blockNum);
+            }
+        }
+        buffer.flip().asDoubleBuffer().get(out, outOffset, length);
+    }
+
+    private long tileOffset(int blockNum, int tile) {
+        return HEADER_BYTES + ((long) blockNum * blockFrames * cells + (long) tileStart[tile] * blockLength(blockNum))
+                * Double.BYTES;
+    }
+
+    private int numBlocks() {
+        return (numFrames + blockFrames - 1) / blockFrames;
+    }
+
+    private int blockLength(int blockNum) {
+        return Math.min(blockFrames, numFrames - blockNum * blockFrames);
+    }
+
+    private int tileRow(int tile) {
+        return (tile % tilesDown) * TILE_SIZE;
+    }
+
+    private int tileColumn(int tile) {
+        return (tile / tilesDown) * TILE_SIZE;
+    }
+
+    private int tileHeight(int tile) {
+        return Math.min(TILE_SIZE, rows - tileRow(tile));
+    }
+
+    private int tileWidth(int tile) {
+        return Math.min(TILE_SIZE, columns - tileColumn(tile));
+    }
+
+    /**
+     * Reads a cell's value in every frame
+     * @return a new array, index i holding frame i + 1
+     * @throws IOException if the stored copy can't be read
+     */
+    public double[] series(int row, int col) throws IOException {
+        return series(row, col, 1, numFrames);
+    }
+
+    /**
+     * Reads a cell's values over a range of frames
+     * @param fromFrame first frame, values are [1, getNumFrames()]
+     * @param toFrame last frame, inclusive
+     * @return a new array, index i holding frame fromFrame + i
+     * @throws IOException if the stored copy can't be read
+     */
+    public double[] series(int row, int col, int fromFrame, int toFrame) throws IOException {
+        return region(row, col, row, col, fromFrame, toFrame)[0];
+    }
+
+    /**
+     * Reads the values of every cell of a region in every frame
+     * @see #region(int, int, int, int, int, int)
+     */
+    public double[][] region(int row0, int col0, int row1, int col1) throws IOException {
+        return region(row0, col0, row1, col1, 1, numFrames);
+    }
+
+    /**
+     * Reads the values of every cell of a region over a range of frames
+     * @param row0 first row of the region
+     * @param col0 first column of the region
+     * @param row1 last row of the region, inclusive
+     * @param col1 last column of the region, inclusive
+     * @param fromFrame first frame, values are [1, getNumFrames()]
+     * @param toFrame last frame, inclusive
+     * @return each cell's values, cells in column-major order ({@code (col - col0) * regionRows + (row - row0)}),
+     *         index i of a cell holding frame fromFrame + i
+     * @throws IOException if the stored copy can't be read
+     */
+    public double[][] region(int row0, int col0, int row1, int col1, int fromFrame, int toFrame) throws IOException {
+        if(row0 < 0 || col0 < 0 || row1 >= rows || col1 >= columns || row0 > row1 || col0 > col1) {
+            throw new IndexOutOfBoundsException("Region (" + row0 + ", " + col0 + ") - (" + row1 + ", " + col1
+                    + ") is outside of the " + rows + "x" + columns + " grid");
+        }
+        if(fromFrame < 1 || toFrame > numFrames || fromFrame > toFrame) {
+            throw new IndexOutOfBoundsException("Frames [" + fromFrame + ", " + toFrame + "] are outside of [1, "
+                    + numFrames + "]");
+        }
+
+        final int regionRows = row1 - row0 + 1;
+        final double[][] out = new double[regionRows * (col1 - col0 + 1)][toFrame - fromFrame + 1];
+        double[] run = null;
+
+        for(int blockNum = (fromFrame - 1) / blockFrames; blockNum <= (toFrame - 1) / blockFrames; blockNum++) {
+            final int length = blockLength(blockNum);
+            final int blockStart = blockNum * blockFrames + 1;
+            final int first = Math.max(fromFrame, blockStart) - blockStart;
+            final int count = Math.min(toFrame, blockStart + length - 1) - blockStart - first + 1;
+            final int outStart = blockStart + first - fromFrame;
+
+            for(int col = col0; col <= col1; col++) {
+                for(int tileY = row0 / TILE_SIZE; tileY <= row1 / TILE_SIZE; tileY++) {
+                    int tile = (col / TILE_SIZE) * tilesDown + tileY;
+                    int y0 = tileRow(tile);
+                    int fromRow = Math.max(row0, y0), toRow = Math.min(row1, y0 + tileHeight(tile) - 1);
+                    int local = (col - tileColumn(tile)) * tileHeight(tile) + fromRow - y0;
+                    int cellsInRun = toRow - fromRow + 1;
+                    int outCell = (col - col0) * regionRows + fromRow - row0;
+
+                    if(cellsInRun == 1) {
+                        //A single cell only needs the frames asked for
+                        read(blockNum, tile, local * length + first, out[outCell], outStart, count);
+                        continue;
+                    }
+
+                    //The cells of one tile column are next to each other, so they're one sequential read
+                    if(run == null || run.length < cellsInRun * length) {
+                        run = new double[cellsInRun * length];
+                    }
+                    read(blockNum, tile, local * length, run, 0, cellsInRun * length);
+                    for(int r = 0; r < cellsInRun; r++) {
+                        System.arraycopy(run, r * length + first, out[outCell + r], outStart, count);
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * @return number of frames transposed together
+     */
+    public int getBlockFrames() {
+        return blockFrames;
+    }
+
+    public int getNumFrames() {
+        return numFrames;
+    }
+
+    public int getNumRows() {
+        return rows;
+    }
+
+    public int getNumColumns() {
+        return columns;
+    }
+
+    /**
+     * Closes the stored copy's file, the file itself is kept
+     */
+    @Override
+    public void close() throws IOException {
+        if(file != null) {
+            file.close();
+        }
+    }
+
+    private static Path directory(JFXDataset dataset) {
+        if(dataset instanceof JFXDataDeque deque && deque.getPager() != null) {
+            return deque.getPager().getDirectory();
+        }
+        return null;
+    }
+
+    /**
+     * Reads frames in order through the dataset's chunks, keeping the last chunk read so a block's frames can be read
+     * again for each band without reloading a chunk that holds them all
+     */
+    private static final class ChunkReader {
+        private final JFXDataset dataset;
+        private final List<ChunkStats> chunks;
+        private int index = -1;
+        private DataChunk chunk;
+
+        private ChunkReader(JFXDataset dataset, List<ChunkStats> chunks) {
+            this.dataset = dataset;
+            this.chunks = chunks;
+        }
+
+        private double[] frame(int frameNum) throws IOException {
+            if(index < 0 || frameNum <= chunks.get(index).getUid() || frameNum > chunks.get(index).getUid()
+                    + chunks.get(index).size()) {
+                int found = index < 0 ? 0 : index;
+                while(found > 0 && frameNum <= chunks.get(found).getUid()) {
+                    found--;
+                }
+                while(frameNum > chunks.get(found).getUid() + chunks.get(found).size()) {
+                    found++;
+                }
+
+                int uid = chunks.get(found).getUid();
+                chunk = dataset.chunk(uid);
+                if(chunk == null) {
+                    throw new IOException("Chunk " + uid + " couldn't be read");
+                }
+                index = found;
+            }
+            return chunk.frame(frameNum - chunks.get(index).getUid());
+        }
+    }
+}
@@ -1,13 +1,319 @@
 package JFXGrid.data;
 
+import JFXGrid.metrics.ChunkIOEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
 /**
  * This class is responsible for reading and writing chunk data into the local filesystem.
+ * Each chunk is stored in its own file ({@code chunk-<uid>.bin}) holding a small header followed by every frame's
+ * values. An index of the stored chunks is kept in memory so paged datasets can find the chunk holding any frame
+ * without touching the disk. Reads and writes are safe from any thread.
+ * <p>
+ * Each file ends with the chunk's {@link ChunkStats}, which {@link #readStats} reads on its own: a few kilobytes per
+ * chunk rather than every frame. Version 1 files, written before the stats were added, are still read.
  */
 public class ChunkFileManager {
+    private static final int MAGIC = 0x4A465843; //"JFXC"
+    private static final int VERSION = 2;
+    //Files of this version don't hold stats
+    private static final int VERSION_NO_STATS = 1;
+    //magic, version, uid, rows, columns, frames
+    private static final int HEADER_BYTES = 6 * Integer.BYTES;
+    private static final String PREFIX = "chunk-";
+    private static final String SUFFIX = ".bin";
 
+    private final Path directory;
+    //uid -> number of frames, for every chunk stored in the directory
+    private final ConcurrentSkipListMap<Integer, Integer> index = new ConcurrentSkipListMap<>();
+    //Stats read or written so far, by uid
+    private final Map<Integer, ChunkStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Stores chunks in a new temporary directory
+     */
     public ChunkFileManager() {
+        try {
+            this.directory = Files.createTempDirectory("jfxgrid-chunks");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stores chunks in the given directory. Chunk files already in the directory are indexed so they can be read back.
+     * @param directory directory to store the chunk files in, created if it doesn't exist
+     * @throws IOException if the directory can't be created or an existing chunk file can't be read
+     */
+    public ChunkFileManager(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for(Path file : files) {
+                try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    ByteBuffer header = readHeader(channel, file);
+                    index.put(header.getInt(2 * Integer.BYTES), header.getInt(5 * Integer.BYTES));
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a chunk into its file, replacing any chunk stored with the same uid
+     * @param chunk chunk to write
+     * @param rows number of rows of each frame
+     * @param cols number of columns of each frame
+     * @throws IOException if the file can't be written
+     * @throws IllegalArgumentException if a frame doesn't hold rows * cols values
+     */
+    public void write(DataChunk chunk, int rows, int cols) throws IOException {
+        ChunkIOEvent event = new ChunkIOEvent();
+        event.begin();
+
+        int numFrames = chunk.size();
+        int frameSize = rows * cols;
+        ChunkStats chunkStats = chunk.getStats();
+        Path file = getPath(chunk.uid);
+        Path temp = directory.resolve(file.getFileName() + ".tmp");
+
+        try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(chunk.uid).putInt(rows).putInt(cols).putInt(numFrames).flip();
+            writeFully(channel, header);
+
+            ByteBuffer buffer = ByteBuffer.allocate(frameSize * Double.BYTES);
+            for(int i = 0; i < numFrames; i++) {
+                //Read one at a time, so sparse frames are expanded one at a time
+                double[] frame = chunk.frame(i + 1);
+                if(frame == null || frame.length != frameSize) {
+                    throw new IllegalArgumentException("Frame " + i + " of chunk " + chunk.uid + " doesn't hold " + frameSize + " values");
+                }
+
+                buffer.clear();
+                buffer.asDoubleBuffer().put(frame);
+                writeFully(channel, buffer);
+            }
+
+            ByteBuffer statsBuffer = ByteBuffer.allocate(ChunkStats.bytes(numFrames));
+            chunkStats.write(statsBuffer);
+            writeFully(channel, statsBuffer.flip());
+        }
+
+        //Readers never see a partially written chunk
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        index.put(chunk.uid, numFrames);
+        stats.put(chunk.uid, chunkStats);
+
+        event.end();
+        if(event.shouldCommit()) {
+            commitEvent(event, "write", chunk.uid, numFrames, (long) numFrames * frameSize * Double.BYTES, file);
+        }
+    }
+
+    /**
+     * Reads a chunk back from its file
+     * @param uid uid of the chunk
+     * @param rows expected number of rows of each frame
+     * @param cols expected number of columns of each frame
+     * @return a new chunk holding the stored frames
+     * @throws IOException if the file can't be read, is corrupt, or holds frames of a different size
+     */
+    public DataChunk read(int uid, int rows, int cols) throws IOException {
+        ChunkIOEvent event = new ChunkIOEvent();
+        event.begin();
+
+        Path file = getPath(uid);
+        double[][] frames;
+        ChunkStats chunkStats = null;
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readHeader(channel, file);
+            int storedRows = header.getInt(3 * Integer.BYTES);
+            int storedCols = header.getInt(4 * Integer.BYTES);
+            if(storedRows != rows || storedCols != cols) {
+                throw new IOException(file + " holds " + storedRows + "x" + storedCols + " frames, expected " + rows + "x" + cols);
+            }
+
+            frames = new double[header.getInt(5 * Integer.BYTES)][rows * cols];
+            ByteBuffer buffer = ByteBuffer.allocate(rows * cols * Double.BYTES);
+            for(double[] frame : frames) {
+                buffer.clear();
+                readFully(channel, buffer, file);
+                buffer.flip();
+                buffer.asDoubleBuffer().get(frame);
+            }
+
+            if(header.getInt(Integer.BYTES) != VERSION_NO_STATS) {
+                ByteBuffer statsBuffer = ByteBuffer.allocate(ChunkStats.bytes(frames.length));
+                readFully(channel, statsBuffer, file);
+                chunkStats = ChunkStats.read(statsBuffer.flip(), uid);
+                stats.put(uid, chunkStats);
+            }
+        }
+
+        event.end();
+        if(event.shouldCommit()) {
+            commitEvent(event, "read", uid, frames.length, (long) frames.length * rows * cols * Double.BYTES, file);
+        }
+
+        DataChunk chunk = new DataChunk(frames, uid);
+        if(chunkStats != null) {
+            chunk.setStats(chunkStats);
+        }
+        return chunk;
+    }
+
+    /**
+     * Reads the stats of a stored chunk without reading its frames. Stats are kept in memory once read.
+     * @param uid uid of the chunk
+     * @return the chunk's stats, null if no chunk with the uid is stored
+     * @throws IOException if the file can't be read or is corrupt
+     */
+    public ChunkStats readStats(int uid) throws IOException {
+        ChunkStats held = stats.get(uid);
+        if(held != null || !index.containsKey(uid)) {
+            return held;
+        }
+
+        Path file = getPath(uid);
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readHeader(channel, file);
+            int rows = header.getInt(3 * Integer.BYTES);
+            int cols = header.getInt(4 * Integer.BYTES);
+            int numFrames = header.getInt(5 * Integer.BYTES);
+            if(header.getInt(Integer.BYTES) == VERSION_NO_STATS) {
+                held = read(uid, rows, cols).getStats();
+            } else {
+                ByteBuffer buffer = ByteBuffer.allocate(ChunkStats.bytes(numFrames));
+                channel.position(HEADER_BYTES + (long) numFrames * rows * cols * Double.BYTES);
+                readFully(channel, buffer, file);
+                held = ChunkStats.read(buffer.flip(), uid);
+            }
+        }
+
+        stats.put(uid, held);
+        return held;
+    }
+
+    /**
+     * @param frameNum frame number, values are [1, getTotalFrames()]
+     * @return the uid of the stored chunk holding the frame, or -1 if no chunk holds it
+     */
+    public int getChunkUid(int frameNum) {
+        Map.Entry<Integer, Integer> entry = index.lowerEntry(frameNum);
+        if(entry == null || frameNum > entry.getKey() + entry.getValue()) {
+            return -1;
+        }
+
+        return entry.getKey();
+    }
+
+    /**
+     * @return the uid of the stored chunk following the given uid, or -1 if it is the last
+     */
+    public int getNextUid(int uid) {
+        Integer next = index.higherKey(uid);
+        return next == null ? -1 : next;
+    }
+
+    /**
+     * @return the uid of the stored chunk preceding the given uid, or -1 if it is the first
+     */
+    public int getPreviousUid(int uid) {
+        Integer prev = index.lowerKey(uid);
+        return prev == null ? -1 : prev;
+    }
+
+    /**
+     * @return true if a chunk with the given uid is stored
+     */
+    public boolean contains(int uid) {
+        return index.containsKey(uid);
+    }
+
+    /**
+     * @return the number of stored chunks
+     */
+    public int getNumChunks() {
+        return index.size();
+    }
+
+    /**
+     * @return the number of frames covered by the stored chunks, i.e. the last frame number
+     */
+    public int getTotalFrames() {
+        if(index.isEmpty()) {
+            return 0;
+        }
 
+        var last = index.lastEntry();
+        return last.getKey() + last.getValue();
     }
 
+    /**
+     * @return the directory the chunks are stored in
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return the file the chunk with the given uid is stored in
+     */
+    public Path getPath(int uid) {
+        return directory.resolve(PREFIX + uid + SUFFIX);
+    }
 
+    /**
+     * Deletes every stored chunk file
+     * @throws IOException if a file can't be deleted
+     */
+    public void clear() throws IOException {
+        for(int uid : index.keySet()) {
+            Files.deleteIfExists(getPath(uid));
+            index.remove(uid);
+            stats.remove(uid);
+        }
+    }
+
+    private static ByteBuffer readHeader(FileChannel channel, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header, file);
+        int version = header.getInt(Integer.BYTES);
+        if(header.getInt(0) != MAGIC || (version != VERSION && version != VERSION_NO_STATS)) {
+            throw new IOException(file + " is not a JFXGrid chunk file");
+        }
+
+        return header;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, Path file) throws IOException {
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of " + file);
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void commitEvent(ChunkIOEvent event, String operation, int uid, int frames, long bytes, Path file) {
+        event.operation = operation;
+        event.uid = uid;
+        event.frames = frames;
+        event.bytes = bytes;
+        event.path = file.toString();
+        event.commit();
+    }
 }
@@ -0,0 +1,344 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.data;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Summaries of a chunk's frames: the min, max, sum, number of non-finite values, and a coarse histogram of every
+ * frame, plus the same for the chunk as a whole. Computed once when the chunk is built (frames in parallel) and
+ * stored at the end of its chunk file, so ranges can be found and frames searched without reading the frames.
+ * <p>
+ * Min, max and sum only count finite values, a frame without any has NaN min and max. The histograms of every frame
+ * share the chunk's range, {@link #BINS} bins over [{@link #getMin()}, {@link #getMax()}], so they can be added up
+ * and compared. Sparse frames are summarized from their non-zero cells. Instances are immutable.
+ *
+ * @author aram-ap
+ */
+public final class ChunkStats {
+    //Number of histogram bins of each frame
+    public static final int BINS = 32;
+
+    private final int uid;
+    private final int cells;
+    private final double[] frameMin;
+    private final double[] frameMax;
+    private final double[] frameSum;
+    private final int[] frameNonFinite;
+    //BINS counts per frame, back to back
+    private final int[] frameHistograms;
+
+    //Chunk totals, derived from the frames
+    private final double min;
+    private final double max;
+    private final double sum;
+    private final long nonFinite;
+    private final int[] histogram = new int[BINS];
+
+    private ChunkStats(int uid, int cells, double[] frameMin, double[] frameMax, double[] frameSum,
+                       int[] frameNonFinite, int[] frameHistograms) {
+        this.uid = uid;
+        this.cells = cells;
+        this.frameMin = frameMin;
+        this.frameMax = frameMax;
+        this.frameSum = frameSum;
+        this.frameNonFinite = frameNonFinite;
+        this.frameHistograms = frameHistograms;
+
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY, sum = 0;
+        long nonFinite = 0;
+        for(int i = 0; i < frameMin.length; i++) {
+            if(frameMin[i] < min) min = frameMin[i];
+            if(frameMax[i] > max) max = frameMax[i];
+            sum += frameSum[i];
+            nonFinite += frameNonFinite[i];
+            for(int bin = 0; bin < BINS; bin++) {
+                histogram[bin] += frameHistograms[i * BINS + bin];
+            }
+        }
+        this.min = min <= max ? min : Double.NaN;
+        this.max = min <= max ? max : Double.NaN;
+        this.sum = sum;
+        this.nonFinite = nonFinite;
+    }
+
+    /**
+     * Summarizes every frame of the chunk, in parallel
+     * @param chunk the chunk, every frame must be of the same size
+     */
+    public static ChunkStats of(DataChunk chunk) {
+        final int numFrames = chunk.size();
+        final double[] frameMin = new double[numFrames];
+        final double[] frameMax = new double[numFrames];
+        final double[] frameSum = new double[numFrames];
+        final int[] frameNonFinite = new int[numFrames];
+        final int[] frameHistograms = new int[numFrames * BINS];
+
+        final double[] first = numFrames == 0 ? null : chunk.frame(1);
+        final int cells = first == null ? 0 : first.length;
+
+        //First pass for the chunk's range, which the second pass bins every frame's histogram over
+        IntStream.range(0, numFrames).parallel().forEach(i -> {
+            double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY, sum = 0;
+            int nonFinite = 0;
+            SparseFrame sparse = chunk.getSparse(i + 1);
+            if(sparse != null) {
+                if(sparse.getNonZeros() < cells) {
+                    min = max = 0;
+                }
+                for(int n = 0; n < sparse.getNonZeros(); n++) {
+                    double val = sparse.getValue(n);
+                    if(!Double.isFinite(val)) {
+                        nonFinite++;
+                        continue;
+                    }
+                    if(val < min) min = val;
+                    if(val > max) max = val;
+                    sum += val;
+                }
+            } else {
+                for(double val : chunk.frame(i + 1)) {
+                    if(!Double.isFinite(val)) {
+                        nonFinite++;
+                        continue;
+                    }
+                    if(val < min) min = val;
+                    if(val > max) max = val;
+                    sum += val;
+                }
+            }
+
+            frameMin[i] = min <= max ? min : Double.NaN;
+            frameMax[i] = min <= max ? max : Double.NaN;
+            frameSum[i] = sum;
+            frameNonFinite[i] = nonFinite;
+        });
+
+        double low = Double.POSITIVE_INFINITY, high = Double.NEGATIVE_INFINITY;
+        for(int i = 0; i < numFrames; i++) {
+            if(frameMin[i] < low) low = frameMin[i];
+            if(frameMax[i] > high) high = frameMax[i];
+        }
+
+        if(low <= high) {
+            final double min = low;
+            final double scale = high > low ? BINS / (high - low) : 0;
+            IntStream.range(0, numFrames).parallel().forEach(i -> {
+                final int base = i * BINS;
+                SparseFrame sparse = chunk.getSparse(i + 1);
+                if(sparse != null) {
+                    frameHistograms[base + bin(0, min, scale)] += cells - sparse.getNonZeros();
+                    for(int n = 0; n < sparse.getNonZeros(); n++) {
+                        double val = sparse.getValue(n);
+                        if(Double.isFinite(val)) {
+                            frameHistograms[base + bin(val, min, scale)]++;
+                        }
+                    }
+                } else {
+                    for(double val : chunk.frame(i + 1)) {
+                        if(Double.isFinite(val)) {
+                            frameHistograms[base + bin(val, min, scale)]++;
+                        }
+                    }
+                }
+            });
+        }
+
+        return new ChunkStats(chunk.uid, cells, frameMin, frameMax, frameSum, frameNonFinite, frameHistograms);
+    }
+
+    private static int bin(double val, double min, double scale) {
+        return Math.min(BINS - 1, (int) ((val - min) * scale));
+    }
+
+    /**
+     * @return the number of bytes {@link #write} takes for a chunk of the given number of frames
+     */
+    static int bytes(int numFrames) {
+        return 2 * Integer.BYTES + numFrames * (3 * Double.BYTES + Integer.BYTES + BINS * Integer.BYTES);
+    }
+
+    /**
+     * Writes the per-frame summaries, the chunk totals are derived from them when read back
+     */
+    void write(ByteBuffer buffer) {
+        buffer.putInt(cells).putInt(size());
+        for(int i = 0; i < size(); i++) {
+            buffer.putDouble(frameMin[i]).putDouble(frameMax[i]).putDouble(frameSum[i]).putInt(frameNonFinite[i]);
+            for(int bin = 0; bin < BINS; bin++) {
+                buffer.putInt(frameHistograms[i * BINS + bin]);
+            }
+        }
+    }
+
+    /**
+     * Reads summaries written by {@link #write}
+     */
+    static ChunkStats read(ByteBuffer buffer, int uid) {
+        int cells = buffer.getInt();
+        int numFrames = buffer.getInt();
+        double[] frameMin = new double[numFrames];
+        double[] frameMax = new double[numFrames];
+        double[] frameSum = new double[numFrames];
+        int[] frameNonFinite = new int[numFrames];
+        int[] frameHistograms = new int[numFrames * BINS];
+        for(int i = 0; i < numFrames; i++) {
+            frameMin[i] = buffer.getDouble();
+            frameMax[i] = buffer.getDouble();
+            frameSum[i] = buffer.getDouble();
+            frameNonFinite[i] = buffer.getInt();
+            for(int bin = 0; bin < BINS; bin++) {
+                frameHistograms[i * BINS + bin] = buffer.getInt();
+            }
+        }
+        return new ChunkStats(uid, cells, frameMin, frameMax, frameSum, frameNonFinite, frameHistograms);
+    }
+
+    /**
+     * @return the uid of the summarized chunk, i.e. the number of frames before it
+     */
+    public int getUid() {
+        return uid;
+    }
+
+    /**
+     * @return the number of summarized frames
+     */
+    public int size() {
+        return frameMin.length;
+    }
+
+    /**
+     * @return the smallest finite value of the chunk, NaN if there's none
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return the largest finite value of the chunk, NaN if there's none
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @return the sum of the chunk's finite values
+     */
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return the number of NaN and infinite values in the chunk
+     */
+    public long getNonFinite() {
+        return nonFinite;
+    }
+
+    /**
+     * @return the number of finite values in the chunk
+     */
+    public long getCount() {
+        return (long) cells * size() - nonFinite;
+    }
+
+    /**
+     * @return the mean of the chunk's finite values, NaN if there's none
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    /**
+     * @return a copy of the chunk's histogram, {@link #BINS} bins over [getMin(), getMax()]
+     */
+    public int[] getHistogram() {
+        return histogram.clone();
+    }
+
+    /**
+     * @param frameNum frame relative to the chunk, values are [1, size()]
+     * @return the smallest finite value of the frame, NaN if there's none
+     */
+    public double getMin(int frameNum) {
+        return frameMin[index(frameNum)];
+    }
+
+    /**
+     * @param frameNum frame relative to the chunk, values are [1, size()]
+     * @return the largest finite value of the frame, NaN if there's none
+     */
+    public double getMax(int frameNum) {
+        return frameMax[index(frameNum)];
+    }
+
+    /**
+     * @param frameNum frame relative to the chunk, values are [1, size()]
+     * @return the sum of the frame's finite values
+     */
+    public double getSum(int frameNum) {
+        return frameSum[index(frameNum)];
+    }
+
+    /**
+     * @param frameNum frame relative to the chunk, values are [1, size()]
+     * @return the number of NaN and infinite values in the frame
+     */
+    public int getNonFinite(int frameNum) {
+        return frameNonFinite[index(frameNum)];
+    }
+
+    /**
+     * @param frameNum frame relative to the chunk, values are [1, size()]
+     * @return the mean of the frame's finite values, NaN if there's none
+     */
+    public double getMean(int frameNum) {
+        int count = cells - getNonFinite(frameNum);
+        return count == 0 ? Double.NaN : getSum(frameNum) / count;
+    }
+
+    /**
+     * @param frameNum frame relative to the chunk, values are [1, size()]
+     * @return a copy of the frame's histogram, {@link #BINS} bins over the chunk's [getMin(), getMax()]
+     */
+    public int[] getHistogram(int frameNum) {
+        int start = index(frameNum) * BINS;
+        return Arrays.copyOfRange(frameHistograms, start, start + BINS);
+    }
+
+    private int index(int frameNum) {
+        if(frameNum < 1 || frameNum > size()) {
+            throw new IndexOutOfBoundsException("Frame " + frameNum + " is outside of [1, " + size() + "]");
+        }
+        return frameNum - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "ChunkStats{uid=" + uid + ", frames=" + size() + ", min=" + min + ", max=" + max + ", mean=" + getMean()
+                + ", nonFinite=" + nonFinite + '}';
+    }
+}
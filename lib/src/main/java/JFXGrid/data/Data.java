@@ -72,4 +72,16 @@ public interface Data {
     public double[] gotoFrame(int frameNum);
 
     public int getFrameNum();
+
+    /**
+     * Reads a frame without moving the current frame, so any number of readers (see {@link FrameCursor}) can share
+     * one dataset. Safe to call from any thread. Implementations that can't read frames in place don't have to
+     * support it, the default throws.
+     * @param frameNum The frame to read. Values are [1, length] like {@link #gotoFrame(int)}.
+     * @return The matrix at the specific frame number. Null if out of bounds.
+     * @throws UnsupportedOperationException if the implementation can only read frames by moving to them
+     */
+    default double[] frame(int frameNum) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " can't read frames without moving");
+    }
 }
@@ -27,6 +27,9 @@ import java.util.Collection;
 /**
  * A data chunk is a collection of MatrixR032 frames with a set size that can be stepped
  * through
+ * <p>
+ * Frames may also be held as {@link SparseFrame}s, which are only expanded into a new dense frame when read as one.
+ * Datasets move through the chunk without reading its frames, and publish sparse frames as they're held.
  *
  * @author Aram Aprahamian
  */
@@ -34,6 +37,12 @@ public class DataChunk implements Data {
     //The collection of frames held in the chunk
     private double[][] frames;
 
+    //Frames held in sparse form, their dense entries are null. Null if every frame is dense
+    private SparseFrame[] sparseFrames;
+
+    //Summaries of the frames, computed on first use unless given by the chunk store
+    private volatile ChunkStats stats;
+
     //The internal frame pointer that keeps track of the current matrix being shown
     private int currentFrame = -1;
     private int capacity;
@@ -88,15 +97,36 @@ public class DataChunk implements Data {
         numItems = this.frames.length;
     }
 
+    /**
+     * Constructor for a chunk holding some of its frames in sparse form
+     * @param frames the dense frames, null where the frame is sparse
+     * @param sparseFrames the sparse frames, null where the frame is dense. Must be the same size as frames
+     */
+    protected DataChunk(Collection<double[]> frames, Collection<SparseFrame> sparseFrames, int uid) {
+        this(frames, uid);
+        if(sparseFrames == null || sparseFrames.size() != numItems) {
+            throw new IllegalArgumentException("Expected " + numItems + " sparse entries, got "
+                    + (sparseFrames == null ? "null" : sparseFrames.size()));
+        }
+
+        var sparse = sparseFrames.toArray(new SparseFrame[0]);
+        for(SparseFrame frame : sparse) {
+            if(frame != null) {
+                this.sparseFrames = sparse;
+                break;
+            }
+        }
+    }
+
     /**
      * @return iterates the current position by one. No action if current position is at the end;
      */
     public double[] stepForward() {
         if(currentFrame == capacity - 1) {
-            return frames[currentFrame];
+            return frameAt(currentFrame);
         }
 
-        return frames[++currentFrame];
+        return frameAt(++currentFrame);
     }
 
     /**
@@ -109,7 +139,7 @@ public class DataChunk implements Data {
             return null;
         }
 
-        return frames[currentFrame];
+        return frameAt(currentFrame);
     }
 
     /**
@@ -121,7 +151,7 @@ public class DataChunk implements Data {
             return null;
         }
         currentFrame = frames.length - 1;
-        return frames[currentFrame];
+        return frameAt(currentFrame);
     }
 
     /**
@@ -132,7 +162,7 @@ public class DataChunk implements Data {
             return null;
         }
 
-        return frames[--currentFrame];
+        return frameAt(--currentFrame);
     }
 
     /**
@@ -147,7 +177,7 @@ public class DataChunk implements Data {
             return null;
         }
         this.currentFrame = frameNum - 1;
-        return frames[currentFrame];
+        return frameAt(currentFrame);
     }
 
     /**
@@ -158,6 +188,100 @@ public class DataChunk implements Data {
         return currentFrame + 1;
     }
 
+    /**
+     * Reads a frame without moving the chunk's frame pointer
+     *
+     * @param frameNum The frame to read, relative to this chunk. Values are [1, length]. Inclusive of 1.
+     * @return The matrix at the specific frame number. Null if out of bounds.
+     */
+    @Override
+    public double[] frame(int frameNum) {
+        if(frames == null || frameNum < 1 || frameNum > numItems) {
+            return null;
+        }
+        return frameAt(frameNum - 1);
+    }
+
+    /**
+     * Reads a frame in sparse form without moving the chunk's frame pointer
+     *
+     * @param frameNum The frame to read, relative to this chunk. Values are [1, length]. Inclusive of 1.
+     * @return The sparse frame, null if the frame is held dense or out of bounds.
+     */
+    public SparseFrame getSparse(int frameNum) {
+        final SparseFrame[] held = sparseFrames;
+        if(held == null || frameNum < 1 || frameNum > numItems) {
+            return null;
+        }
+        return held[frameNum - 1];
+    }
+
+    /**
+     * @return the current frame in sparse form, null if it's held dense
+     */
+    public SparseFrame getSparse() {
+        return getSparse(currentFrame + 1);
+    }
+
+    /**
+     * @return true if any frame is held in sparse form
+     */
+    public boolean hasSparse() {
+        return sparseFrames != null;
+    }
+
+    /**
+     * Gets the summaries of every frame, computing them (in parallel) the first time they're needed. Chunks built by
+     * JFXDatasetFactory or read from a ChunkFileManager already have them.
+     * @return the chunk's stats
+     */
+    public ChunkStats getStats() {
+        ChunkStats held = stats;
+        if(held == null) {
+            held = ChunkStats.of(this);
+            stats = held;
+        }
+        return held;
+    }
+
+    void setStats(ChunkStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Gets the frame at the index, expanding it into a new frame if it's held sparse
+     */
+    private double[] frameAt(int index) {
+        final double[][] held = frames;
+        final SparseFrame[] sparse = sparseFrames;
+        if(held == null) {
+            return null;
+        }
+        if(held[index] != null || sparse == null || sparse[index] == null) {
+            return held[index];
+        }
+
+        return sparse[index].toDense();
+    }
+
+    /**
+     * Moves the frame pointer without reading the frame, so a frame held sparse isn't expanded. Datasets move through
+     * this and publish the frame in the form it's held.
+     * @param index index of the new current frame, [0, size())
+     */
+    void setIndex(int index) {
+        currentFrame = index;
+    }
+
+    /**
+     * @return the current frame if it's held dense, null if it's held sparse or there's none
+     */
+    double[] getHeld() {
+        final double[][] held = frames;
+        final int index = currentFrame;
+        return held == null || index < 0 || index >= held.length ? null : held[index];
+    }
+
     /**
      * @return returns true if no elements are in the chunk
      */
@@ -200,7 +324,7 @@ public class DataChunk implements Data {
         if(currentFrame < 0)
             currentFrame = 0;
 
-        return frames[currentFrame];
+        return frameAt(currentFrame);
     }
 
     /**
@@ -218,15 +342,29 @@ public class DataChunk implements Data {
     @Override
     public void clearData() {
         frames = null;
+        sparseFrames = null;
+        stats = null;
         numItems = 0;
         currentFrame = -1;
     }
 
     /**
-     * @return The list of frames in this chunk
+     * @return The list of frames in this chunk. If some are held sparse, a copy with those frames expanded
      */
     public double[][] toList() {
-        return frames;
+        final double[][] held = frames;
+        final SparseFrame[] sparse = sparseFrames;
+        if(held == null || sparse == null) {
+            return held;
+        }
+
+        double[][] list = held.clone();
+        for(int i = 0; i < list.length; i++) {
+            if(list[i] == null && sparse[i] != null) {
+                list[i] = sparse[i].toDense();
+            }
+        }
+        return list;
     }
 
     @Override
@@ -126,4 +126,16 @@ public class DataNode implements Data {
     public int getFrameNum() {
         return val.getIndex();
     }
+
+    /**
+     * Reads a frame of the attached chunk without moving its frame pointer
+     *
+     * @param frameNum The frame to read. Note, values are [1, length]. Inclusive of 1.
+     * @return The matrix at the specific frame number. Null if out of bounds.
+     */
+    @Override
+    public double[] frame(int frameNum) {
+        final DataChunk chunk = val;
+        return chunk == null ? null : chunk.frame(frameNum);
+    }
 }
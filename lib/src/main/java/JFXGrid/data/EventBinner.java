@@ -0,0 +1,419 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.data;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Bins a stream of detector events (x, y, t, value) into frames over fixed time windows. Event {@code t} falls into
+ * window {@code floor((t - origin) / windowLength)}, each window becomes one frame holding the per-cell sum of its
+ * event values (or the event count if no values are given), and frames are handed to the sink in order as their
+ * window closes. Windows without any events still produce an empty frame, so frame numbers stay proportional to time,
+ * up to {@link #setMaxEmptyFrames(int)} in a row. Longer gaps are collapsed and counted in
+ * {@link #getSkippedWindows()}, so one event with a corrupt time can't flood the sink with empty frames.
+ * <p>
+ * Large batches are binned in parallel: the batch is split into one slice per worker, each worker adds its slice
+ * into its own partial histogram, and once the window closes the partials are merged into the frame in parallel over
+ * ranges of cells. A worker's partial is allocated the first time it bins a slice and reused from then on, so nothing
+ * is allocated per event, only one array per emitted frame.
+ * <p>
+ * Events must arrive in time order, as detectors emit them. Events older than the open window, and events outside
+ * the grid, are dropped and counted in {@link #getDroppedEvents()}. Not thread-safe, events should be added by a
+ * single producer thread.
+ *
+ * @author aram-ap
+ */
+public class EventBinner {
+    //Segments with fewer events than this are binned on the calling thread
+    private static final int PARALLEL_EVENTS = 1 << 15;
+    //Frames with fewer cells than this are merged on the calling thread
+    private static final int PARALLEL_CELLS = 1 << 16;
+    private static final long NO_WINDOW = Long.MIN_VALUE;
+    private static final int DEFAULT_MAX_EMPTY_FRAMES = 256;
+
+    private final int rows;
+    private final int columns;
+    private final long windowLength;
+    private long origin;
+
+    //One partial histogram per worker, allocated on first use, partials[0] is also used by the calling thread
+    private final double[][] partials;
+    private final boolean[] touched;
+    private final long[] droppedByPart;
+
+    private Consumer<double[]> sink = frame -> {};
+    private JFXDataDeque deque;
+    private double[][] pendingChunk;
+    private int pendingFrames;
+
+    private long openWindow = NO_WINDOW;
+    private int maxEmptyFrames = DEFAULT_MAX_EMPTY_FRAMES;
+    private long dropped;
+    private long skippedWindows;
+    private long framesEmitted;
+
+    /**
+     * Bins events using every available processor
+     * @param rows number of rows, events' y
+     * @param columns number of columns, events' x
+     * @param windowLength length of each frame's time window, in the events' time unit
+     */
+    public EventBinner(int rows, int columns, long windowLength) {
+        this(rows, columns, windowLength, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param rows number of rows, events' y
+     * @param columns number of columns, events' x
+     * @param windowLength length of each frame's time window, in the events' time unit
+     * @param parallelism number of partial histograms binned in parallel
+     */
+    public EventBinner(int rows, int columns, long windowLength, int parallelism) {
+        if(rows <= 0 || columns <= 0 || windowLength <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Rows, columns, window length and parallelism must be > 0, got "
+                    + rows + ", " + columns + ", " + windowLength + ", " + parallelism);
+        }
+
+        this.rows = rows;
+        this.columns = columns;
+        this.windowLength = windowLength;
+        this.partials = new double[parallelism][];
+        this.touched = new boolean[parallelism];
+        this.droppedByPart = new long[parallelism];
+    }
+
+    /**
+     * Sends each frame to the consumer, e.g. {@code factory::add}. Replaces any deque given to
+     * {@link #setSink(JFXDataDeque, int)}.
+     * @param sink receives each frame on the producer thread, the frame isn't touched again by the binner
+     * @return this
+     */
+    public EventBinner setSink(Consumer<double[]> sink) {
+        flushChunk();
+        this.sink = sink == null ? frame -> {} : sink;
+        this.deque = null;
+        return this;
+    }
+
+    /**
+     * Appends the frames to an in-memory deque in chunks, which can be played while events are still being binned
+     * @param deque deque of this binner's rows and columns
+     * @param chunkSize frames per appended chunk
+     * @return this
+     */
+    public EventBinner setSink(JFXDataDeque deque, int chunkSize) {
+        if(chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be > 0!");
+        }
+        if(deque != null && (deque.getNumRows() != rows || deque.getNumColumns() != columns)) {
+            throw new IllegalArgumentException("Expected a " + rows + "x" + columns + " deque, got "
+                    + deque.getNumRows() + "x" + deque.getNumColumns());
+        }
+
+        flushChunk();
+        this.deque = deque;
+        this.sink = frame -> {};
+        pendingChunk = new double[chunkSize][];
+        return this;
+    }
+
+    /**
+     * Sets the time of the first window's start, only before the first event. Defaults to 0.
+     * @return this
+     */
+    public EventBinner setOrigin(long origin) {
+        if(openWindow != NO_WINDOW) {
+            throw new IllegalStateException("The origin can't be moved once events have been binned");
+        }
+
+        this.origin = origin;
+        return this;
+    }
+
+    /**
+     * Caps the empty frames emitted for a gap between two events, windows past the cap are skipped without a frame
+     * @param maxEmptyFrames empty frames emitted per gap at most, defaults to 256
+     * @return this
+     */
+    public EventBinner setMaxEmptyFrames(int maxEmptyFrames) {
+        if(maxEmptyFrames < 0) {
+            throw new IllegalArgumentException("Max empty frames must be >= 0, got " + maxEmptyFrames);
+        }
+
+        this.maxEmptyFrames = maxEmptyFrames;
+        return this;
+    }
+
+    /**
+     * Adds a single event on the calling thread
+     * @param x column of the event
+     * @param y row of the event
+     * @param t time of the event
+     * @param value value added into the cell
+     */
+    public void add(int x, int y, long t, double value) {
+        if(!inGrid(x, y) || !open(windowOf(t))) {
+            dropped++;
+            return;
+        }
+
+        partial(0)[x * rows + y] += value;
+        touched[0] = true;
+    }
+
+    /**
+     * Adds a batch of events, binning large batches in parallel
+     * @param x columns of the events
+     * @param y rows of the events
+     * @param t times of the events, non-decreasing
+     * @param values values added into the cells, null to count events
+     * @param offset index of the first event
+     * @param length number of events
+     */
+    public void addAll(int[] x, int[] y, long[] t, double[] values, int offset, int length) {
+        final int end = offset + length;
+        if(offset < 0 || length < 0 || end > x.length || end > y.length || end > t.length
+                || (values != null && end > values.length)) {
+            throw new IndexOutOfBoundsException("Events [" + offset + ", " + end + ") are out of bounds");
+        }
+
+        int start = offset;
+        while(start < end) {
+            //Only events inside the grid may move time forward
+            if(!inGrid(x[start], y[start]) || !open(windowOf(t[start]))) {
+                dropped++;
+                start++;
+                continue;
+            }
+
+            //Events up to the first one past the open window
+            int segmentEnd = firstAtOrAfter(t, start, end, origin + (openWindow + 1) * windowLength);
+            bin(x, y, t, values, start, segmentEnd);
+            start = segmentEnd;
+        }
+    }
+
+    /**
+     * Emits the open window as a frame if it holds any events, along with any frames waiting to be appended to a
+     * deque. Binning carries on from the next window, so later events of the flushed window are dropped.
+     */
+    public void flush() {
+        boolean binned = false;
+        for(boolean part : touched) {
+            binned |= part;
+        }
+
+        if(binned) {
+            emit();
+            openWindow++;
+        }
+        flushChunk();
+    }
+
+    /**
+     * Moves onto the event's window, emitting the open window and up to maxEmptyFrames of the empty ones after it
+     * @return false if the window was already emitted
+     */
+    private boolean open(long window) {
+        if(openWindow == NO_WINDOW) {
+            openWindow = window;
+            return true;
+        }
+        if(window < openWindow) {
+            return false;
+        }
+        if(window == openWindow) {
+            return true;
+        }
+
+        emit();
+        long empty = window - openWindow - 1;
+        for(long i = Math.min(empty, maxEmptyFrames); i > 0; i--) {
+            emit();
+        }
+        skippedWindows += Math.max(0, empty - maxEmptyFrames);
+        openWindow = window;
+        return true;
+    }
+
+    private boolean inGrid(int x, int y) {
+        return x >= 0 && x < columns && y >= 0 && y < rows;
+    }
+
+    private double[] partial(int part) {
+        if(partials[part] == null) {
+            partials[part] = new double[rows * columns];
+        }
+        return partials[part];
+    }
+
+    private long windowOf(long t) {
+        return Math.floorDiv(t - origin, windowLength);
+    }
+
+    /**
+     * @return the index of the first time at or after the limit, or end
+     */
+    private static int firstAtOrAfter(long[] t, int from, int end, long limit) {
+        int low = from, high = end;
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(t[mid] < limit) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Bins events that all belong to the open window
+     */
+    private void bin(int[] x, int[] y, long[] t, double[] values, int from, int to) {
+        final int parts = to - from < PARALLEL_EVENTS ? 1 : partials.length;
+        if(parts == 1) {
+            binSlice(0, x, y, t, values, from, to);
+        } else {
+            final int count = to - from;
+            IntStream.range(0, parts).parallel().forEach(part -> binSlice(part, x, y, t, values,
+                    from + (int) ((long) count * part / parts), from + (int) ((long) count * (part + 1) / parts)));
+        }
+
+        for(int part = 0; part < parts; part++) {
+            dropped += droppedByPart[part];
+            droppedByPart[part] = 0;
+        }
+    }
+
+    private void binSlice(int part, int[] x, int[] y, long[] t, double[] values, int from, int to) {
+        final double[] partial = partial(part);
+        final long windowStart = origin + openWindow * windowLength;
+        long lost = 0;
+        for(int i = from; i < to; i++) {
+            int col = x[i], row = y[i];
+            if(col < 0 || col >= columns || row < 0 || row >= rows || t[i] < windowStart) {
+                lost++;
+                continue;
+            }
+            partial[col * rows + row] += values == null ? 1 : values[i];
+        }
+
+        droppedByPart[part] = lost;
+        if(to > from) {
+            touched[part] = true;
+        }
+    }
+
+    /**
+     * Merges the partial histograms into a new frame, clearing them for the next window, and hands it to the sink
+     */
+    private void emit() {
+        final double[] frame = new double[rows * columns];
+        int used = 0;
+        for(boolean part : touched) {
+            if(part) used++;
+        }
+
+        if(used > 0) {
+            final int slices = frame.length < PARALLEL_CELLS ? 1 : partials.length;
+            if(slices == 1) {
+                merge(frame, 0, frame.length);
+            } else {
+                IntStream.range(0, slices).parallel().forEach(slice -> merge(frame,
+                        (int) ((long) frame.length * slice / slices), (int) ((long) frame.length * (slice + 1) / slices)));
+            }
+            Arrays.fill(touched, false);
+        }
+
+        framesEmitted++;
+        if(deque == null) {
+            sink.accept(frame);
+            return;
+        }
+
+        pendingChunk[pendingFrames++] = frame;
+        if(pendingFrames == pendingChunk.length) {
+            flushChunk();
+        }
+    }
+
+    private void merge(double[] frame, int from, int to) {
+        for(int part = 0; part < partials.length; part++) {
+            //Untouched partials are all zero, or not allocated yet
+            if(!touched[part]) {
+                continue;
+            }
+
+            final double[] partial = partials[part];
+            for(int i = from; i < to; i++) {
+                frame[i] += partial[i];
+            }
+            Arrays.fill(partial, from, to, 0);
+        }
+    }
+
+    private void flushChunk() {
+        if(deque == null || pendingFrames == 0) {
+            return;
+        }
+
+        deque.append(Arrays.copyOf(pendingChunk, pendingFrames));
+        Arrays.fill(pendingChunk, null);
+        pendingFrames = 0;
+    }
+
+    /**
+     * @return the number of events dropped for being outside of the grid or older than the open window
+     */
+    public long getDroppedEvents() {
+        return dropped;
+    }
+
+    /**
+     * @return the number of empty windows skipped without a frame, past {@link #setMaxEmptyFrames(int)} in a gap
+     */
+    public long getSkippedWindows() {
+        return skippedWindows;
+    }
+
+    /**
+     * @return the number of frames emitted so far, including frames waiting to be appended to a deque
+     */
+    public long getFramesEmitted() {
+        return framesEmitted;
+    }
+
+    public long getWindowLength() {
+        return windowLength;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+}
@@ -0,0 +1,113 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.data;
+
+/**
+ * A frame position of its own over a dataset. Cursors read through {@link Data#frame(int)}, so any number of them
+ * (e.g. one per grid, accumulator or exporter) can walk the same dataset independently without copying it and
+ * without moving the dataset's own current frame.
+ * <p>
+ * A cursor is only an index into the dataset and isn't thread-safe, give each reader its own.
+ *
+ * @author aram-ap
+ */
+public class FrameCursor {
+    private final Data data;
+    //0 until the first read, like the dataset's own frame number
+    private int frameNum;
+
+    public FrameCursor(Data data) {
+        if(data == null) {
+            throw new IllegalArgumentException("Data cannot be null!");
+        }
+
+        this.data = data;
+    }
+
+    /**
+     * @return the frame at the cursor, the first frame if the cursor hasn't moved yet. Null if the dataset is empty
+     */
+    public double[] get() {
+        if(frameNum == 0) {
+            return gotoFrame(1);
+        }
+
+        return data.frame(frameNum);
+    }
+
+    /**
+     * Moves the cursor forward by one frame. No action if it's already on the last frame.
+     * @return the frame at the cursor
+     */
+    public double[] stepForward() {
+        if(frameNum < data.size()) {
+            frameNum++;
+        }
+        return data.frame(frameNum);
+    }
+
+    /**
+     * Moves the cursor back by one frame. No action if it's already on the first frame.
+     * @return the frame at the cursor
+     */
+    public double[] stepBack() {
+        if(frameNum > 1) {
+            frameNum--;
+        }
+        return data.frame(frameNum);
+    }
+
+    /**
+     * Moves the cursor to the inserted frame number
+     *
+     * @param frameNum The frame to go to. Note, values are [1, length]. Inclusive of 1.
+     * @return The matrix at the specific frame number. Null if out of bounds, in which case the cursor doesn't move.
+     */
+    public double[] gotoFrame(int frameNum) {
+        double[] frame = data.frame(frameNum);
+        if(frame != null) {
+            this.frameNum = frameNum;
+        }
+        return frame;
+    }
+
+    /**
+     * @return the frame number at the cursor, 0 if it hasn't read anything yet
+     */
+    public int getFrameNum() {
+        return frameNum;
+    }
+
+    /**
+     * @return the number of frames in the dataset
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * @return the dataset this cursor reads from
+     */
+    public Data getData() {
+        return data;
+    }
+}
@@ -0,0 +1,335 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.data;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the frames of a dataset matching a value predicate, e.g. every frame with a cell above a threshold, or where
+ * the mean of a region drops below one. Each chunk's {@link ChunkStats} act as zone maps: chunks whose min/max rule
+ * out a match are skipped, then each frame's min/max, mean and non-finite count settle most frames without reading
+ * them. Only chunks left with undecided frames are read and scanned, in parallel, and a paged dataset's stats come
+ * from the end of its chunk files, so a search reads little more than the candidate chunks.
+ * <p>
+ * NaN and infinite values never match, the same as they're left out of the stats. Matches are given as dataset frame
+ * numbers in increasing order. Queries don't move the dataset's frame pointer and can run on any thread.
+ *
+ * @author aram-ap
+ */
+public class FrameQuery {
+    private enum Predicate {
+        ANY_ABOVE,
+        ANY_BELOW,
+        MEAN_ABOVE,
+        MEAN_BELOW
+    }
+
+    private static final int[] NONE = new int[0];
+
+    private final JFXDataset dataset;
+    private Predicate predicate = Predicate.ANY_ABOVE;
+    private double threshold = Double.POSITIVE_INFINITY;
+
+    //Cells the predicate looks at, corners inclusive. The whole frame unless a region is set
+    private boolean hasRegion;
+    private int row0, col0, row1, col1;
+
+    //Chunks read and skipped by the last search
+    private final AtomicInteger scannedChunks = new AtomicInteger();
+    private final AtomicInteger skippedChunks = new AtomicInteger();
+
+    /**
+     * @param dataset the dataset to search
+     */
+    public FrameQuery(JFXDataset dataset) {
+        if(dataset == null) {
+            throw new IllegalArgumentException("Dataset cannot be null!");
+        }
+
+        this.dataset = dataset;
+    }
+
+    /**
+     * Matches frames with any cell above the threshold
+     * @return this
+     */
+    public FrameQuery anyAbove(double threshold) {
+        return where(Predicate.ANY_ABOVE, threshold);
+    }
+
+    /**
+     * Matches frames with any cell below the threshold
+     * @return this
+     */
+    public FrameQuery anyBelow(double threshold) {
+        return where(Predicate.ANY_BELOW, threshold);
+    }
+
+    /**
+     * Matches frames whose mean is above the threshold
+     * @return this
+     */
+    public FrameQuery meanAbove(double threshold) {
+        return where(Predicate.MEAN_ABOVE, threshold);
+    }
+
+    /**
+     * Matches frames whose mean is below the threshold
+     * @return this
+     */
+    public FrameQuery meanBelow(double threshold) {
+        return where(Predicate.MEAN_BELOW, threshold);
+    }
+
+    private FrameQuery where(Predicate predicate, double threshold) {
+        if(Double.isNaN(threshold)) {
+            throw new IllegalArgumentException("Threshold cannot be NaN!");
+        }
+
+        this.predicate = predicate;
+        this.threshold = threshold;
+        return this;
+    }
+
+    /**
+     * Only looks at a rectangle of cells, corners are inclusive
+     * @return this
+     */
+    public FrameQuery region(int row0, int col0, int row1, int col1) {
+        int rows = dataset.getNumRows(), cols = dataset.getNumColumns();
+        if(Math.min(row0, row1) < 0 || Math.max(row0, row1) >= rows
+                || Math.min(col0, col1) < 0 || Math.max(col0, col1) >= cols) {
+            throw new IllegalArgumentException("Region (" + row0 + ", " + col0 + ")-(" + row1 + ", " + col1
+                    + ") is outside of the " + rows + "x" + cols + " grid");
+        }
+
+        this.row0 = Math.min(row0, row1);
+        this.row1 = Math.max(row0, row1);
+        this.col0 = Math.min(col0, col1);
+        this.col1 = Math.max(col0, col1);
+        hasRegion = true;
+        return this;
+    }
+
+    /**
+     * Looks at every cell again
+     * @return this
+     */
+    public FrameQuery wholeFrame() {
+        hasRegion = false;
+        return this;
+    }
+
+    /**
+     * @return every matching frame number, in increasing order
+     */
+    public int[] findAll() {
+        IntStream.Builder matches = IntStream.builder();
+        forEach(matches);
+        return matches.build().toArray();
+    }
+
+    /**
+     * Hands each matching frame number to the consumer in increasing order, on the calling thread. Candidate chunks
+     * are scanned in parallel, each chunk's matches are given as soon as it and every chunk before it are done.
+     * @param consumer receives the matching frame numbers
+     */
+    public void forEach(IntConsumer consumer) {
+        scannedChunks.set(0);
+        skippedChunks.set(0);
+        dataset.getChunkStats().parallelStream()
+                .map(this::matches)
+                .forEachOrdered(frames -> {
+                    for(int frame : frames) {
+                        consumer.accept(frame);
+                    }
+                });
+    }
+
+    /**
+     * @param frameNum frame to search from, exclusive
+     * @return the first matching frame number after frameNum, -1 if there's none
+     */
+    public int findNext(int frameNum) {
+        scannedChunks.set(0);
+        skippedChunks.set(0);
+        for(ChunkStats stats : dataset.getChunkStats()) {
+            if(stats.getUid() + stats.size() <= frameNum) {
+                continue;
+            }
+
+            for(int match : matches(stats)) {
+                if(match > frameNum) {
+                    return match;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param frameNum frame to search from, exclusive
+     * @return the last matching frame number before frameNum, -1 if there's none
+     */
+    public int findPrevious(int frameNum) {
+        scannedChunks.set(0);
+        skippedChunks.set(0);
+        List<ChunkStats> chunks = dataset.getChunkStats();
+        for(int c = chunks.size() - 1; c >= 0; c--) {
+            ChunkStats stats = chunks.get(c);
+            if(stats.getUid() >= frameNum - 1) {
+                continue;
+            }
+
+            int[] matches = matches(stats);
+            for(int i = matches.length - 1; i >= 0; i--) {
+                if(matches[i] < frameNum) {
+                    return matches[i];
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of chunks read by the last search
+     */
+    public int getScannedChunks() {
+        return scannedChunks.get();
+    }
+
+    /**
+     * @return the number of chunks the last search settled from their stats alone
+     */
+    public int getSkippedChunks() {
+        return skippedChunks.get();
+    }
+
+    /**
+     * @return the matching frame numbers of the chunk
+     */
+    private int[] matches(ChunkStats stats) {
+        double min = stats.getMin(), max = stats.getMax();
+        boolean above = predicate == Predicate.ANY_ABOVE || predicate == Predicate.MEAN_ABOVE;
+        if(stats.size() == 0 || Double.isNaN(max) || (above ? max <= threshold : min >= threshold)) {
+            skippedChunks.incrementAndGet();
+            return NONE;
+        }
+
+        //1 for a match, 0 for none, -1 when the frame has to be read
+        int[] decisions = new int[stats.size()];
+        int undecided = 0;
+        for(int f = 1; f <= decisions.length; f++) {
+            decisions[f - 1] = decide(stats, f);
+            if(decisions[f - 1] < 0) {
+                undecided++;
+            }
+        }
+
+        DataChunk chunk = null;
+        if(undecided > 0) {
+            chunk = dataset.chunk(stats.getUid());
+            scannedChunks.incrementAndGet();
+        } else {
+            skippedChunks.incrementAndGet();
+        }
+
+        int count = 0;
+        int[] frames = new int[decisions.length];
+        for(int f = 1; f <= decisions.length; f++) {
+            int decision = decisions[f - 1];
+            if(decision < 0) {
+                double[] frame = chunk == null ? null : chunk.frame(f);
+                decision = frame != null && scan(frame) ? 1 : 0;
+            }
+            if(decision > 0) {
+                frames[count++] = stats.getUid() + f;
+            }
+        }
+        return count == frames.length ? frames : Arrays.copyOf(frames, count);
+    }
+
+    /**
+     * Settles a frame from its stats where possible
+     * @return 1 if it matches, 0 if it doesn't, -1 if its cells have to be read
+     */
+    private int decide(ChunkStats stats, int frameNum) {
+        double min = stats.getMin(frameNum), max = stats.getMax(frameNum);
+        if(Double.isNaN(max)) {
+            return 0;
+        }
+
+        //Without non-finite values every cell of a region lies within the frame's [min, max]
+        boolean allFinite = stats.getNonFinite(frameNum) == 0;
+        return switch(predicate) {
+            case ANY_ABOVE -> max <= threshold ? 0 : !hasRegion || (allFinite && min > threshold) ? 1 : -1;
+            case ANY_BELOW -> min >= threshold ? 0 : !hasRegion || (allFinite && max < threshold) ? 1 : -1;
+            case MEAN_ABOVE -> max <= threshold ? 0
+                    : !hasRegion ? (stats.getMean(frameNum) > threshold ? 1 : 0)
+                    : allFinite && min > threshold ? 1 : -1;
+            case MEAN_BELOW -> min >= threshold ? 0
+                    : !hasRegion ? (stats.getMean(frameNum) < threshold ? 1 : 0)
+                    : allFinite && max < threshold ? 1 : -1;
+        };
+    }
+
+    /**
+     * Tests the predicate over the region's cells
+     */
+    private boolean scan(double[] frame) {
+        final int rows = dataset.getNumRows();
+        double sum = 0;
+        int count = 0;
+        for(int col = col0; col <= col1; col++) {
+            final int base = col * rows;
+            for(int row = row0; row <= row1; row++) {
+                double val = frame[base + row];
+                if(!Double.isFinite(val)) {
+                    continue;
+                }
+
+                switch(predicate) {
+                    case ANY_ABOVE -> {
+                        if(val > threshold) return true;
+                    }
+                    case ANY_BELOW -> {
+                        if(val < threshold) return true;
+                    }
+                    default -> {
+                        sum += val;
+                        count++;
+                    }
+                }
+            }
+        }
+
+        if(count == 0) {
+            return false;
+        }
+        double mean = sum / count;
+        return predicate == Predicate.MEAN_ABOVE ? mean > threshold : predicate == Predicate.MEAN_BELOW && mean < threshold;
+    }
+}
@@ -0,0 +1,113 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.data;
+
+/**
+ * An immutable view of a dataset's current frame: the frame, its number and a version that changes every time the
+ * current frame does. Datasets publish a new snapshot through a volatile field each time their frame pointer moves,
+ * so a thread that didn't move it (e.g. the renderer on the JavaFX thread) gets a consistent frame and frame number
+ * from a single read, without locking.
+ * <p>
+ * Frames held sparse are published in sparse form, so readers can work from the non-zero cells alone. Their dense form
+ * is only built the first time {@link #getFrame()} is called, and then shared by every reader of the snapshot.
+ *
+ * @author aram-ap
+ */
+public final class FrameSnapshot {
+    /**
+     * The snapshot of a dataset that holds no frame
+     */
+    public static final FrameSnapshot EMPTY = new FrameSnapshot(null, null, 0, 0);
+
+    //Built from the sparse frame on first read if it's held sparse
+    private volatile double[] frame;
+    private final SparseFrame sparse;
+    private final int frameNum;
+    private final long version;
+
+    public FrameSnapshot(double[] frame, int frameNum, long version) {
+        this(frame, null, frameNum, version);
+    }
+
+    /**
+     * @param frame the dense frame, null to expand the sparse frame when it's first read
+     * @param sparse the same frame in sparse form, null if it's held dense
+     */
+    public FrameSnapshot(double[] frame, SparseFrame sparse, int frameNum, long version) {
+        this.frame = frame;
+        this.sparse = sparse;
+        this.frameNum = frameNum;
+        this.version = version;
+    }
+
+    /**
+     * @return the current frame, null if there is none. A frame held sparse is expanded on the first call
+     */
+    public double[] getFrame() {
+        double[] dense = frame;
+        if(dense == null && sparse != null) {
+            synchronized(this) {
+                dense = frame;
+                if(dense == null) {
+                    dense = sparse.toDense();
+                    frame = dense;
+                }
+            }
+        }
+        return dense;
+    }
+
+    /**
+     * @return the dense frame if it's held dense or was already expanded, without expanding it
+     */
+    double[] getHeld() {
+        return frame;
+    }
+
+    /**
+     * @return true if the snapshot holds a frame, without expanding it
+     */
+    public boolean hasFrame() {
+        return frame != null || sparse != null;
+    }
+
+    /**
+     * @return the current frame in sparse form, null if it's held dense or there is none
+     */
+    public SparseFrame getSparse() {
+        return sparse;
+    }
+
+    /**
+     * @return the current frame number, 0 if there is none
+     */
+    public int getFrameNum() {
+        return frameNum;
+    }
+
+    /**
+     * @return a number that increases every time a different frame is published
+     */
+    public long getVersion() {
+        return version;
+    }
+}
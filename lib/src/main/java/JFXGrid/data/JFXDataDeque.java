@@ -21,6 +21,24 @@
 //SOFTWARE.
 package JFXGrid.data;
 
+import JFXGrid.events.JFXProcessManager;
+import JFXGrid.metrics.ChunkLoadEvent;
+import JFXGrid.metrics.ChunkTransitionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
 /**
  * <h3>JFXDataDeque</h3>
  * <hr>
@@ -46,20 +64,52 @@ package JFXGrid.data;
  *     the list before it moves the current chunk pointer to the next. Of course, if there are no more chunks left
  *     to load, it'll just move to the next reference and keep playing until the last frame. <br>
  *     &emsp Each time a chunk is loaded, it is placed into the queue according to its UID. This UID 'can' be changed,
- *     but it should usually be used as the number indicating the frame # of the first matrix in the chunk. <br>
+ *     but it should usually be used as the number of frames preceding the chunk, so the first chunk has a UID of 0 and
+ *     the frame numbers of a chunk are [UID + 1, UID + size]. <br>
  *     &emsp On default, chunk process calls are put into a separate worker thread, but if needed, can be put on the
  *     default JavaFX thread. <br>
+ *     &emsp When paged through a ChunkFileManager, only the current chunk and a window around it are held in memory.
+ *     Chunks ahead in the direction of travel are read on the JFXProcessManager worker thread and linked into the deque
+ *     by the thread stepping through it, chunks that fall behind are dropped. <br>
+ *     &emsp {@link #frame(int)} reads frames without moving the current frame, from any thread. Chunks held in memory
+ *     are found through a concurrent index by UID, frames of paged chunks that aren't held are read from the store
+ *     into a small cache of their own, leaving the playback window alone. <br>
  * </p>
  * @author @aram-ap
  */
 public class JFXDataDeque extends JFXDataset implements Data{
-    private int numFrames; //The maximum frame number of the very last chunk
+    private static final Logger LOGGER = LoggerFactory.getLogger(JFXDataDeque.class);
+
+    //Seconds of playback that are loaded ahead of the current frame while paging
+    private static final double PREFETCH_SECONDS = 1;
+    //Most chunks loaded ahead of the current chunk, and the number kept behind it
+    private static final int MAX_CHUNKS_AHEAD = 8;
+    private static final int CHUNKS_BEHIND = 1;
+
     private int numChunks; //A number indicating the total length of the chunk queue
     private DataChunk currentChunk; //A reference to the current (usually middle) chunk of the list.
     private DataNode headNode; //The very front of the queue.
     private DataNode tailNode; //The very end of the queue.
     private DataNode currentNode; //The encapsulating node of the current data chunk. Just contains references to the data chunk, next node, and previous node
 
+    private ChunkFileManager pager; //Backing store of a paged deque, null when every chunk is held in memory
+    private final Queue<DataChunk> loadedChunks = new ConcurrentLinkedQueue<>(); //Chunks read by the worker thread, waiting to be linked in
+    private final Set<Integer> pendingLoads = ConcurrentHashMap.newKeySet(); //UIDs of chunks being read or waiting to be linked in
+    private final Queue<DataChunk> appendedChunks = new ConcurrentLinkedQueue<>(); //Chunks appended by another thread, waiting to be linked in
+    private int appendUid = -1; //UID of the next appended chunk, -1 until the first append. Guarded by appendedChunks
+    private int direction = 1; //Direction of travel, 1 forwards and -1 backwards
+    private double framesPerSecond; //Playback rate given by setPlaybackHint, 0 if unknown
+
+    private static final int RANDOM_ACCESS_CHUNKS = 4;
+    private final ConcurrentNavigableMap<Integer, DataChunk> chunkIndex = new ConcurrentSkipListMap<>(); //Chunks in the deque by UID, for frame(int)
+    //Paged chunks read by frame(int) that aren't in the deque, least recently used first. Guarded by itself
+    private final Map<Integer, DataChunk> randomAccessChunks = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, DataChunk> eldest) {
+            return size() > RANDOM_ACCESS_CHUNKS;
+        }
+    };
+
     /**
      * The default constructor for the JFXDataDeque. Made private as to require the use of the JFXDatasetFactory when
      * creating the Deque objects
@@ -77,6 +127,203 @@ public class JFXDataDeque extends JFXDataset implements Data{
         return numChunks;
     }
 
+    /**
+     * Pages this deque through the given chunk store. Any chunks held in memory are dropped, the frame count becomes
+     * the store's, and the chunk holding the first frame is loaded.
+     * @param pager the store holding every chunk of the dataset
+     */
+    public void setPager(ChunkFileManager pager) {
+        resetChunks();
+        this.pager = pager;
+        if(pager != null) {
+            setNumFrames(pager.getTotalFrames());
+            moveTo(1);
+        }
+    }
+
+    /**
+     * @return the chunk store this deque is paged through, null if every chunk is held in memory
+     */
+    public ChunkFileManager getPager() {
+        return pager;
+    }
+
+    /**
+     * Paged deques start loading chunks ahead in the given direction, enough to cover about a second of playback.
+     */
+    @Override
+    public void setPlaybackHint(int direction, double framesPerSecond) {
+        if(direction != 0) {
+            this.direction = direction > 0 ? 1 : -1;
+        }
+        this.framesPerSecond = Math.max(0, framesPerSecond);
+        prefetch();
+    }
+
+    /**
+     * @return the direction the deque was last travelling in, 1 forwards and -1 backwards
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    /**
+     * Number of chunks to hold ahead of the current chunk, enough to cover PREFETCH_SECONDS of playback
+     */
+    private int chunksAhead() {
+        if(framesPerSecond <= 0 || pager.getNumChunks() == 0) {
+            return 1;
+        }
+
+        double framesPerChunk = (double) pager.getTotalFrames() / pager.getNumChunks();
+        return (int) Math.max(1, Math.min(MAX_CHUNKS_AHEAD, Math.ceil(framesPerSecond * PREFETCH_SECONDS / framesPerChunk)));
+    }
+
+    /**
+     * Queues reads of the chunks ahead of the current chunk in the direction of travel, then drops loaded chunks that
+     * fall outside of the window. Does nothing unless paged.
+     */
+    private void prefetch() {
+        if(pager == null || currentChunk == null) {
+            return;
+        }
+
+        linkLoadedChunks();
+
+        int ahead = chunksAhead();
+        int uid = currentChunk.uid;
+        for(int i = 0; i < ahead; i++) {
+            uid = direction > 0 ? pager.getNextUid(uid) : pager.getPreviousUid(uid);
+            if(uid < 0) {
+                break;
+            }
+            requestLoad(uid);
+        }
+
+        int after = 0, before = 0;
+        for(var node = currentNode.getNext(); node != null; node = node.getNext()) after++;
+        for(var node = currentNode.getPrev(); node != null; node = node.getPrev()) before++;
+
+        int keepAfter = direction > 0 ? ahead : CHUNKS_BEHIND;
+        int keepBefore = direction > 0 ? CHUNKS_BEHIND : ahead;
+        for(; after > keepAfter; after--) deleteLast();
+        for(; before > keepBefore; before--) deleteFirst();
+    }
+
+    /**
+     * Reads the chunk on the worker thread, unless it's already loaded or being loaded
+     */
+    private void requestLoad(int uid) {
+        if(findChunk(uid) != null || !pendingLoads.add(uid)) {
+            return;
+        }
+
+        final ChunkFileManager source = pager;
+        JFXProcessManager.addTask(() -> {
+            try {
+                loadedChunks.add(source.read(uid, getNumRows(), getNumColumns()));
+            } catch (IOException e) {
+                pendingLoads.remove(uid);
+                LOGGER.atError().setCause(e).log("Unable to load chunk " + uid);
+            }
+        });
+    }
+
+    /**
+     * Links chunks read by the worker thread into the deque. Only called by the thread stepping through the deque.
+     */
+    private void linkLoadedChunks() {
+        DataChunk chunk;
+        while((chunk = loadedChunks.poll()) != null) {
+            pendingLoads.remove(chunk.uid);
+            if(pager != null && findChunk(chunk.uid) == null) {
+                insert(chunk);
+            }
+        }
+    }
+
+    /**
+     * Appends frames to the end of an in-memory deque as a new chunk, e.g. from an {@link EventBinner} while the data
+     * is being recorded. Safe to call from any thread: the chunk is linked in by the thread stepping through the
+     * deque on its next move, so {@link #size()} only grows from then on.
+     * @param frames frames of the deque's rows and columns, not copied
+     * @throws IllegalStateException if the deque is paged through a chunk store
+     */
+    public void append(double[][] frames) {
+        if(pager != null) {
+            throw new IllegalStateException("Frames can't be appended to a paged deque");
+        }
+        if(frames == null || frames.length == 0) {
+            return;
+        }
+
+        synchronized(appendedChunks) {
+            if(appendUid < 0) {
+                appendUid = size();
+            }
+            appendedChunks.add(new DataChunk(frames, appendUid));
+            appendUid += frames.length;
+        }
+    }
+
+    /**
+     * Links chunks given to {@link #append} into the deque. Only called by the thread stepping through the deque.
+     */
+    private void linkAppendedChunks() {
+        DataChunk chunk;
+        while((chunk = appendedChunks.poll()) != null) {
+            insertLast(chunk);
+        }
+    }
+
+    /**
+     * Reads the chunk holding the frame on the calling thread, for when playback gets ahead of the prefetching
+     * @return true if the chunk was loaded
+     */
+    private boolean loadFrame(int frameNum) {
+        int uid = pager.getChunkUid(frameNum);
+        if(uid < 0) {
+            return false;
+        }
+
+        try {
+            insert(pager.read(uid, getNumRows(), getNumColumns()));
+            return true;
+        } catch (IOException e) {
+            LOGGER.atError().setCause(e).log("Unable to load chunk " + uid);
+            return false;
+        }
+    }
+
+    private DataChunk findChunk(int uid) {
+        for(var node = headNode; node != null; node = node.getNext()) {
+            if(node.getChunk().uid == uid) {
+                return node.getChunk();
+            }
+        }
+        return null;
+    }
+
+    private DataNode findNode(int frameNum) {
+        for(var node = headNode; node != null; node = node.getNext()) {
+            var chunk = node.getChunk();
+            if(chunk.uid < frameNum && frameNum <= chunk.uid + chunk.size()) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adjusts the frame count as chunks are inserted or removed. A paged deque's frame count is the store's, so
+     * it stays put as chunks are loaded and dropped.
+     */
+    private void addFrames(int frames) {
+        if(pager == null) {
+            setNumFrames(size() + frames);
+        }
+    }
+
     /**
      * Inserts a new data chunk into the queue. Sets the chunk node in the correct order of priority
      * @param chunk
@@ -85,28 +332,29 @@ public class JFXDataDeque extends JFXDataset implements Data{
         if(chunk == null)
             return;
 
-        var node = new DataNode(chunk);
-
-        if(chunk.uid > headNode.getChunk().uid) {
-            insertFirst(chunk);
-        } else if (chunk.uid < tailNode.getChunk().uid) {
+        if(headNode == null || chunk.uid > tailNode.getChunk().uid) {
             insertLast(chunk);
+        } else if (chunk.uid < headNode.getChunk().uid) {
+            insertFirst(chunk);
         } else {
+            var node = new DataNode(chunk);
             var tempPointer = headNode;
-            for(int i = 0; i < numChunks; i++) {
-                if(tempPointer.getChunk().uid <= chunk.uid && tempPointer.getNext().getChunk().uid > chunk.uid) {
-                    break;
-                }
+            while(tempPointer.getNext() != null && tempPointer.getNext().getChunk().uid <= chunk.uid) {
                 tempPointer = tempPointer.getNext();
             }
 
             node.setNext(tempPointer.getNext());
             node.setPrev(tempPointer);
-            tempPointer.getNext().setPrev(node);
+            if(tempPointer.getNext() != null) {
+                tempPointer.getNext().setPrev(node);
+            } else {
+                tailNode = node;
+            }
             tempPointer.setNext(node);
 
-            numFrames += chunk.size();
+            addFrames(chunk.size());
             numChunks++;
+            chunkLoaded(chunk);
         }
     }
 
@@ -118,12 +366,14 @@ public class JFXDataDeque extends JFXDataset implements Data{
         if(chunk == null) return;
 
         var node = new DataNode(chunk);
+        boolean startChunk = false;
 
         if(headNode == null) {
             headNode = node;
             tailNode = node;
             currentChunk = node.getChunk();
             currentNode = node;
+            startChunk = true;
         } else {
             tailNode.setNext(node);
             node.setPrev(tailNode);
@@ -131,7 +381,11 @@ public class JFXDataDeque extends JFXDataset implements Data{
         }
 
         numChunks++;
-        numFrames += chunk.size();
+        addFrames(chunk.size());
+        chunkLoaded(chunk);
+        if(startChunk) {
+            publishFirst(chunk);
+        }
     }
 
     /**
@@ -142,11 +396,13 @@ public class JFXDataDeque extends JFXDataset implements Data{
         if(chunk == null) return;
 
         var node = new DataNode(chunk);
+        boolean startChunk = false;
         if(headNode == null || tailNode == null) {
             headNode = node;
             tailNode = node;
             currentChunk = node.getChunk();
             currentNode = node;
+            startChunk = true;
         } else {
             headNode.setPrev(node);
             node.setNext(headNode);
@@ -154,7 +410,11 @@ public class JFXDataDeque extends JFXDataset implements Data{
         }
 
         numChunks++;
-        numFrames += chunk.size();
+        addFrames(chunk.size());
+        chunkLoaded(chunk);
+        if(startChunk) {
+            publishFirst(chunk);
+        }
     }
 
     /**
@@ -176,10 +436,16 @@ public class JFXDataDeque extends JFXDataset implements Data{
         } else {
             headNode = headNode.getNext();
             headNode.setPrev(null);
+            if(currentNode == node) {
+                currentNode = headNode;
+                currentChunk = headNode.getChunk();
+                currentChunk.setIndex(0);
+            }
         }
 
         numChunks--;
-        numFrames -= node.size();
+        addFrames(-node.size());
+        chunkIndex.remove(node.getChunk().uid, node.getChunk());
 
         return node.getChunk();
     }
@@ -198,13 +464,21 @@ public class JFXDataDeque extends JFXDataset implements Data{
         if(headNode == tailNode) {
             headNode = null;
             tailNode = null;
+            currentNode = null;
+            currentChunk = null;
         } else {
             tailNode = tailNode.getPrev();
             tailNode.setNext(null);
+            if(currentNode == node) {
+                currentNode = tailNode;
+                currentChunk = tailNode.getChunk();
+                currentChunk.setIndex(currentChunk.size() - 1);
+            }
         }
 
         numChunks--;
-        numFrames -= node.size();
+        addFrames(-node.size());
+        chunkIndex.remove(node.getChunk().uid, node.getChunk());
 
         return node.getChunk();
     }
@@ -214,12 +488,31 @@ public class JFXDataDeque extends JFXDataset implements Data{
      * @return the next node's data chunk
      */
     public DataChunk stepNodeForward() {
+        var from = currentChunk;
+        var chunk = stepNode(true);
+        chunkChanged(from);
+        return chunk;
+    }
+
+    /**
+     * Steps to the previous node node
+     * @return the previous node's data chunk
+     */
+    public DataChunk stepNodeBackward() {
+        var from = currentChunk;
+        var chunk = stepNode(false);
+        chunkChanged(from);
+        return chunk;
+    }
+
+    private DataChunk stepNode(boolean forward) {
         if(currentNode == null) {
             return null;
         }
 
-        if(currentNode.getNext() != null) {
-            currentNode = currentNode.getNext();
+        var next = forward ? currentNode.getNext() : currentNode.getPrev();
+        if(next != null) {
+            currentNode = next;
             currentChunk = currentNode.getChunk();
         }
 
@@ -227,55 +520,190 @@ public class JFXDataDeque extends JFXDataset implements Data{
     }
 
     /**
-     * Steps to the previous node node
-     * @return the previous node's data chunk
+     * Prefetches around the new chunk and reports a ChunkTransitionEvent if the current chunk is no longer {@code from}
      */
-    public DataChunk stepNodeBackward() {
-        if(currentNode == null) {
-            return null;
+    private void chunkChanged(DataChunk from) {
+        if(currentChunk == from || currentChunk == null) {
+            return;
         }
 
-        if(currentNode.getPrev() != null) {
-            currentNode = currentNode.getPrev();
-            currentChunk = currentNode.getChunk();
+        prefetch();
+
+        ChunkTransitionEvent event = new ChunkTransitionEvent();
+        if(event.shouldCommit()) {
+            event.fromUid = from == null ? -1 : from.uid;
+            event.toUid = currentChunk.uid;
+            event.frameNum = getFrameNum();
+            event.chunkSize = currentChunk.size();
+            event.commit();
         }
+    }
 
-        return currentNode.getChunk();
+    /**
+     * Reports a ChunkLoadEvent for a chunk that was just inserted
+     */
+    private void chunkLoaded(DataChunk chunk) {
+        chunkIndex.put(chunk.uid, chunk);
+
+        ChunkLoadEvent event = new ChunkLoadEvent();
+        if(event.shouldCommit()) {
+            event.uid = chunk.uid;
+            event.frames = chunk.size();
+            event.bytes = (long) chunk.size() * getNumRows() * getNumColumns() * Double.BYTES;
+            event.loadedChunks = numChunks;
+            event.commit();
+        }
     }
 
     /**
      * Moves the current node pointer to the indicated frameNum. Will automatically switch chunk nodes while traversing
      * frames.
-     * @param frameNum the frame number being moved to.
+     * @param frameNum the frame number being moved to, values are [1, size()]
+     * @return true if a chunk containing the frame was found
      * @throws IllegalArgumentException for entered frame numbers less than 0
      */
-    public void moveTo(int frameNum) {
+    public boolean moveTo(int frameNum) {
         if(frameNum < 0) {
             throw new IllegalArgumentException("Frame number cannot be less than 0!");
         }
-        var temp = headNode;
-        var chunkFound = false;
-        for(int i = 0; i < numChunks; i++) {
-            if(temp.getChunk().uid <= frameNum && temp.getNext().getChunk().uid > frameNum) {
-                break;
+
+        linkLoadedChunks();
+        var node = findNode(frameNum);
+        if(node == null && pager != null && loadFrame(frameNum)) {
+            node = findNode(frameNum);
+        }
+
+        if(node == null) {
+            return false;
+        }
+
+        var from = currentChunk;
+        int current = getFrameNum();
+        if(current > 0 && frameNum != current) {
+            direction = frameNum > current ? 1 : -1;
+        }
+
+        currentNode = node;
+        currentChunk = node.getChunk();
+        currentChunk.setIndex(frameNum - currentChunk.uid - 1);
+        chunkChanged(from);
+        return true;
+    }
+
+    /**
+     * Goes to the frame like {@link #gotoFrame(int)}, switching chunks if needed, without reading it
+     * @param frameNum The frame to go to. Note, values are [1, length]. Inclusive of 1.
+     * @return the published snapshot, null if out of bounds
+     */
+    @Override
+    public FrameSnapshot moveToFrame(int frameNum) {
+        linkAppendedChunks();
+        if(frameNum < 1 || !moveTo(frameNum)) {
+            return null;
+        }
+
+        return publish(currentChunk);
+    }
+
+    /**
+     * Reads a frame without moving the current frame or changing which chunks are held for playback. Safe to call
+     * from any thread.
+     *
+     * @param frameNum The frame to read. Note, values are [1, length]. Inclusive of 1.
+     * @return The matrix at the specific frame number. Null if out of bounds or if its chunk couldn't be read.
+     */
+    @Override
+    public double[] frame(int frameNum) {
+        if(frameNum < 1 || frameNum > size()) {
+            return null;
+        }
+
+        var entry = chunkIndex.floorEntry(frameNum - 1);
+        if(entry != null && frameNum <= entry.getKey() + entry.getValue().size()) {
+            return entry.getValue().frame(frameNum - entry.getKey());
+        }
+
+        final ChunkFileManager source = pager;
+        int uid = source == null ? -1 : source.getChunkUid(frameNum);
+        if(uid < 0) {
+            return null;
+        }
+
+        DataChunk chunk;
+        synchronized(randomAccessChunks) {
+            chunk = randomAccessChunks.get(uid);
+        }
+        if(chunk == null) {
+            try {
+                chunk = source.read(uid, getNumRows(), getNumColumns());
+            } catch (IOException e) {
+                LOGGER.atError().setCause(e).log("Unable to load chunk " + uid);
+                return null;
+            }
+            synchronized(randomAccessChunks) {
+                randomAccessChunks.put(uid, chunk);
+            }
+        }
+        return chunk.frame(frameNum - uid);
+    }
+
+    /**
+     * Gets the stats of every chunk, in frame order. A paged deque reads them from its chunk store, which only reads
+     * the end of each chunk file. Safe to call from any thread.
+     * @return the stats of each chunk, without those of chunks that couldn't be read
+     */
+    @Override
+    public List<ChunkStats> getChunkStats() {
+        final ChunkFileManager source = pager;
+        List<ChunkStats> list = new ArrayList<>();
+        if(source == null) {
+            for(DataChunk chunk : chunkIndex.values()) {
+                if(chunk.size() > 0) {
+                    list.add(chunk.getStats());
+                }
             }
-            temp = temp.getNext();
+            return list;
         }
 
-        if(chunkFound) {
-            currentNode = temp;
+        for(int uid = source.getNextUid(-1); uid >= 0; uid = source.getNextUid(uid)) {
+            try {
+                list.add(source.readStats(uid));
+            } catch (IOException e) {
+                LOGGER.atError().setCause(e).log("Unable to read the stats of chunk " + uid);
+            }
         }
+        return list;
     }
 
     /**
-     * @return the current node's current frame.
+     * Gets a chunk for reading without moving the current frame. A paged chunk that isn't loaded is read from the
+     * store, without linking it into the deque.
+     * @param uid uid of the chunk, as given by its stats
+     * @return the chunk, null if it isn't part of the dataset or couldn't be read
      */
     @Override
-    public double[] get() {
-        if(headNode == null) {
+    DataChunk chunk(int uid) {
+        DataChunk chunk = chunkIndex.get(uid);
+        final ChunkFileManager source = pager;
+        if(chunk != null || source == null || !source.contains(uid)) {
+            return chunk;
+        }
+
+        try {
+            return source.read(uid, getNumRows(), getNumColumns());
+        } catch (IOException e) {
+            LOGGER.atError().setCause(e).log("Unable to load chunk " + uid);
             return null;
         }
-        return currentNode.getChunk().get();
+    }
+
+    /**
+     * @return the current frame in sparse form, null if it's held dense or there's none
+     */
+    @Override
+    public SparseFrame getSparse() {
+        final DataChunk chunk = currentChunk;
+        return chunk == null ? null : chunk.getSparse();
     }
 
     /**
@@ -283,51 +711,88 @@ public class JFXDataDeque extends JFXDataset implements Data{
      */
     @Override
     public void clearData() {
+        resetChunks();
+        System.gc();
+    }
+
+    private void resetChunks() {
         currentChunk = null;
+        currentNode = null;
         headNode = null;
         tailNode = null;
-        System.gc();
+        numChunks = 0;
+        setNumFrames(0);
+        pager = null;
+        loadedChunks.clear();
+        pendingLoads.clear();
+        synchronized(appendedChunks) {
+            appendedChunks.clear();
+            appendUid = -1;
+        }
+        chunkIndex.clear();
+        synchronized(randomAccessChunks) {
+            randomAccessChunks.clear();
+        }
+        clearSnapshot();
     }
 
     /**
-     * Moves the current frame number up by one. If there's no more frames in the current chunk, it'll try to move onto the next chunk before loading its first frame.
-     * It won't step if its at its last frame already.
-     * @return the next frame
+     * Steps forward like {@link #stepForward()}, switching chunks if needed, without reading the frame
+     * @return the published snapshot, null if there's no frame
      */
     @Override
-    public double[] stepForward() {
+    public FrameSnapshot moveForward() {
+        boolean empty = currentChunk == null;
+        linkAppendedChunks();
         if(currentChunk == null) {
             return null;
         }
+        //The first chunk linked into an empty deque already published its first frame, which is this move
+        if(empty) {
+            return current();
+        }
 
+        direction = 1;
         if(currentChunk.hasNext()) {
-            return currentChunk.stepForward();
+            currentChunk.setIndex(currentChunk.getIndex() + 1);
+        } else if (pager != null) {
+            moveTo(Math.min(size(), getFrameNum() + 1));
         } else if (currentNode != tailNode) {
-            stepNodeForward();
-            currentChunk.setFrameFront();
+            var from = currentChunk;
+            stepNode(true);
+            currentChunk.setIndex(0);
+            chunkChanged(from);
         }
 
-        return currentChunk.get();
+        return publish(currentChunk);
     }
 
     /**
-     * Moves the current frame number back by one. If the chunk's frame pointer is already 0, then it'll try to step to
-     * the previous chunk
-     * @return the previous frame
+     * Steps back like {@link #stepBack()}, switching chunks if needed, without reading the frame
+     * @return the published snapshot, null if there's no frame
      */
     @Override
-    public double[] stepBack() {
+    public FrameSnapshot moveBack() {
+        linkAppendedChunks();
         if(currentNode == null) {
             return null;
         }
 
+        direction = -1;
         if(currentChunk.hasPrev()) {
-            return currentChunk.stepBack();
+            if(currentChunk.getIndex() < 0) {
+                return null;
+            }
+            currentChunk.setIndex(currentChunk.getIndex() - 1);
+        } else if (pager != null) {
+            moveTo(Math.max(1, getFrameNum() - 1));
         } else if (currentNode != headNode) {
-            stepNodeBackward();
-            currentChunk.setFrameLast();
+            var from = currentChunk;
+            stepNode(false);
+            currentChunk.setIndex(currentChunk.size() - 1);
+            chunkChanged(from);
         }
-        return currentChunk.get();
+        return publish(currentChunk);
     }
 
     /**
@@ -336,6 +801,9 @@ public class JFXDataDeque extends JFXDataset implements Data{
      */
     @Override
     public int getFrameNum() {
-        return currentChunk.uid + currentChunk.getIndex();
+        if(currentChunk == null) {
+            return 0;
+        }
+        return currentChunk.uid + currentChunk.getIndex() + 1;
     }
 }
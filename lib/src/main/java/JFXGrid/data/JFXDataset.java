@@ -21,8 +21,19 @@
 //SOFTWARE.
 package JFXGrid.data;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
 /**
  * The default Dataset implementation for JFXGrid. Once created, this data cannot change and is supposed to be for better memory management/utilization.
+ * <p>
+ * The frame pointer is moved by a single thread at a time (usually the clock thread, through the VideoPlayer). Every
+ * move publishes a {@link FrameSnapshot}, and only moves publish, so the first frame is published when the data is
+ * built. Other threads read the published frame through {@link #getSnapshot()}, {@link #current()} or {@link #get()}
+ * rather than {@link #getFrameNum()}. Frame listeners are told about each new snapshot, which is how grids know
+ * to redraw.
  *
  * @author aram-ap
  */
@@ -32,6 +43,11 @@ public class JFXDataset implements Data {
     private final int numRows;
     private final int numColumns;
 
+    //The latest published frame, written by the thread moving the frame pointer and read by any other
+    private volatile FrameSnapshot snapshot = FrameSnapshot.EMPTY;
+    private final AtomicLong snapshotVersion = new AtomicLong();
+    private final CopyOnWriteArrayList<Consumer<FrameSnapshot>> frameListeners = new CopyOnWriteArrayList<>();
+
     /**
      * default constructor for JFXDataset
      * @param rows number of rows in the grid
@@ -49,6 +65,16 @@ public class JFXDataset implements Data {
     public final void setCurrentChunk(DataChunk dataChunk) {
         currentChunk = dataChunk;
         numFrames = dataChunk.size();
+        clearSnapshot();
+        publishFirst(dataChunk);
+    }
+
+    /**
+     * Used by subclasses that hold more than a single chunk to keep the frame count up to date
+     * @param numFrames total number of frames in the dataset
+     */
+    protected final void setNumFrames(int numFrames) {
+        this.numFrames = numFrames;
     }
 
     /**
@@ -78,16 +104,30 @@ public class JFXDataset implements Data {
     }
 
     /**
-     * Gets the current frame in the chunk
+     * Gets the current frame in the chunk, safe to call from any thread
      * @return MatrixR023
      */
     @Override
     public double[] get() {
-        if(currentChunk == null) {
-            return null;
-        }
+        return frameOf(current());
+    }
+
+    /**
+     * Gets the latest published frame like {@link #get()}, without expanding it if it's held sparse. Only the thread
+     * moving the frame pointer publishes, so this is safe to call from any thread.
+     * @return the published snapshot, null if there's no frame
+     */
+    public FrameSnapshot current() {
+        final FrameSnapshot last = snapshot;
+        return last.hasFrame() ? last : null;
+    }
 
-        return currentChunk.get();
+    /**
+     * @return the current frame in sparse form, null if it's held dense or there's none
+     */
+    public SparseFrame getSparse() {
+        final DataChunk chunk = currentChunk;
+        return chunk == null ? null : chunk.getSparse();
     }
 
     /**
@@ -106,6 +146,7 @@ public class JFXDataset implements Data {
         currentChunk.clearData();
         currentChunk = null;
         numFrames = 0;
+        clearSnapshot();
 
         System.gc();
     }
@@ -115,11 +156,7 @@ public class JFXDataset implements Data {
      */
     @Override
     public double[] stepForward() {
-        if(currentChunk == null) {
-            return null;
-        }
-
-        return currentChunk.stepForward();
+        return frameOf(moveForward());
     }
 
     /**
@@ -127,11 +164,7 @@ public class JFXDataset implements Data {
      */
     @Override
     public double[] stepBack() {
-        if(currentChunk == null) {
-            return null;
-        }
-
-        return currentChunk.stepBack();
+        return frameOf(moveBack());
     }
 
     /**
@@ -142,11 +175,195 @@ public class JFXDataset implements Data {
      */
     @Override
     public double[] gotoFrame(int frameNum) {
+        return frameOf(moveToFrame(frameNum));
+    }
+
+    /**
+     * Steps forward by one frame like {@link #stepForward()}, without reading the frame. Playback moves through this,
+     * so frames held sparse are only expanded if a reader needs them dense.
+     * @return the published snapshot, null if there's no frame
+     */
+    public FrameSnapshot moveForward() {
+        final DataChunk chunk = currentChunk;
+        if(chunk == null) {
+            return null;
+        }
+
+        if(chunk.hasNext()) {
+            chunk.setIndex(chunk.getIndex() + 1);
+        }
+        return publish(chunk);
+    }
+
+    /**
+     * Steps back by one frame like {@link #stepBack()}, without reading the frame
+     * @return the published snapshot, null if there's no frame or it's already on the first frame
+     */
+    public FrameSnapshot moveBack() {
+        final DataChunk chunk = currentChunk;
+        if(chunk == null || chunk.getIndex() <= 0) {
+            return null;
+        }
+
+        chunk.setIndex(chunk.getIndex() - 1);
+        return publish(chunk);
+    }
+
+    /**
+     * Goes to the frame like {@link #gotoFrame(int)}, without reading it
+     * @param frameNum The frame to go to. Note, values are [1, length]. Inclusive of 1.
+     * @return the published snapshot, null if out of bounds
+     */
+    public FrameSnapshot moveToFrame(int frameNum) {
         if(frameNum < 1 || frameNum > numFrames) {
             return null;
         }
 
-        return currentChunk.gotoFrame(frameNum);
+        currentChunk.setIndex(frameNum - 1);
+        return publish(currentChunk);
+    }
+
+    private static double[] frameOf(FrameSnapshot snapshot) {
+        return snapshot == null ? null : snapshot.getFrame();
+    }
+
+    /**
+     * Gets the latest published current frame along with its number, safe to call from any thread. Unlike
+     * {@link #get()} this never moves the frame pointer, so it's what threads other than the one playing frames
+     * should read.
+     * @return the current frame snapshot, {@link FrameSnapshot#EMPTY} until a frame has been read
+     */
+    public final FrameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publishes the chunk's current frame to other threads, if it changed, in the form it's held. Called after every
+     * move of the frame pointer, only by the thread moving it, so snapshots are never published out of order.
+     * @param chunk the current chunk
+     * @return the current snapshot, null if the chunk has no current frame
+     */
+    protected final FrameSnapshot publish(DataChunk chunk) {
+        final double[] frame = chunk.getHeld();
+        final SparseFrame sparse = frame == null ? chunk.getSparse() : null;
+        if(frame == null && sparse == null) {
+            return null;
+        }
+
+        int frameNum = getFrameNum();
+        FrameSnapshot last = snapshot;
+        boolean same = last.getFrameNum() == frameNum
+                && (sparse != null ? last.getSparse() == sparse : last.getSparse() == null && last.getHeld() == frame);
+        if(!same) {
+            last = new FrameSnapshot(frame, sparse, frameNum, snapshotVersion.incrementAndGet());
+            setSnapshot(last);
+        }
+        return last;
+    }
+
+    /**
+     * Moves a chunk that just became current onto its first frame and publishes it, so there's a frame to render
+     * before playback starts. Called by the thread building or moving the dataset.
+     */
+    protected final void publishFirst(DataChunk chunk) {
+        if(chunk == null || chunk.isEmpty()) {
+            return;
+        }
+
+        if(chunk.getIndex() < 0) {
+            chunk.setIndex(0);
+        }
+        publish(chunk);
+    }
+
+    /**
+     * Publishes that there is no current frame, when the data is cleared or replaced
+     */
+    protected final void clearSnapshot() {
+        if(snapshot != FrameSnapshot.EMPTY) {
+            setSnapshot(FrameSnapshot.EMPTY);
+        }
+    }
+
+    private void setSnapshot(FrameSnapshot next) {
+        snapshot = next;
+        for(var listener : frameListeners) {
+            listener.accept(next);
+        }
+    }
+
+    /**
+     * Adds a listener told about every change of the current frame. It's called on the thread that moved the frame
+     * pointer (usually the clock thread), right after the new snapshot is published, so it should only hand work off.
+     * @param listener receives the new snapshot
+     */
+    public final void addFrameListener(Consumer<FrameSnapshot> listener) {
+        if(listener != null) {
+            frameListeners.addIfAbsent(listener);
+        }
+    }
+
+    public final void removeFrameListener(Consumer<FrameSnapshot> listener) {
+        frameListeners.remove(listener);
+    }
+
+    /**
+     * Reads a frame without moving the current frame
+     *
+     * @param frameNum The frame to read. Note, values are [1, length]. Inclusive of 1.
+     * @return The matrix at the specific frame number. Null if out of bounds.
+     */
+    @Override
+    public double[] frame(int frameNum) {
+        final DataChunk chunk = currentChunk;
+        if(chunk == null || frameNum < 1 || frameNum > numFrames) {
+            return null;
+        }
+
+        return chunk.frame(frameNum);
+    }
+
+    /**
+     * Gets the stats of every chunk, in frame order, e.g. to find the value range of the whole dataset without
+     * scanning its frames
+     * @return the stats of each chunk, empty if there's no data
+     */
+    public List<ChunkStats> getChunkStats() {
+        final DataChunk chunk = currentChunk;
+        return chunk == null || chunk.size() == 0 ? List.of() : List.of(chunk.getStats());
+    }
+
+    /**
+     * Gets a chunk for reading, without moving the frame pointer
+     * @param uid uid of the chunk, as given by its stats
+     * @return the chunk, null if it isn't part of the dataset
+     */
+    DataChunk chunk(int uid) {
+        final DataChunk chunk = currentChunk;
+        return chunk != null && chunk.uid == uid ? chunk : null;
+    }
+
+    /**
+     * Creates a query over this dataset's frames, see {@link FrameQuery}
+     */
+    public FrameQuery query() {
+        return new FrameQuery(this);
+    }
+
+    /**
+     * Creates a cursor with its own frame position over this dataset
+     */
+    public FrameCursor cursor() {
+        return new FrameCursor(this);
+    }
+
+    /**
+     * Tells the dataset which way and how fast frames are being played. Datasets held entirely in memory ignore this,
+     * paged datasets use it to load ahead of playback.
+     * @param direction 1 when playing forwards, -1 when playing backwards, 0 when stopped
+     * @param framesPerSecond playback rate in frames per second, 0 if unknown
+     */
+    public void setPlaybackHint(int direction, double framesPerSecond) {
     }
 
     /**
@@ -23,6 +23,8 @@ package JFXGrid.data;
 
 import org.ojalgo.matrix.MatrixR032;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -38,7 +40,11 @@ public class JFXDatasetFactory extends JFXDataset {
     }
 
     private DataType type = DataType.Single_Chunk;
+    private int chunkSize = 0;
+    private ChunkFileManager chunkFileManager;
     private final ArrayList<double[]> frames = new ArrayList<>();
+    //Sparse frames by index, null where the frame is dense. Only filled in once a sparse frame is added
+    private final ArrayList<SparseFrame> sparseFrames = new ArrayList<>();
     private final ArrayList<DataChunk> chunks = new ArrayList<>();
 
     public JFXDatasetFactory(int rows, int cols) {
@@ -71,6 +77,35 @@ public class JFXDatasetFactory extends JFXDataset {
         return this;
     }
 
+    /**
+     * Adds a sparse frame into the dataset. It's kept in sparse form and only expanded while it's being read.
+     * @param frame sparse frame of the dataset's rows and columns
+     * @return
+     */
+    public JFXDatasetFactory add(SparseFrame frame) {
+        if(frame == null) {
+            return this;
+        }
+        if(frame.getRows() != getNumRows() || frame.getColumns() != getNumColumns()) {
+            throw new IllegalArgumentException("Expected a " + getNumRows() + "x" + getNumColumns() + " frame, got "
+                    + frame.getRows() + "x" + frame.getColumns());
+        }
+
+        padSparse();
+        sparseFrames.add(frame);
+        frames.add(null);
+        return this;
+    }
+
+    /**
+     * Lines the sparse frames up with the frames added so far
+     */
+    private void padSparse() {
+        while(sparseFrames.size() < frames.size()) {
+            sparseFrames.add(null);
+        }
+    }
+
     /**
      * Formats and adds a 2D double array in form -> arr[rows][columns] to the dataset.
      * @param matrix2D 2D double array in form arr[rows][columns]
@@ -137,21 +172,76 @@ public class JFXDatasetFactory extends JFXDataset {
     public JFXDataset build() {
         JFXDataset dataset;
         if(chunks.isEmpty()) {
-            chunks.add(new DataChunk(frames, 0));
+            boolean sparse = !sparseFrames.isEmpty();
+            if(sparse) {
+                padSparse();
+            }
+
+            if(type == DataType.Batch_Chunking && chunkSize > 0) {
+                for(int start = 0; start < frames.size(); start += chunkSize) {
+                    int end = Math.min(frames.size(), start + chunkSize);
+                    chunks.add(sparse ? new DataChunk(frames.subList(start, end), sparseFrames.subList(start, end), start)
+                            : new DataChunk(frames.subList(start, end), start));
+                }
+            } else {
+                chunks.add(sparse ? new DataChunk(frames, sparseFrames, 0) : new DataChunk(frames, 0));
+            }
         }
 
+        //Summarized up front, so the chunk store can persist the stats along with the frames
+        chunks.parallelStream().forEach(DataChunk::getStats);
+
         if(type == DataType.Single_Chunk) {
             dataset = new JFXDataset(getNumRows(), getNumColumns());
             dataset.setCurrentChunk(chunks.get(0));
         } else {
             dataset = new JFXDataDeque(getNumRows(), getNumColumns());
             JFXDataDeque deque = (JFXDataDeque) dataset;
-            chunks.forEach(deque::insertLast);
+            if(chunkFileManager == null) {
+                chunks.forEach(deque::insertLast);
+            } else {
+                try {
+                    for(DataChunk chunk : chunks) {
+                        if(chunk.size() > 0) {
+                            chunkFileManager.write(chunk, getNumRows(), getNumColumns());
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                deque.setPager(chunkFileManager);
+            }
         }
 
         return dataset;
     }
 
+    /**
+     * Sets the number of frames held by each chunk when building a 'Batch_Chunking' dataset.
+     * @param chunkSize frames per chunk, 0 keeps all frames in a single chunk
+     * @return
+     */
+    public JFXDatasetFactory setChunkSize(int chunkSize) {
+        if(chunkSize < 0) {
+            throw new IllegalArgumentException("Chunk size cannot be less than 0!");
+        }
+
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Pages a 'Batch_Chunking' dataset through the given chunk store. On build, every chunk is written into the store
+     * and the dataset only holds the chunks around the current frame in memory. Chunks already in the store are
+     * kept, so a store opened on an existing directory can be built without adding any frames.
+     * @param chunkFileManager the chunk store, null to hold every chunk in memory
+     * @return
+     */
+    public JFXDatasetFactory setChunkFileManager(ChunkFileManager chunkFileManager) {
+        this.chunkFileManager = chunkFileManager;
+        return this;
+    }
+
     /**
      * Sets the type of returned Dataset type. Will default to JFXDataset 'Single_Chunk', but can be modified to 'Batch_Chunking' for the JFXDataDeque type
      * @param type type of datatype to set
@@ -0,0 +1,149 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.data;
+
+import java.util.Arrays;
+
+/**
+ * A frame stored as its non-zero cells only, in sorted coordinate form: the column-major index of each non-zero cell
+ * ({@code column * rows + row}, the same layout as dense frames) along with its value. Every other cell is 0.
+ * Takes 12 bytes per non-zero cell instead of 8 bytes per cell, so it pays off below about 2/3 density and frames that
+ * are mostly zeros (e.g. event detector output) shrink in proportion to their sparsity.
+ * <p>
+ * Sparse frames are immutable. NaN cells count as non-zero, so they survive the round trip through {@link #toDense()}.
+ *
+ * @author aram-ap
+ */
+public final class SparseFrame {
+    private final int rows;
+    private final int columns;
+    private final int[] indices;
+    private final double[] values;
+
+    /**
+     * @param rows number of rows
+     * @param columns number of columns
+     * @param indices strictly increasing column-major cell indices, not copied
+     * @param values the value of each indexed cell, not copied
+     */
+    public SparseFrame(int rows, int columns, int[] indices, double[] values) {
+        if(rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("Rows and columns must be > 0, got " + rows + ", " + columns);
+        }
+        if(indices.length != values.length) {
+            throw new IllegalArgumentException("Got " + indices.length + " indices but " + values.length + " values");
+        }
+        for(int i = 0; i < indices.length; i++) {
+            if(indices[i] < 0 || indices[i] >= rows * columns || (i > 0 && indices[i] <= indices[i - 1])) {
+                throw new IllegalArgumentException("Indices must be increasing and within the " + rows + "x" + columns
+                        + " frame, got " + indices[i] + " at " + i);
+            }
+        }
+
+        this.rows = rows;
+        this.columns = columns;
+        this.indices = indices;
+        this.values = values;
+    }
+
+    /**
+     * Keeps only the non-zero cells of a dense frame
+     * @param dense column-major frame of rows * columns values
+     */
+    public static SparseFrame fromDense(int rows, int columns, double[] dense) {
+        if(dense.length != rows * columns) {
+            throw new IllegalArgumentException("Expected a frame of " + (rows * columns) + " values, got " + dense.length);
+        }
+
+        int count = 0;
+        for(double val : dense) {
+            if(val != 0) {
+                count++;
+            }
+        }
+
+        int[] indices = new int[count];
+        double[] values = new double[count];
+        for(int i = 0, n = 0; n < count; i++) {
+            if(dense[i] != 0) {
+                indices[n] = i;
+                values[n++] = dense[i];
+            }
+        }
+        return new SparseFrame(rows, columns, indices, values);
+    }
+
+    /**
+     * @return a new column-major dense copy of the frame
+     */
+    public double[] toDense() {
+        double[] dense = new double[rows * columns];
+        for(int i = 0; i < indices.length; i++) {
+            dense[indices[i]] = values[i];
+        }
+        return dense;
+    }
+
+    /**
+     * @return the value at the cell, 0 if it isn't stored
+     */
+    public double get(int row, int col) {
+        int found = Arrays.binarySearch(indices, col * rows + row);
+        return found < 0 ? 0 : values[found];
+    }
+
+    /**
+     * @return the number of stored (non-zero) cells
+     */
+    public int getNonZeros() {
+        return indices.length;
+    }
+
+    /**
+     * @return the column-major cell index of the i-th stored cell
+     */
+    public int getIndex(int i) {
+        return indices[i];
+    }
+
+    /**
+     * @return the value of the i-th stored cell
+     */
+    public double getValue(int i) {
+        return values[i];
+    }
+
+    /**
+     * @return the fraction of cells that are stored
+     */
+    public double getDensity() {
+        return (double) indices.length / ((long) rows * columns);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+}
@@ -0,0 +1,535 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A temporal pyramid over a dataset: the per-cell min, max and mean of every block of 2^k frames, for each level k
+ * from {@link #getMinLevel()} up to the level where a single block covers the whole dataset. Block b of level k
+ * covers frames [b * 2^k + 1, (b + 1) * 2^k]. When frames are skipped during fast playback or scrubbing, drawing the
+ * block covering them (e.g. its max) shows every short event that a single sampled frame would miss, without reading
+ * the frames themselves.
+ * <p>
+ * The pyramid is built by one streaming pass over the chunks on a background thread. Each frame is added into the
+ * lowest level, and each finished block is merged into the level above, so building costs about two passes over the
+ * data. Levels take about 3 / 2^(minLevel - 1) times the size of the dataset. A paged dataset's pyramid is stored as
+ * {@code pyramid-<k>.bin} files next to its chunk files, and can be reopened with {@link #open}. Other datasets keep
+ * it in memory. Non-finite values are left out of every summary, a cell without any finite value is NaN.
+ * <p>
+ * Reading blocks is safe from any thread.
+ *
+ * @author aram-ap
+ */
+public final class TemporalPyramid implements AutoCloseable {
+    public enum Mode {
+        MIN,
+        MAX,
+        MEAN
+    }
+
+    //Blocks of 2^3 = 8 frames and up by default
+    public static final int DEFAULT_MIN_LEVEL = 3;
+
+    private static final int MAGIC = 0x4A465850; //"JFXP"
+    //magic, level, rows, columns, frames
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+    private static final String PREFIX = "pyramid-";
+    private static final String SUFFIX = ".bin";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final int rows;
+    private final int columns;
+    private final int cells;
+    private final int numFrames;
+    private final int minLevel;
+    private final int maxLevel;
+
+    //One per level from minLevel. Each block is its min, max and mean frames back to back
+    private final double[][] memoryLevels;
+    private final FileChannel[] fileLevels;
+
+    private TemporalPyramid(int rows, int columns, int numFrames, int minLevel, double[][] memoryLevels,
+                            FileChannel[] fileLevels) {
+        this.rows = rows;
+        this.columns = columns;
+        this.cells = rows * columns;
+        this.numFrames = numFrames;
+        this.minLevel = minLevel;
+        this.maxLevel = topLevel(numFrames, minLevel);
+        this.memoryLevels = memoryLevels;
+        this.fileLevels = fileLevels;
+    }
+
+    /**
+     * Builds the pyramid of the dataset on a background thread, with blocks of {@link #DEFAULT_MIN_LEVEL} and up
+     */
+    public static CompletableFuture<TemporalPyramid> build(JFXDataset dataset) {
+        return build(dataset, DEFAULT_MIN_LEVEL);
+    }
+
+    /**
+     * Builds the pyramid of the dataset on a background thread. Doesn't move the dataset's frame pointer.
+     * @param dataset the dataset, frames added to it afterwards aren't covered
+     * @param minLevel the lowest level, its blocks hold 2^minLevel frames. Must be >= 1
+     * @return completes with the pyramid once every level is built
+     */
+    public static CompletableFuture<TemporalPyramid> build(JFXDataset dataset, int minLevel) {
+        if(minLevel < 1 || minLevel > 30) {
+            throw new IllegalArgumentException("Min level must be in [1, 30], got " + minLevel);
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return create(dataset, minLevel);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Opens the pyramid stored next to a paged dataset's chunks
+     * @return the pyramid, null if the dataset isn't paged or no matching pyramid is stored
+     * @throws IOException if a pyramid file can't be read
+     */
+    public static TemporalPyramid open(JFXDataset dataset) throws IOException {
+        Path directory = directory(dataset);
+        if(directory == null) {
+            return null;
+        }
+
+        int rows = dataset.getNumRows(), cols = dataset.getNumColumns(), numFrames = dataset.size();
+        for(int minLevel = 1; minLevel <= 30; minLevel++) {
+            if(!Files.exists(directory.resolve(PREFIX + minLevel + SUFFIX))) {
+                continue;
+            }
+
+            int maxLevel = topLevel(numFrames, minLevel);
+            FileChannel[] channels = new FileChannel[maxLevel - minLevel + 1];
+            try {
+                for(int level = minLevel; level <= maxLevel; level++) {
+                    Path file = directory.resolve(PREFIX + level + SUFFIX);
+                    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                    channels[level - minLevel] = channel;
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                    channel.read(header, 0);
+                    if(header.getInt(0) != MAGIC || header.getInt(4) != level || header.getInt(8) != rows
+                            || header.getInt(12) != cols || header.getInt(16) != numFrames) {
+                        closeAll(channels);
+                        return null;
+                    }
+                }
+            } catch (IOException e) {
+                closeAll(channels);
+                if(e instanceof NoSuchFileException) {
+                    return null;
+                }
+                throw e;
+            }
+            return new TemporalPyramid(rows, cols, numFrames, minLevel, null, channels);
+        }
+        return null;
+    }
+
+    private static TemporalPyramid create(JFXDataset dataset, int minLevel) throws IOException {
+        final int rows = dataset.getNumRows(), cols = dataset.getNumColumns();
+        final var chunks = dataset.getChunkStats();
+        final ChunkStats last = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        final int numFrames = last == null ? 0 : last.getUid() + last.size();
+        final int maxLevel = topLevel(numFrames, minLevel);
+        final int cells = rows * cols;
+        final int levels = maxLevel - minLevel + 1;
+
+        Path directory = directory(dataset);
+        double[][] memory = directory == null ? new double[levels][] : null;
+        FileChannel[] files = directory == null ? null : new FileChannel[levels];
+        try {
+            for(int level = minLevel; level <= maxLevel; level++) {
+                int blocks = blocks(numFrames, level);
+                if(directory == null) {
+                    memory[level - minLevel] = new double[blocks * 3 * cells];
+                } else {
+                    //Written to a temporary file and moved into place once complete, like the chunk files
+                    Path file = directory.resolve(PREFIX + level + SUFFIX + TEMP_SUFFIX);
+                    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                    files[level - minLevel] = channel;
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                    header.putInt(MAGIC).putInt(level).putInt(rows).putInt(cols).putInt(numFrames).flip();
+                    while(header.hasRemaining()) {
+                        channel.write(header);
+                    }
+                }
+            }
+
+            TemporalPyramid pyramid = new TemporalPyramid(rows, cols, numFrames, minLevel, memory, files);
+            Block[] open = new Block[levels];
+            for(int i = 0; i < levels; i++) {
+                open[i] = new Block(cells);
+            }
+
+            ByteBuffer buffer = directory == null ? null : ByteBuffer.allocate(3 * cells * Double.BYTES);
+            int base = 1 << minLevel;
+            for(ChunkStats stats : chunks) {
+                DataChunk chunk = dataset.chunk(stats.getUid());
+                if(chunk == null) {
+                    throw new IOException("Chunk " + stats.getUid() + " couldn't be read");
+                }
+
+                for(int f = 1; f <= chunk.size(); f++) {
+                    open[0].add(chunk.frame(f));
+                    if(open[0].frames == base) {
+                        pyramid.finish(open, 0, buffer);
+                    }
+                }
+            }
+
+            //Partial blocks at the end of the dataset
+            for(int i = 0; i < levels; i++) {
+                if(open[i].frames > 0) {
+                    pyramid.store(i, open[i], buffer);
+                    if(i + 1 < levels) {
+                        open[i + 1].merge(open[i]);
+                    }
+                }
+            }
+
+            if(directory == null) {
+                return pyramid;
+            }
+            install(directory, files, minLevel);
+            return new TemporalPyramid(rows, cols, numFrames, minLevel, null, files);
+        } catch (IOException | RuntimeException e) {
+            closeAll(files);
+            deleteTemp(directory, minLevel, maxLevel);
+            throw e;
+        }
+    }
+
+    /**
+     * Moves the finished levels into place and reopens them for reading. Any stored pyramid is removed first and the
+     * lowest level, which {@link #open} looks for, is moved last, so a build that's interrupted never leaves a
+     * pyramid mixing levels of different builds
+     */
+    private static void install(Path directory, FileChannel[] files, int minLevel) throws IOException {
+        for(FileChannel channel : files) {
+            channel.force(false);
+        }
+        closeAll(files);
+
+        try(var stored = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for(Path file : stored) {
+                Files.deleteIfExists(file);
+            }
+        }
+        for(int i = files.length - 1; i >= 0; i--) {
+            Path file = directory.resolve(PREFIX + (minLevel + i) + SUFFIX);
+            Files.move(directory.resolve(file.getFileName() + TEMP_SUFFIX), file,
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        for(int i = 0; i < files.length; i++) {
+            files[i] = FileChannel.open(directory.resolve(PREFIX + (minLevel + i) + SUFFIX), StandardOpenOption.READ);
+        }
+    }
+
+    private static void deleteTemp(Path directory, int minLevel, int maxLevel) {
+        if(directory == null) {
+            return;
+        }
+
+        for(int level = minLevel; level <= maxLevel; level++) {
+            try {
+                Files.deleteIfExists(directory.resolve(PREFIX + level + SUFFIX + TEMP_SUFFIX));
+            } catch (IOException ignored) {
+                //Left over, overwritten by the next build
+            }
+        }
+    }
+
+    /**
+     * Stores a full block and merges it into the level above, finishing that one in turn once it holds two blocks
+     */
+    private void finish(Block[] open, int index, ByteBuffer buffer) throws IOException {
+        store(index, open[index], buffer);
+        if(index + 1 < open.length) {
+            Block parent = open[index + 1];
+            parent.merge(open[index]);
+            parent.children++;
+            if(parent.children == 2) {
+                finish(open, index + 1, buffer);
+            }
+        }
+        open[index].reset();
+    }
+
+    private void store(int index, Block block, ByteBuffer buffer) throws IOException {
+        int blockNum = block.blockNum++;
+        if(memoryLevels != null) {
+            block.writeTo(memoryLevels[index], blockNum * 3 * cells);
+            return;
+        }
+
+        buffer.clear();
+        double[] values = new double[3 * cells];
+        block.writeTo(values, 0);
+        buffer.asDoubleBuffer().put(values);
+        long position = HEADER_BYTES + (long) blockNum * 3 * cells * Double.BYTES;
+        while(buffer.hasRemaining()) {
+            position += fileLevels[index].write(buffer, position);
+        }
+    }
+
+    /**
+     * Reads the block of the level covering the frame
+     * @param level level of the block, within [getMinLevel(), getMaxLevel()]
+     * @param frameNum a frame covered by the block, values are [1, getNumFrames()]
+     * @param mode which summary to read
+     * @return a new column-major frame of the block's per-cell min, max or mean
+     * @throws IOException if a stored block can't be read
+     */
+    public double[] block(int level, int frameNum, Mode mode) throws IOException {
+        if(level < minLevel || level > maxLevel || frameNum < 1 || frameNum > numFrames) {
+            throw new IndexOutOfBoundsException("Level " + level + ", frame " + frameNum + " is outside of levels ["
+                    + minLevel + ", " + maxLevel + "], frames [1, " + numFrames + "]");
+        }
+
+        int blockNum = (frameNum - 1) >> level;
+        long offset = ((long) blockNum * 3 + mode.ordinal()) * cells;
+        double[] out = new double[cells];
+        if(memoryLevels != null) {
+            System.arraycopy(memoryLevels[level - minLevel], (int) offset, out, 0, cells);
+            return out;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(cells * Double.BYTES);
+        long position = HEADER_BYTES + offset * Double.BYTES;
+        while(buffer.hasRemaining()) {
+            int read = fileLevels[level - minLevel].read(buffer, position + buffer.position());
+            if(read < 0) {
+                throw new IOException("Unexpected end of pyramid level " + level);
+            }
+        }
+        buffer.flip().asDoubleBuffer().get(out);
+        return out;
+    }
+
+    /**
+     * Combines every block of a level overlapping a range of frames into one frame, e.g. all the frames skipped over
+     * since the last drawn frame. Means of different blocks are weighted by the number of frames they cover.
+     * @param level level of the blocks, within [getMinLevel(), getMaxLevel()]
+     * @param fromFrame first frame of the range, values are [1, getNumFrames()]
+     * @param toFrame last frame of the range, inclusive
+     * @param mode which summary to read
+     * @return a new column-major frame covering at least the range
+     * @throws IOException if a stored block can't be read
+     */
+    public double[] range(int level, int fromFrame, int toFrame, Mode mode) throws IOException {
+        if(fromFrame > toFrame) {
+            throw new IndexOutOfBoundsException("Frames [" + fromFrame + ", " + toFrame + "] are empty");
+        }
+
+        double[] out = block(level, fromFrame, mode);
+        int size = 1 << level;
+        int frames = Math.min(numFrames, ((fromFrame - 1) / size + 1) * size) - ((fromFrame - 1) / size) * size;
+        for(int start = ((fromFrame - 1) / size + 1) * size + 1; start <= toFrame; start += size) {
+            double[] next = block(level, start, mode);
+            int nextFrames = Math.min(size, numFrames - start + 1);
+            for(int i = 0; i < cells; i++) {
+                double a = out[i], b = next[i];
+                if(a != a) {
+                    out[i] = b;
+                } else if(b == b) {
+                    out[i] = switch(mode) {
+                        case MIN -> Math.min(a, b);
+                        case MAX -> Math.max(a, b);
+                        case MEAN -> (a * frames + b * nextFrames) / (frames + nextFrames);
+                    };
+                }
+            }
+            frames += nextFrames;
+        }
+        return out;
+    }
+
+    /**
+     * Picks the level to draw when each drawn frame stands for the given number of frames. Its blocks are at least as
+     * long as the step, so the blocks overlapping the frames since the last drawn one are at most two, see {@link #range}
+     * @param framesPerStep frames advanced between drawn frames
+     * @return the lowest level whose blocks are no shorter than the step, at least {@link #getMinLevel()}. 0 if no frame
+     *         is skipped
+     */
+    public int levelFor(long framesPerStep) {
+        if(framesPerStep <= 1) {
+            return 0;
+        }
+
+        int level = 64 - Long.numberOfLeadingZeros(framesPerStep - 1);
+        return Math.max(minLevel, Math.min(level, maxLevel));
+    }
+
+    public int getMinLevel() {
+        return minLevel;
+    }
+
+    /**
+     * @return the highest level, a single block covering every frame
+     */
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    public int getNumFrames() {
+        return numFrames;
+    }
+
+    public int getNumRows() {
+        return rows;
+    }
+
+    public int getNumColumns() {
+        return columns;
+    }
+
+    /**
+     * Closes the pyramid files, the stored pyramid is kept
+     */
+    @Override
+    public void close() throws IOException {
+        closeAll(fileLevels);
+    }
+
+    private static int topLevel(int numFrames, int minLevel) {
+        int level = minLevel;
+        while((1L << level) < numFrames) {
+            level++;
+        }
+        return level;
+    }
+
+    private static int blocks(int numFrames, int level) {
+        return (int) Math.max(1, ((long) numFrames + (1L << level) - 1) >> level);
+    }
+
+    private static Path directory(JFXDataset dataset) {
+        if(dataset instanceof JFXDataDeque deque && deque.getPager() != null) {
+            return deque.getPager().getDirectory();
+        }
+        return null;
+    }
+
+    private static void closeAll(FileChannel[] channels) throws IOException {
+        if(channels == null) {
+            return;
+        }
+
+        IOException failure = null;
+        for(FileChannel channel : channels) {
+            try {
+                if(channel != null) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if(failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * A block being built: running per-cell min, max, finite sum and count
+     */
+    private static final class Block {
+        private final double[] min;
+        private final double[] max;
+        private final double[] sum;
+        private final int[] counts;
+        //Frames covered so far, and child blocks merged into a higher level's block
+        private int frames;
+        private int children;
+        //Number of the next block stored for this level
+        private int blockNum;
+
+        private Block(int cells) {
+            min = new double[cells];
+            max = new double[cells];
+            sum = new double[cells];
+            counts = new int[cells];
+            reset();
+        }
+
+        private void add(double[] frame) {
+            for(int i = 0; i < frame.length; i++) {
+                double val = frame[i];
+                if(!Double.isFinite(val)) {
+                    continue;
+                }
+                if(val < min[i]) min[i] = val;
+                if(val > max[i]) max[i] = val;
+                sum[i] += val;
+                counts[i]++;
+            }
+            frames++;
+        }
+
+        private void merge(Block child) {
+            for(int i = 0; i < min.length; i++) {
+                if(child.min[i] < min[i]) min[i] = child.min[i];
+                if(child.max[i] > max[i]) max[i] = child.max[i];
+                sum[i] += child.sum[i];
+                counts[i] += child.counts[i];
+            }
+            frames += child.frames;
+        }
+
+        private void writeTo(double[] out, int offset) {
+            int cells = min.length;
+            for(int i = 0; i < cells; i++) {
+                boolean empty = counts[i] == 0;
+                out[offset + i] = empty ? Double.NaN : min[i];
+                out[offset + cells + i] = empty ? Double.NaN : max[i];
+                out[offset + 2 * cells + i] = empty ? Double.NaN : sum[i] / counts[i];
+            }
+        }
+
+        private void reset() {
+            Arrays.fill(min, Double.POSITIVE_INFINITY);
+            Arrays.fill(max, Double.NEGATIVE_INFINITY);
+            Arrays.fill(sum, 0);
+            Arrays.fill(counts, 0);
+            frames = 0;
+            children = 0;
+        }
+    }
+}
@@ -21,6 +21,8 @@
 //SOFTWARE.
 package JFXGrid.events;
 
+import JFXGrid.metrics.ClockTickEvent;
+
 import java.util.ArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -47,6 +49,10 @@ public class JFXClock {
 
     //This is used to keep fixed render calls working at the correct time
     private double lastFixedTimeMS = System.currentTimeMillis();
+
+    //Time between the last two fixed ticks, read by the metrics from other threads
+    private volatile long fixedDeltaNano = 0;
+    private long lastFixedNano = 0;
     private boolean clockThreadActive = false;
     private ArrayList<Runnable> externalRunnables = new ArrayList<>();
 
@@ -91,13 +97,22 @@ public class JFXClock {
     }
 
     /**
-     * Gets the current frame rate based on the time between each frame.
+     * Gets the rate of the clock loop itself, based on the time between each tick. The loop doesn't sleep, so this
+     * reflects how fast tick() is spinning rather than a display frame rate. See getFixedFps() for the capped rate.
      * @return
      */
     public float getFps() {
         return (float) (1000/deltaTimeMS);
     }
 
+    /**
+     * @return the measured rate of the fixed tick in Hz, which follows the fps cap. 0 until two fixed ticks have run
+     */
+    public double getFixedFps() {
+        long delta = fixedDeltaNano;
+        return delta == 0 ? 0 : 1_000_000_000d / delta;
+    }
+
     /**
      * @return The current fps cap
      */
@@ -154,7 +169,10 @@ public class JFXClock {
         deltaTimeMS = ((double) currentNano - lastTimeNano)/1_000_000d;
         lastTimeNano = currentNano;
 
+        ClockTickEvent event = new ClockTickEvent();
+        event.begin();
         TickListener.tick(INSTANCE);
+        commitTick(event, false);
     }
 
     /**
@@ -162,9 +180,30 @@ public class JFXClock {
      * @throws Exception
      */
     private void tickFixed() throws Exception {
+        long currentNano = System.nanoTime();
+        if(lastFixedNano != 0) {
+            fixedDeltaNano = currentNano - lastFixedNano;
+        }
+        lastFixedNano = currentNano;
+
+        ClockTickEvent event = new ClockTickEvent();
+        event.begin();
         TickListener.tickFixed(INSTANCE);
         externalRunnables.forEach(Runnable::run);
         lastFixedTimeMS = System.currentTimeMillis();
+        commitTick(event, true);
+    }
+
+    /**
+     * Commits the tick's JFR event, which is only recorded when the tick ran longer than its threshold
+     */
+    private void commitTick(ClockTickEvent event, boolean fixed) {
+        event.end();
+        if(event.shouldCommit()) {
+            event.fixed = fixed;
+            event.fpsCap = fpsCap.get();
+            event.commit();
+        }
     }
 
 
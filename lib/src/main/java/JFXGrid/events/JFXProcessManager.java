@@ -24,10 +24,9 @@ package JFXGrid.events;
 
 import javafx.application.Platform;
 
-import java.util.Collection;
-import java.util.List;
-import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The JFXProcessManager handles adding all JFXGrid-esc background worker calls for processing. Ensures all added tasks
@@ -38,13 +37,18 @@ import java.util.concurrent.*;
  */
 public class JFXProcessManager implements TickListener {
     private static final ExecutorService workerThread;
-    private static PriorityQueue<Runnable> processQueue;
+    //Tasks are added from the clock thread and the FX thread, the queue must be safe for concurrent use.
+    //It was previously a PriorityQueue, which throws on the second add since Runnable isn't Comparable
+    private static final Queue<Runnable> processQueue;
+    //ConcurrentLinkedQueue.size() is O(n), so the depths are tracked separately for the metrics
+    private static final AtomicInteger queueDepth = new AtomicInteger();
+    private static final AtomicInteger pendingFXTasks = new AtomicInteger();
     private static final JFXProcessManager processManager = new JFXProcessManager();
 
 
     static {
         workerThread = Executors.newSingleThreadExecutor();
-        processQueue = new PriorityQueue<>();
+        processQueue = new ConcurrentLinkedQueue<>();
         TickListener.init(processManager);
     }
 
@@ -54,6 +58,7 @@ public class JFXProcessManager implements TickListener {
      */
     public static void addTask(Runnable runnable) {
         processQueue.add(runnable);
+        queueDepth.incrementAndGet();
     }
 
     /**
@@ -61,7 +66,25 @@ public class JFXProcessManager implements TickListener {
      * @param runnable
      */
     public static void addFXTask(Runnable runnable) {
-        Platform.runLater(runnable);
+        pendingFXTasks.incrementAndGet();
+        Platform.runLater(() -> {
+            pendingFXTasks.decrementAndGet();
+            runnable.run();
+        });
+    }
+
+    /**
+     * @return the number of tasks waiting to be handed to the worker thread
+     */
+    public static int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * @return the number of tasks added through addFXTask that the JavaFX thread hasn't started yet
+     */
+    public static int getPendingFXTasks() {
+        return pendingFXTasks.get();
     }
 
     /**
@@ -69,11 +92,13 @@ public class JFXProcessManager implements TickListener {
      * @throws Exception
      */
     public static void processNext() throws Exception {
-        if(processQueue.isEmpty()) {
+        Runnable next = processQueue.poll();
+        if(next == null) {
             return;
         }
 
-        workerThread.execute(processQueue.poll());
+        queueDepth.decrementAndGet();
+        workerThread.execute(next);
     }
 
     /**
@@ -95,6 +120,7 @@ public class JFXProcessManager implements TickListener {
      */
     public static void end() {
         processQueue.clear();
+        queueDepth.set(0);
         workerThread.shutdown();
     }
 }
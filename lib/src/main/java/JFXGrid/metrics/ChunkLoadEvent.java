@@ -0,0 +1,51 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event emitted when a chunk is added to a JFXDataDeque.
+ *
+ * @author aram-ap
+ */
+@Name("JFXGrid.ChunkLoad")
+@Label("Chunk Load")
+@Category({"JFXGrid", "Data"})
+@Description("A chunk was inserted into a data deque")
+@StackTrace(false)
+public final class ChunkLoadEvent extends Event {
+    @Label("Chunk")
+    @Description("UID of the inserted chunk")
+    public int uid;
+
+    @Label("Frames")
+    public int frames;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Loaded Chunks")
+    @Description("Number of chunks held by the deque after the insert")
+    public int loadedChunks;
+}
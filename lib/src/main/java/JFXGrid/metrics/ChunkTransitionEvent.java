@@ -0,0 +1,51 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event emitted when a JFXDataDeque moves its current pointer onto a different chunk.
+ *
+ * @author aram-ap
+ */
+@Name("JFXGrid.ChunkTransition")
+@Label("Chunk Transition")
+@Category({"JFXGrid", "Data"})
+@Description("The current chunk of a data deque changed")
+@StackTrace(false)
+public final class ChunkTransitionEvent extends Event {
+    @Label("From Chunk")
+    @Description("UID of the previous chunk")
+    public int fromUid;
+
+    @Label("To Chunk")
+    @Description("UID of the new current chunk")
+    public int toUid;
+
+    @Label("Frame Number")
+    public int frameNum;
+
+    @Label("Chunk Size")
+    @Description("Number of frames in the new current chunk")
+    public int chunkSize;
+}
@@ -0,0 +1,57 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event covering the conversion of a frame into ARGB pixels by the ImageGenerator.
+ *
+ * @author aram-ap
+ */
+@Name("JFXGrid.Colorize")
+@Label("Colorize")
+@Category({"JFXGrid", "Rendering"})
+@Description("A frame normalized and mapped onto the color lookup table")
+@StackTrace(false)
+public final class ColorizeEvent extends Event {
+    @Label("Grid Id")
+    public int gridId;
+
+    @Label("Frame Number")
+    public int frameNum;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Columns")
+    public int cols;
+
+    @Label("Lookup Table Size")
+    public int lutSize;
+
+    @Label("Vectorized")
+    public boolean vectorized;
+
+    @Label("Normalizer Mode")
+    public String normalizerMode;
+}
@@ -0,0 +1,76 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event covering a single render of a grid on the JavaFX thread, including how long it waited to be run and the
+ * duration of each stage.
+ *
+ * @author aram-ap
+ */
+@Name("JFXGrid.FrameRender")
+@Label("Frame Render")
+@Category({"JFXGrid", "Rendering"})
+@Description("A heatmap frame drawn onto a grid's canvas")
+@StackTrace(false)
+public final class FrameRenderEvent extends Event {
+    @Label("Grid Id")
+    public int gridId;
+
+    @Label("Frame Number")
+    public int frameNum;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Columns")
+    public int cols;
+
+    @Label("Canvas Width")
+    public int canvasWidth;
+
+    @Label("Canvas Height")
+    public int canvasHeight;
+
+    @Label("FX Thread Lag")
+    @Description("Time between the render being queued and the JavaFX thread starting it")
+    @Timespan(Timespan.NANOSECONDS)
+    public long fxLag;
+
+    @Label("Data Fetch")
+    @Timespan(Timespan.NANOSECONDS)
+    public long fetch;
+
+    @Label("Colorize")
+    @Timespan(Timespan.NANOSECONDS)
+    public long colorize;
+
+    @Label("Upload")
+    @Timespan(Timespan.NANOSECONDS)
+    public long upload;
+
+    @Label("Draw")
+    @Timespan(Timespan.NANOSECONDS)
+    public long draw;
+}
@@ -0,0 +1,238 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.metrics;
+
+import JFXGrid.events.JFXClock;
+import JFXGrid.events.JFXProcessManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-grid rendering metrics. The GridRenderer records how long each stage of a frame takes along with how many frames
+ * were requested, rendered, or dropped because a previous render was still waiting on the JavaFX thread.
+ * Every JFXGrid registers its metrics as the MXBean {@code JFXGrid:type=GridMetrics,grid=<id>} while it's in a scene.
+ *
+ * @author aram-ap
+ */
+public class GridMetrics implements GridMetricsMXBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GridMetrics.class);
+
+    public enum Stage {
+        //Reading the current frame out of the dataset
+        DATA_FETCH,
+        //Mapping the frame onto ARGB pixels
+        COLORIZE,
+        //Wrapping the pixels into a PixelBuffer backed WritableImage
+        UPLOAD,
+        //Drawing the image onto the canvas
+        DRAW
+    }
+
+    private final LatencyHistogram[] stages = new LatencyHistogram[Stage.values().length];
+    private final LatencyHistogram fxLag = new LatencyHistogram();
+    private final LongAdder framesRequested = new LongAdder();
+    private final LongAdder framesRendered = new LongAdder();
+    private final LongAdder framesDropped = new LongAdder();
+
+    private volatile long lastRenderNano;
+    private volatile long lastRenderDelta;
+    private ObjectName objectName;
+
+    public GridMetrics() {
+        for(int i = 0; i < stages.length; i++) {
+            stages[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Records the time spent in a single stage of a frame
+     * @param stage the stage that was timed
+     * @param nanos duration in nanoseconds
+     */
+    public void recordStage(Stage stage, long nanos) {
+        stages[stage.ordinal()].record(nanos);
+    }
+
+    /**
+     * Records the time between a render being queued and the JavaFX thread starting it
+     * @param nanos duration in nanoseconds
+     */
+    public void recordFXLag(long nanos) {
+        fxLag.record(nanos);
+    }
+
+    public void frameRequested() {
+        framesRequested.increment();
+    }
+
+    public void frameDropped() {
+        framesDropped.increment();
+    }
+
+    public void frameRendered() {
+        framesRendered.increment();
+
+        long now = System.nanoTime();
+        if(lastRenderNano != 0) {
+            lastRenderDelta = now - lastRenderNano;
+        }
+        lastRenderNano = now;
+    }
+
+    public LatencyHistogram getHistogram(Stage stage) {
+        return stages[stage.ordinal()];
+    }
+
+    public LatencyHistogram getFXLagHistogram() {
+        return fxLag;
+    }
+
+    @Override
+    public long getFramesRequested() {
+        return framesRequested.sum();
+    }
+
+    @Override
+    public long getFramesRendered() {
+        return framesRendered.sum();
+    }
+
+    @Override
+    public long getFramesDropped() {
+        return framesDropped.sum();
+    }
+
+    @Override
+    public int getProcessQueueDepth() {
+        return JFXProcessManager.getQueueDepth();
+    }
+
+    @Override
+    public int getPendingFXTasks() {
+        return JFXProcessManager.getPendingFXTasks();
+    }
+
+    @Override
+    public float getRendererFps() {
+        long delta = lastRenderDelta;
+        return delta == 0 ? 0 : (float) 1_000_000_000 / delta;
+    }
+
+    @Override
+    public double getClockFixedRate() {
+        return JFXClock.get().getFixedFps();
+    }
+
+    @Override
+    public Map<String, Double> getDataFetchTimings() {
+        return summarize(getHistogram(Stage.DATA_FETCH));
+    }
+
+    @Override
+    public Map<String, Double> getColorizeTimings() {
+        return summarize(getHistogram(Stage.COLORIZE));
+    }
+
+    @Override
+    public Map<String, Double> getUploadTimings() {
+        return summarize(getHistogram(Stage.UPLOAD));
+    }
+
+    @Override
+    public Map<String, Double> getDrawTimings() {
+        return summarize(getHistogram(Stage.DRAW));
+    }
+
+    @Override
+    public Map<String, Double> getFXThreadLag() {
+        return summarize(fxLag);
+    }
+
+    /**
+     * Clears all histograms and counters
+     */
+    @Override
+    public void reset() {
+        for(var histogram : stages) {
+            histogram.reset();
+        }
+        fxLag.reset();
+        framesRequested.reset();
+        framesRendered.reset();
+        framesDropped.reset();
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server. Failures are logged rather than thrown, metrics are
+     * never worth breaking the grid over.
+     * @param gridId unique id of the owning grid
+     */
+    public synchronized void register(int gridId) {
+        if(objectName != null) {
+            return;
+        }
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("JFXGrid:type=GridMetrics,grid=" + gridId);
+            server.registerMBean(this, name);
+            objectName = name;
+        } catch (JMException | SecurityException e) {
+            LOGGER.atWarn().setCause(e).log("Unable to register grid metrics for grid " + gridId);
+        }
+    }
+
+    /**
+     * Removes these metrics from the platform MBean server
+     */
+    public synchronized void unregister() {
+        if(objectName == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException | SecurityException e) {
+            LOGGER.atWarn().setCause(e).log("Unable to unregister " + objectName);
+        }
+        objectName = null;
+    }
+
+    private static Map<String, Double> summarize(LatencyHistogram histogram) {
+        Map<String, Double> summary = new LinkedHashMap<>();
+        summary.put("count", (double) histogram.getCount());
+        summary.put("meanMicros", histogram.getMean() / 1000d);
+        summary.put("p50Micros", histogram.getPercentile(50) / 1000d);
+        summary.put("p90Micros", histogram.getPercentile(90) / 1000d);
+        summary.put("p99Micros", histogram.getPercentile(99) / 1000d);
+        summary.put("maxMicros", histogram.getMax() / 1000d);
+        return summary;
+    }
+}
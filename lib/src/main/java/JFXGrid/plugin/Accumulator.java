@@ -22,18 +22,68 @@
 package JFXGrid.plugin;
 
 import JFXGrid.core.JFXGrid;
+import JFXGrid.data.JFXDataset;
 import JFXGrid.events.JFXClock;
 import JFXGrid.events.TickListener;
+import JFXGrid.util.FrameAccumulator;
 
+import java.util.HashMap;
 import java.util.Map;
 
 /**
  * This accumulator plugin essentially obtains the average over (n) amount of frames,
  * which replaces the regular single frame view. Mostly used when trying to observe large
  * frame caches that are generally sparse in data.
+ * <p>
+ * Each frame the dataset moves onto is added to a {@link FrameAccumulator} on the clock thread, which keeps running
+ * sums (or block-wise maxima/minima for a peak hold) so the cost per frame doesn't depend on the window size. The grid
+ * then renders the accumulated frame in place of the current one, and is marked dirty again once the frame is added.
+ * Steps keep adding to the window while they go the same way, so playback faster than 1x skipping frames still
+ * accumulates. Moving against the direction of playback (e.g. seeking back) starts a new window.
  * @author aram-ap
  */
 public class Accumulator implements Plugin{
+    private final Map<String, String> properties = new HashMap<>();
+    private JFXGrid grid;
+    private volatile boolean enabled = true;
+
+    private FrameAccumulator.Mode mode;
+    private int windowSize;
+    private double alpha = 0.1;
+
+    //Guarded by this, frames are added on the clock thread and read back on the JavaFX thread
+    private FrameAccumulator accumulator;
+    private long version;
+
+    //Last frame added, so each frame is only accumulated once
+    private JFXDataset lastDataset;
+    private int lastFrameNum;
+    //Direction of the last step, 1 forward and -1 back
+    private int lastDirection;
+
+    //Output buffer reused for every result, so nothing is allocated per frame
+    private double[] output;
+    private long outputVersion = -1;
+
+    /**
+     * Averages the last 10 frames
+     */
+    public Accumulator() {
+        this(FrameAccumulator.Mode.MEAN, 10);
+    }
+
+    /**
+     * @param mode how frames are accumulated
+     * @param windowSize number of frames summed, averaged, or held for max/min
+     */
+    public Accumulator(FrameAccumulator.Mode mode, int windowSize) {
+        if(windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be > 0!");
+        }
+
+        this.mode = mode == null ? FrameAccumulator.Mode.MEAN : mode;
+        this.windowSize = windowSize;
+    }
 
     /**
      * This initializes all plugin internals and adds the plugin's grid parent object.
@@ -44,7 +94,11 @@ public class Accumulator implements Plugin{
      */
     @Override
     public void init(JFXGrid grid) {
+        this.grid = grid;
+
         TickListener.init(this);
+        properties.put("plugin", Accumulator.class.getName());
+        updateProperties();
     }
 
     /**
@@ -54,24 +108,166 @@ public class Accumulator implements Plugin{
      */
     @Override
     public Map<String, String> getProperties() {
-        return null;
+        updateProperties();
+        return properties;
     }
 
     /**
      * Updates any property values that need to be updated throughout the application's lifespan.
      */
     @Override
-    public void updateProperties() {
+    public synchronized void updateProperties() {
+        properties.put("mode", mode.name());
+        properties.put("window", String.valueOf(windowSize));
+        properties.put("frames", String.valueOf(accumulator == null ? 0 : accumulator.getCount()));
+    }
 
+    /**
+     * Sets how frames are accumulated and restarts the window
+     */
+    public synchronized void setMode(FrameAccumulator.Mode mode) {
+        if(mode == null) {
+            return;
+        }
+
+        this.mode = mode;
+        accumulator = null;
+        redraw();
+    }
+
+    public FrameAccumulator.Mode getMode() {
+        return mode;
     }
 
     /**
-     * Called at each render cycle.
+     * Sets the number of frames summed, averaged, or held for max/min and restarts the window
+     * @param frames window size, must be > 0
+     */
+    public synchronized void setWindowSize(int frames) {
+        if(frames <= 0) {
+            throw new IllegalArgumentException("Window size must be > 0!");
+        }
+
+        windowSize = frames;
+        accumulator = null;
+        redraw();
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * @param alpha weight of each new frame when using {@link FrameAccumulator.Mode#EMA}, between 0 (exclusive) and 1
+     */
+    public synchronized void setAlpha(double alpha) {
+        if(!(alpha > 0 && alpha <= 1)) {
+            throw new IllegalArgumentException("Alpha must be in (0, 1], got " + alpha);
+        }
+
+        this.alpha = alpha;
+        if(accumulator != null) {
+            accumulator.setAlpha(alpha);
+        }
+    }
+
+    /**
+     * @param enabled false to display the dataset's frames as-is
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        redraw();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Drops every accumulated frame
+     */
+    public synchronized void reset() {
+        if(accumulator != null) {
+            accumulator.reset();
+        }
+        version++;
+        redraw();
+    }
+
+    /**
+     * The displayed frame changed without the dataset moving, so the grid has to be told to draw it
+     */
+    private void redraw() {
+        if(grid != null) {
+            grid.requestRender();
+        }
+    }
+
+    /**
+     * Called at each render cycle. Adds the dataset's frame if it moved onto a new one.
      *
      * @param clock the JFXClock calling the tick
      */
     @Override
     public void update(JFXClock clock) {
+        if(grid == null || !enabled) {
+            return;
+        }
+
+        var dataset = grid.getData();
+        if(dataset == null) {
+            return;
+        }
+
+        var snapshot = dataset.getSnapshot();
+        double[] frame = snapshot.getFrame();
+        int frameNum = snapshot.getFrameNum();
+        if(frame == null || (dataset == lastDataset && frameNum == lastFrameNum)) {
+            return;
+        }
+
+        add(frame, dataset, frameNum);
+    }
+
+    private synchronized void add(double[] frame, JFXDataset dataset, int frameNum) {
+        int direction = Integer.signum(frameNum - lastFrameNum);
+        boolean contiguous = dataset == lastDataset
+                && (Math.abs(frameNum - lastFrameNum) == 1 || direction == lastDirection);
+        if(accumulator == null || accumulator.getFrameSize() != frame.length) {
+            accumulator = new FrameAccumulator(frame.length, windowSize, mode);
+            accumulator.setAlpha(alpha);
+        } else if(!contiguous) {
+            accumulator.reset();
+        }
+
+        accumulator.add(frame);
+        lastDataset = dataset;
+        lastFrameNum = frameNum;
+        lastDirection = direction;
+        version++;
+
+        //The render queued by the frame change may already have run before this frame was added
+        redraw();
+    }
+
+    @Override
+    public boolean processesFrames() {
+        return enabled;
+    }
+
+    /**
+     * Replaces the displayed frame with the accumulated one
+     */
+    @Override
+    public synchronized double[] process(double[] frame) {
+        if(!enabled || accumulator == null || accumulator.getCount() == 0 || accumulator.getFrameSize() != frame.length) {
+            return frame;
+        }
 
+        if(outputVersion != version) {
+            output = accumulator.getResult(output);
+            outputVersion = version;
+        }
+        return output;
     }
 }
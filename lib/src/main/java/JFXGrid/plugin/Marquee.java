@@ -1,16 +1,66 @@
 package JFXGrid.plugin;
 
 import JFXGrid.core.JFXGrid;
+import JFXGrid.data.JFXDataset;
 import JFXGrid.events.JFXClock;
 import JFXGrid.events.TickListener;
+import JFXGrid.util.CellMask;
+import JFXGrid.util.RegionStats;
+import JFXGrid.util.SummedAreaTable;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
 
+import java.util.HashMap;
 import java.util.Map;
 
 /**
- * The marquee tool requires the MouseInput plugin, but allows users to select multiple points at once to focus on or delete.
+ * The marquee tool allows users to select multiple points at once to focus on or delete.
+ * <p>
+ * Dragging with the primary button selects a rectangle of cells, a secondary click clears it. While a region is
+ * selected, the sum, mean, variance, min and max of the displayed frame inside it are published through
+ * {@link #statsProperty()} and kept up to date on every render. Each displayed frame is turned into a
+ * {@link SummedAreaTable} at most once, and only while something is selected, so the statistics of any region
+ * cost O(1) to read back (min/max scan the region's edges).
+ * <p>
+ * The selection can also be deleted (masked), restored, or focused on (everything around it masked). Masks are
+ * {@link CellMask} bitsets on the grid, applied while the image is colorized, so the data itself is never changed.
+ * Everything runs on the JavaFX thread.
  * @author aram-ap
  */
 public class Marquee implements Plugin{
+    private final Map<String, String> properties = new HashMap<>();
+    private JFXGrid grid;
+    //Dataset read while the marquee isn't attached to a grid
+    private JFXDataset detachedData;
+
+    private final Rectangle outline = new Rectangle();
+    private final ReadOnlyObjectWrapper<RegionStats> stats = new ReadOnlyObjectWrapper<>();
+
+    //Selected cells, corners inclusive
+    private boolean hasSelection;
+    private int anchorRow, anchorCol;
+    private int selRow0, selCol0, selRow1, selCol1;
+
+    //Built from the displayed frame the first time it's needed after each render
+    private SummedAreaTable table;
+    private double[] displayedFrame;
+    private boolean tableStale = true;
+
+    public Marquee() {
+    }
+
+    /**
+     * Selects over a dataset without a grid, so the statistics can be followed without a JavaFX scene
+     * @param data dataset the selection is clamped to
+     */
+    Marquee(JFXDataset data) {
+        this.detachedData = data;
+    }
+
     /**
      * This initializes all plugin internals and adds the plugin's grid parent object.
      * The parent object is necessary when attaching a plugin to a JFXGrid, this is automatically called
@@ -20,7 +70,22 @@ public class Marquee implements Plugin{
      */
     @Override
     public void init(JFXGrid grid) {
+        this.grid = grid;
         TickListener.init(this);
+
+        outline.setFill(Color.TRANSPARENT);
+        outline.setStroke(Color.WHITE);
+        outline.getStrokeDashArray().setAll(4d, 4d);
+        outline.setMouseTransparent(true);
+        outline.setVisible(false);
+        grid.addOverlay(outline);
+
+        var canvas = grid.getCanvas();
+        canvas.addEventHandler(MouseEvent.MOUSE_PRESSED, this::onPressed);
+        canvas.addEventHandler(MouseEvent.MOUSE_DRAGGED, this::onDragged);
+
+        properties.put("plugin", Marquee.class.getName());
+        updateProperties();
     }
 
     /**
@@ -30,7 +95,8 @@ public class Marquee implements Plugin{
      */
     @Override
     public Map<String, String> getProperties() {
-        return null;
+        updateProperties();
+        return properties;
     }
 
     /**
@@ -38,7 +104,131 @@ public class Marquee implements Plugin{
      */
     @Override
     public void updateProperties() {
+        properties.put("selection", hasSelection ? selRow0 + "," + selCol0 + ":" + selRow1 + "," + selCol1 : "");
+    }
+
+    /**
+     * Selects a rectangle of cells, corners are inclusive and clamped to the grid
+     */
+    public void setSelection(int row0, int col0, int row1, int col1) {
+        int rows = getRows(), cols = getColumns();
+        if(rows <= 0 || cols <= 0) {
+            return;
+        }
+
+        selRow0 = clamp(Math.min(row0, row1), rows);
+        selRow1 = clamp(Math.max(row0, row1), rows);
+        selCol0 = clamp(Math.min(col0, col1), cols);
+        selCol1 = clamp(Math.max(col0, col1), cols);
+        boolean wasSelected = hasSelection;
+        hasSelection = true;
+        refresh();
+        //Sparse frames are only expanded and passed through process while something is selected, so the displayed
+        //frame is fetched again for the new selection
+        if(!wasSelected && grid != null) {
+            grid.requestRender();
+        }
+    }
+
+    /**
+     * Removes the selection
+     */
+    public void clearSelection() {
+        hasSelection = false;
+        stats.set(null);
+        outline.setVisible(false);
+    }
+
+    /**
+     * Masks the selected cells, on top of anything already masked
+     */
+    public void deleteSelection() {
+        CellMask selection = selectionMask();
+        if(selection == null) {
+            return;
+        }
+
+        CellMask mask = gridMask();
+        mask.or(selection);
+        grid.setMask(mask);
+    }
+
+    /**
+     * Unmasks the selected cells
+     */
+    public void restoreSelection() {
+        CellMask selection = selectionMask();
+        if(selection == null) {
+            return;
+        }
+
+        CellMask mask = gridMask();
+        mask.andNot(selection);
+        grid.setMask(mask);
+    }
+
+    /**
+     * Masks every cell outside the selection, leaving masked cells inside it masked
+     */
+    public void focusSelection() {
+        CellMask outside = selectionMask();
+        if(outside == null) {
+            return;
+        }
+
+        outside.invert();
+        CellMask mask = gridMask();
+        mask.or(outside);
+        grid.setMask(mask);
+    }
+
+    /**
+     * Unmasks every cell
+     */
+    public void clearMask() {
+        if(grid != null) {
+            grid.setMask(null);
+        }
+    }
+
+    /**
+     * @return the selected cells as a mask, null while nothing is selected
+     */
+    private CellMask selectionMask() {
+        int rows = getRows(), cols = getColumns();
+        if(!hasSelection || rows <= 0 || cols <= 0 || selRow1 >= rows || selCol1 >= cols) {
+            return null;
+        }
+
+        CellMask selection = new CellMask(rows, cols);
+        selection.setRegion(selRow0, selCol0, selRow1, selCol1, true);
+        return selection;
+    }
+
+    /**
+     * @return the grid's mask, replaced with an empty one if there's none or it no longer fits the data
+     */
+    private CellMask gridMask() {
+        CellMask mask = grid.getMask();
+        if(mask == null || mask.getRows() != getRows() || mask.getColumns() != getColumns()) {
+            mask = new CellMask(getRows(), getColumns());
+        }
+        return mask;
+    }
+
+    public boolean hasSelection() {
+        return hasSelection;
+    }
+
+    /**
+     * @return the statistics of the selected region in the displayed frame, null while nothing is selected
+     */
+    public ReadOnlyObjectProperty<RegionStats> statsProperty() {
+        return stats.getReadOnlyProperty();
+    }
 
+    public RegionStats getStats() {
+        return stats.get();
     }
 
     /**
@@ -50,4 +240,110 @@ public class Marquee implements Plugin{
     public void update(JFXClock clock) {
 
     }
+
+    /**
+     * Frames are only needed for the selection's statistics
+     */
+    @Override
+    public boolean processesFrames() {
+        return hasSelection;
+    }
+
+    /**
+     * Keeps the selection's statistics in step with the displayed frame, the frame itself is left as-is
+     */
+    @Override
+    public double[] process(double[] frame) {
+        displayedFrame = frame;
+        tableStale = true;
+        if(hasSelection) {
+            refresh();
+        }
+        return frame;
+    }
+
+    private void onPressed(MouseEvent event) {
+        if(event.getButton() == MouseButton.SECONDARY) {
+            clearSelection();
+            return;
+        }
+        if(event.getButton() != MouseButton.PRIMARY) {
+            return;
+        }
+
+        anchorRow = toRow(event.getY());
+        anchorCol = toColumn(event.getX());
+        setSelection(anchorRow, anchorCol, anchorRow, anchorCol);
+    }
+
+    private void onDragged(MouseEvent event) {
+        if(!event.isPrimaryButtonDown()) {
+            return;
+        }
+
+        setSelection(anchorRow, anchorCol, toRow(event.getY()), toColumn(event.getX()));
+    }
+
+    /**
+     * Re-reads the statistics of the selection and moves the outline over it
+     */
+    private void refresh() {
+        int rows = getRows(), cols = getColumns();
+        if(!hasSelection || rows <= 0 || cols <= 0) {
+            return;
+        }
+
+        if(grid != null) {
+            double cellWidth = grid.getCanvas().getWidth() / cols;
+            double cellHeight = grid.getCanvas().getHeight() / rows;
+            outline.setX(selCol0 * cellWidth);
+            outline.setY(selRow0 * cellHeight);
+            outline.setWidth((selCol1 - selCol0 + 1) * cellWidth);
+            outline.setHeight((selRow1 - selRow0 + 1) * cellHeight);
+            outline.setVisible(true);
+        }
+
+        if(displayedFrame == null || displayedFrame.length != rows * cols || selRow1 >= rows || selCol1 >= cols) {
+            stats.set(null);
+            return;
+        }
+
+        if(table == null || table.getRows() != rows || table.getColumns() != cols) {
+            table = new SummedAreaTable(rows, cols);
+            tableStale = true;
+        }
+        if(tableStale) {
+            table.build(displayedFrame);
+            tableStale = false;
+        }
+        stats.set(table.query(selRow0, selCol0, selRow1, selCol1));
+    }
+
+    private int toRow(double y) {
+        int rows = getRows();
+        return clamp((int) Math.floor(y / grid.getCanvas().getHeight() * rows), rows);
+    }
+
+    private int toColumn(double x) {
+        int cols = getColumns();
+        return clamp((int) Math.floor(x / grid.getCanvas().getWidth() * cols), cols);
+    }
+
+    private static int clamp(int val, int size) {
+        return Math.max(0, Math.min(val, size - 1));
+    }
+
+    private JFXDataset getData() {
+        return grid == null ? detachedData : grid.getData();
+    }
+
+    private int getRows() {
+        var data = getData();
+        return data == null ? 0 : data.getNumRows();
+    }
+
+    private int getColumns() {
+        var data = getData();
+        return data == null ? 0 : data.getNumColumns();
+    }
 }
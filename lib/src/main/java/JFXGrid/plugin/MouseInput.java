@@ -3,10 +3,50 @@ package JFXGrid.plugin;
 import JFXGrid.core.JFXGrid;
 import JFXGrid.events.JFXClock;
 import JFXGrid.events.TickListener;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Text;
 
+import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Shows the row, column and value of the cell under the mouse in a small readout next to the cursor.
+ * <p>
+ * Mouse events only store the cursor position, the cell is looked up once per JavaFX pulse from a pre-layout pulse
+ * listener, reading the value straight from the dataset's published current frame. The readout is a text node laid
+ * over the canvas, so hovering never marks the grid dirty or re-renders the heatmap, and the text is only rebuilt when
+ * the cell or its value actually changes. While the mouse stays put during playback, the value follows the frames on screen.
+ * Everything runs on the JavaFX thread.
+ * @author aram-ap
+ */
 public class MouseInput implements Plugin {
+    //Significant digits of the value shown in the readout
+    private static final int SIGNIFICANT_DIGITS = 5;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000,
+            100_000_000, 1_000_000_000};
+
+    private final Map<String, String> properties = new HashMap<>();
+    private JFXGrid grid;
+
+    private final Text readout = new Text();
+    private final Runnable pulseListener = this::onPulse;
+    private Scene scene;
+    private boolean readoutEnabled = true;
+
+    //Latest cursor position in canvas coordinates, written by mouse events and read once per pulse
+    private boolean hovering;
+    private boolean moved;
+    private double mouseX, mouseY;
+
+    //What the readout currently shows, -1 while not over a cell
+    private int hoverRow = -1, hoverCol = -1;
+    private double hoverValue = Double.NaN;
+    //Reused to build the readout's text, so each change only allocates the String handed to the text node
+    private final StringBuilder text = new StringBuilder();
+
     /**
      * This initializes all plugin internals and adds the plugin's grid parent object.
      * The parent object is necessary when attaching a plugin to a JFXGrid, this is automatically called
@@ -16,7 +56,30 @@ public class MouseInput implements Plugin {
      */
     @Override
     public void init(JFXGrid grid) {
+        this.grid = grid;
         TickListener.init(this);
+
+        readout.setFill(Color.WHITE);
+        readout.setStroke(Color.BLACK);
+        readout.setStrokeWidth(0.3);
+        readout.setMouseTransparent(true);
+        readout.setVisible(false);
+        grid.addOverlay(readout);
+
+        var canvas = grid.getCanvas();
+        canvas.addEventHandler(MouseEvent.MOUSE_MOVED, this::onMoved);
+        canvas.addEventHandler(MouseEvent.MOUSE_DRAGGED, this::onMoved);
+        canvas.addEventHandler(MouseEvent.MOUSE_EXITED, event -> {
+            hovering = false;
+            moved = true;
+            Platform.requestNextPulse();
+        });
+
+        grid.sceneProperty().addListener((obs, oldScene, newScene) -> attach(newScene));
+        attach(grid.getScene());
+
+        properties.put("plugin", MouseInput.class.getName());
+        updateProperties();
     }
 
     /**
@@ -26,7 +89,8 @@ public class MouseInput implements Plugin {
      */
     @Override
     public Map<String, String> getProperties() {
-        return null;
+        updateProperties();
+        return properties;
     }
 
     /**
@@ -34,7 +98,42 @@ public class MouseInput implements Plugin {
      */
     @Override
     public void updateProperties() {
+        properties.put("row", String.valueOf(hoverRow));
+        properties.put("column", String.valueOf(hoverCol));
+        properties.put("value", String.valueOf(hoverValue));
+    }
+
+    /**
+     * @param enabled false to hide the readout, the hovered cell is still tracked
+     */
+    public void setReadoutEnabled(boolean enabled) {
+        readoutEnabled = enabled;
+        readout.setVisible(enabled && hoverRow >= 0);
+    }
+
+    public boolean isReadoutEnabled() {
+        return readoutEnabled;
+    }
+
+    /**
+     * @return row of the cell under the mouse, -1 if the mouse isn't over the grid
+     */
+    public int getHoverRow() {
+        return hoverRow;
+    }
+
+    /**
+     * @return column of the cell under the mouse, -1 if the mouse isn't over the grid
+     */
+    public int getHoverColumn() {
+        return hoverCol;
+    }
 
+    /**
+     * @return value of the cell under the mouse in the current frame, NaN if there's none
+     */
+    public double getHoverValue() {
+        return hoverValue;
     }
 
     /**
@@ -46,4 +145,137 @@ public class MouseInput implements Plugin {
     public void update(JFXClock clock) {
 
     }
+
+    private void onMoved(MouseEvent event) {
+        mouseX = event.getX();
+        mouseY = event.getY();
+        hovering = true;
+        if(!moved) {
+            moved = true;
+            Platform.requestNextPulse();
+        }
+    }
+
+    private void attach(Scene newScene) {
+        if(scene == newScene) {
+            return;
+        }
+        if(scene != null) {
+            scene.removePreLayoutPulseListener(pulseListener);
+        }
+
+        scene = newScene;
+        if(scene != null) {
+            scene.addPreLayoutPulseListener(pulseListener);
+        }
+    }
+
+    /**
+     * Resolves the hovered cell once per pulse. Pulses without mouse movement only re-read the value, so the readout
+     * keeps up with playback.
+     */
+    private void onPulse() {
+        if(!moved && hoverRow < 0) {
+            return;
+        }
+        moved = false;
+
+        var dataset = grid.getData();
+        var canvas = grid.getCanvas();
+        double width = canvas.getWidth(), height = canvas.getHeight();
+        if(!hovering || dataset == null || width <= 0 || height <= 0
+                || mouseX < 0 || mouseY < 0 || mouseX >= width || mouseY >= height) {
+            show(-1, -1, Double.NaN);
+            return;
+        }
+
+        int rows = dataset.getNumRows(), cols = dataset.getNumColumns();
+        int row = Math.min(rows - 1, (int) (mouseY / height * rows));
+        int col = Math.min(cols - 1, (int) (mouseX / width * cols));
+        //Frames held sparse are looked up as they are rather than expanded
+        var snapshot = dataset.getSnapshot();
+        var sparse = snapshot.getSparse();
+        double[] frame = sparse == null ? snapshot.getFrame() : null;
+        double value;
+        if(sparse != null) {
+            value = sparse.getRows() == rows && sparse.getColumns() == cols ? sparse.get(row, col) : Double.NaN;
+        } else {
+            value = frame == null || frame.length != rows * cols ? Double.NaN : frame[col * rows + row];
+        }
+
+        show(row, col, value);
+        readout.setX(mouseX + 12);
+        readout.setY(mouseY - 6);
+    }
+
+    private void show(int row, int col, double value) {
+        if(row == hoverRow && col == hoverCol && Double.compare(value, hoverValue) == 0) {
+            return;
+        }
+
+        hoverRow = row;
+        hoverCol = col;
+        hoverValue = value;
+        if(row < 0) {
+            readout.setVisible(false);
+            return;
+        }
+
+        text.setLength(0);
+        text.append('(').append(row).append(", ").append(col).append(") ");
+        appendValue(text, value);
+        readout.setText(text.toString());
+        readout.setVisible(readoutEnabled);
+    }
+
+    /**
+     * Appends the value with SIGNIFICANT_DIGITS significant digits, like {@code %.5g} but without a Formatter.
+     * Values from 1e-4 up to 1e5 are written in plain notation, the rest in scientific notation.
+     */
+    private static void appendValue(StringBuilder text, double value) {
+        if(!Double.isFinite(value)) {
+            text.append(value);
+            return;
+        }
+        if(value == 0) {
+            text.append("0.");
+            for(int i = 1; i < SIGNIFICANT_DIGITS; i++) {
+                text.append('0');
+            }
+            return;
+        }
+
+        int exponent = (int) Math.floor(Math.log10(Math.abs(value)));
+        boolean scientific = exponent < -4 || exponent >= SIGNIFICANT_DIGITS;
+        int decimals = scientific ? SIGNIFICANT_DIGITS - 1 : SIGNIFICANT_DIGITS - 1 - exponent;
+        long scaled = Math.round((scientific ? value / Math.pow(10, exponent) : value) * Math.pow(10, decimals));
+        //Rounding can carry into an extra digit, e.g. 9.99999 to 10.000, or 99999.7 to 1.0000e5
+        if(Math.abs(scaled) >= POWERS_OF_TEN[SIGNIFICANT_DIGITS]) {
+            scaled = Math.round(scaled / 10d);
+            if(scientific || decimals == 0) {
+                scientific = true;
+                decimals = SIGNIFICANT_DIGITS - 1;
+                exponent++;
+            } else {
+                decimals--;
+            }
+        }
+
+        if(scaled < 0) {
+            text.append('-');
+            scaled = -scaled;
+        }
+        long unit = POWERS_OF_TEN[decimals];
+        text.append(scaled / unit);
+        if(decimals > 0) {
+            text.append('.');
+            long fraction = scaled % unit;
+            for(long digit = unit / 10; digit > 0; digit /= 10) {
+                text.append((char) ('0' + fraction / digit % 10));
+            }
+        }
+        if(scientific) {
+            text.append('e').append(exponent);
+        }
+    }
 }
@@ -0,0 +1,215 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.plugin;
+
+import JFXGrid.core.JFXGrid;
+import JFXGrid.data.TemporalPyramid;
+import JFXGrid.events.JFXClock;
+import JFXGrid.events.TickListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Draws from a {@link TemporalPyramid} while frames are being skipped, so fast playback and scrubbing show the max
+ * (or min, or mean) of every frame passed over instead of single sampled frames that hide short events.
+ * <p>
+ * The number of frames advanced between renders picks the level, the lowest one whose blocks are at least as long as
+ * that step. Every block of that level overlapping the frames since the last render (at most two) is combined and drawn,
+ * so no frame passed over is left out. Blocks are only drawn while the last two renders both skipped frames, so a single
+ * jump (e.g. a seek) still shows the frame itself. Without a pyramid, frames are drawn as they are.
+ * Runs on the JavaFX thread.
+ * @author aram-ap
+ */
+public class Overview implements Plugin {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Overview.class);
+
+    private final Map<String, String> properties = new HashMap<>();
+    private JFXGrid grid;
+    private volatile TemporalPyramid pyramid;
+    private volatile TemporalPyramid.Mode mode = TemporalPyramid.Mode.MAX;
+
+    //Frame of the last render and the step taken to reach it
+    private int lastFrameNum;
+    private long lastStep;
+
+    //The last blocks read, reused while the renders stay within them
+    private TemporalPyramid blockPyramid;
+    private int blockLevel;
+    private int firstBlock = -1;
+    private int lastBlock = -1;
+    private TemporalPyramid.Mode blockMode;
+    private double[] block;
+    private int level;
+
+    public Overview() {
+    }
+
+    /**
+     * @param pyramid pyramid of the grid's dataset
+     */
+    public Overview(TemporalPyramid pyramid) {
+        this.pyramid = pyramid;
+    }
+
+    /**
+     * This initializes all plugin internals and adds the plugin's grid parent object.
+     * The parent object is necessary when attaching a plugin to a JFXGrid, this is automatically called
+     * when adding a plugin into a JFXGrid object
+     *
+     * @param grid Grid to attach plugin into
+     */
+    @Override
+    public void init(JFXGrid grid) {
+        this.grid = grid;
+
+        TickListener.init(this);
+        properties.put("plugin", Overview.class.getName());
+        updateProperties();
+    }
+
+    /**
+     * Properties will be unique to each plugin, its up to each plugin to add its own specific properties.
+     *
+     * @return Returns null if there is no properties map associated.
+     */
+    @Override
+    public Map<String, String> getProperties() {
+        updateProperties();
+        return properties;
+    }
+
+    /**
+     * Updates any property values that need to be updated throughout the application's lifespan.
+     */
+    @Override
+    public void updateProperties() {
+        properties.put("mode", mode.name());
+        properties.put("level", String.valueOf(level));
+    }
+
+    /**
+     * @param pyramid pyramid of the grid's dataset, e.g. once {@link TemporalPyramid#build} completes. Null to always
+     *                draw frames as they are
+     */
+    public void setPyramid(TemporalPyramid pyramid) {
+        this.pyramid = pyramid;
+        if(grid != null) {
+            grid.requestRender();
+        }
+    }
+
+    public TemporalPyramid getPyramid() {
+        return pyramid;
+    }
+
+    /**
+     * @param mode which summary of the skipped frames is drawn, defaults to MAX
+     */
+    public void setMode(TemporalPyramid.Mode mode) {
+        if(mode == null) {
+            return;
+        }
+
+        this.mode = mode;
+        if(grid != null) {
+            grid.requestRender();
+        }
+    }
+
+    public TemporalPyramid.Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return the pyramid level of the last render, 0 if the frame was drawn as it is
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Called at each render cycle.
+     *
+     * @param clock the JFXClock calling the tick
+     */
+    @Override
+    public void update(JFXClock clock) {
+
+    }
+
+    @Override
+    public boolean processesFrames() {
+        return pyramid != null;
+    }
+
+    /**
+     * Replaces the frame with the pyramid blocks covering the frames passed over since the last render
+     */
+    @Override
+    public double[] process(double[] frame) {
+        var dataset = grid == null ? null : grid.getData();
+        if(dataset == null) {
+            return frame;
+        }
+
+        int frameNum = dataset.getSnapshot().getFrameNum();
+        int previous = lastFrameNum;
+        long step = Math.abs((long) frameNum - previous);
+        boolean skipping = Math.min(step, lastStep) > 1;
+        lastFrameNum = frameNum;
+        lastStep = step;
+
+        final TemporalPyramid source = pyramid;
+        final TemporalPyramid.Mode drawMode = mode;
+        level = !skipping || source == null || frameNum < 1 || frameNum > source.getNumFrames()
+                || source.getNumRows() != dataset.getNumRows() || source.getNumColumns() != dataset.getNumColumns()
+                ? 0 : source.levelFor(step);
+        if(level == 0) {
+            return frame;
+        }
+
+        //Frames passed over, including the current one: (previous, frameNum] forward, [frameNum, previous) backward
+        int from = frameNum > previous ? previous + 1 : frameNum;
+        int to = frameNum > previous ? frameNum : Math.min(previous - 1, source.getNumFrames());
+        int first = (from - 1) >> level, last = (to - 1) >> level;
+        if(source != blockPyramid || level != blockLevel || first != firstBlock || last != lastBlock
+                || drawMode != blockMode) {
+            try {
+                block = source.range(level, from, to, drawMode);
+            } catch (IOException e) {
+                LOGGER.atError().setCause(e).log("Unable to read pyramid level " + level);
+                level = 0;
+                return frame;
+            }
+            blockPyramid = source;
+            blockLevel = level;
+            firstBlock = first;
+            lastBlock = last;
+            blockMode = drawMode;
+        }
+        return block;
+    }
+}
@@ -50,4 +50,23 @@ public interface Plugin extends TickListener {
      * Updates any property values that need to be updated throughout the application's lifespan.
      */
     public void updateProperties();
+
+    /**
+     * Lets a plugin replace the frame displayed by the grid, e.g. with an average of several frames. Called on the
+     * JavaFX thread for each render, with the output of the previous plugin. Return the given frame to leave it as-is.
+     * @param frame the frame about to be displayed, column-major like the dataset's frames
+     * @return the frame to display instead
+     */
+    default double[] process(double[] frame) {
+        return frame;
+    }
+
+    /**
+     * Tells the grid whether {@link #process} may currently replace frames. Frames held sparse are only expanded into
+     * dense frames for the plugins while one of them returns true, so plugins overriding process must override this.
+     * @return true if process should be called for each render
+     */
+    default boolean processesFrames() {
+        return false;
+    }
 }
@@ -23,10 +23,12 @@ package JFXGrid.plugin;
 
 import JFXGrid.events.JFXClock;
 import JFXGrid.core.JFXGrid;
+import JFXGrid.data.FrameQuery;
 import JFXGrid.events.TickListener;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * VideoPlayer is an essential tool that provides video playback capabilities.
@@ -34,14 +36,33 @@ import java.util.Map;
  * @author aram-ap
  */
 public class VideoPlayer implements Plugin{
+    public enum PlaybackMode {
+        //Plays towards the last frame and stops there
+        FORWARD,
+        //Plays towards the first frame and stops there
+        REVERSE,
+        //Bounces between the first and last frame until paused
+        PING_PONG
+    }
+
     private final Map<String, String> properties = new HashMap<>();
     private JFXGrid grid;
     private final JFXClock clock = new JFXClock();
-    private boolean isPlaying = false;
+    private volatile boolean isPlaying = false;
     private long framenum;
     private long maxFrameNum;
     private double frameRateHZ;
     private double playbackSpeed = 1;
+    private PlaybackMode playbackMode = PlaybackMode.FORWARD;
+    //1 while travelling towards the last frame, -1 towards the first. Flipped at each end while ping-ponging
+    private int direction = 1;
+
+    //Playback follows a wall-clock timeline anchored at the frame shown when it last (re)started, so the due frame is
+    //anchorFrame + elapsed * anchorRate * playbackSpeed * direction no matter how often the clock ticks
+    private long anchorNano;
+    private long anchorFrame;
+    //Base frame rate of the timeline, frameRateHZ or the clock's fps cap if no rate is set
+    private double anchorRate;
     private String units = "";
 
     public void GridPlayer() { }
@@ -83,31 +104,84 @@ public class VideoPlayer implements Plugin{
 
     /**
      * Sets the current frame number
-     * @param num the frame number to go to
+     * @param num the frame number to go to, clamped to the last frame
      * @throws IllegalArgumentException if given an input < 0
      */
-    public void setFrameNum(long num) {
+    public synchronized void setFrameNum(long num) {
         if(num < 0) {
             throw new IllegalArgumentException("Cannot set frame numbers less than 0!");
-        } else if (num > maxFrameNum) {
-            framenum = maxFrameNum;
         }
 
+        if(grid == null || grid.getData() == null) {
+            return;
+        }
+
+        var dataset = grid.getData();
+        maxFrameNum = dataset.size();
+        dataset.moveToFrame((int) Math.max(1, Math.min(num, maxFrameNum)));
+        framenum = dataset.getFrameNum();
+        anchor();
+    }
+
+    /**
+     * Jumps to the next frame matching the query, e.g. the next frame with a cell above a threshold. The search runs
+     * in the background, since it may read chunks from disk, and the frame moves once it's found.
+     * @param query query over the grid's dataset
+     * @return completes with true once the player has moved to a matching frame, false if none was found
+     */
+    public CompletableFuture<Boolean> jumpToNext(FrameQuery query) {
+        return jump(query, true);
+    }
+
+    /**
+     * Jumps to the previous frame matching the query, searching in the background like {@link #jumpToNext}
+     * @param query query over the grid's dataset
+     * @return completes with true once the player has moved to a matching frame, false if none was found
+     */
+    public CompletableFuture<Boolean> jumpToPrevious(FrameQuery query) {
+        return jump(query, false);
+    }
+
+    private CompletableFuture<Boolean> jump(FrameQuery query, boolean forward) {
+        if(query == null || grid == null || grid.getData() == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        final int from = grid.getData().getFrameNum();
+        return CompletableFuture.supplyAsync(() -> {
+            int found = forward ? query.findNext(from) : query.findPrevious(from);
+            if(found < 0) {
+                return false;
+            }
+            setFrameNum(found);
+            return true;
+        });
     }
 
     /**
      * Iterates through frames according to playback speed.
      */
-    public void play() {
+    public synchronized void play() {
         JFXClock.get(); //We use this to ensure that the clock is ticking while we play frames.
-        isPlaying = true;
+        if(!isPlaying) {
+            isPlaying = true;
+            anchor();
+        }
     }
 
     /**
-     * Sets playback speed to 0
+     * Stops playback on the current frame
      */
-    public void pause() {
+    public synchronized void pause() {
+        isPlaying = false;
+        sendPlaybackHint();
+    }
 
+    /**
+     * @return true while frames are being played
+     */
+    public boolean isPlaying() {
+        return isPlaying;
     }
 
     /**
@@ -118,7 +192,7 @@ public class VideoPlayer implements Plugin{
             return;
         }
 
-        grid.getData().stepForward();
+        grid.getData().moveForward();
         framenum = grid.getData().getFrameNum();
     }
 
@@ -130,7 +204,7 @@ public class VideoPlayer implements Plugin{
             return;
         }
 
-        grid.getData().stepBack();
+        grid.getData().moveBack();
         framenum = grid.getData().getFrameNum();
     }
 
@@ -138,19 +212,41 @@ public class VideoPlayer implements Plugin{
      * Sets the playback speed in relation to the given frame rate (e.g. 1.5 -> 150% the speed, 0.5 -> 50% speed, -1 -> backwards)
      * @param speed framerate multiplier
      */
-    public void setPlaybackSpeed(double speed) {
+    public synchronized void setPlaybackSpeed(double speed) {
         this.playbackSpeed = speed;
+        anchor();
+    }
+
+    /**
+     * Sets whether frames are played forwards, backwards, or back and forth between the first and last frame.
+     * A negative playback speed plays in the opposite direction of the mode.
+     * @param mode the playback mode
+     */
+    public synchronized void setPlaybackMode(PlaybackMode mode) {
+        if(mode == null) {
+            return;
+        }
+
+        playbackMode = mode;
+        direction = mode == PlaybackMode.REVERSE ? -1 : 1;
+        anchor();
+    }
+
+    public PlaybackMode getPlaybackMode() {
+        return playbackMode;
     }
 
     /**
      * Used when dealing with framerates with data that was shot with a specific/unconventional framerate that you want to be played back with
      * its original speed (e.g. 250MHz, 1Hz, 0.05Hz, ...)
      *
-     * NOTE: For speeds above a computer display's rated framerate (usually around 60 Hz), frames WILL be skipped.
-     * @param hz how many frames played each second. Set to a value <= 0 for playback proportional to computer processing time.
+     * NOTE: For speeds above the clock's fps cap, frames WILL be skipped. Playback jumps straight to the frame that is due
+     * rather than stepping through every frame in between.
+     * @param hz how many frames played each second. Set to a value <= 0 to play at the clock's fps cap.
      */
-    public void setFrameRateHz(double hz) {
+    public synchronized void setFrameRateHz(double hz) {
         this.frameRateHZ = hz;
+        anchor();
     }
 
     /**
@@ -184,7 +280,94 @@ public class VideoPlayer implements Plugin{
     @Override
     public void updateFixed(JFXClock clock) {
         if(isPlaying) {
-            increment();
+            advance();
+        }
+    }
+
+    /**
+     * Restarts the playback timeline from the current frame. Called whenever the frame, rate, speed or direction changes.
+     */
+    private void anchor() {
+        anchorNano = System.nanoTime();
+        anchorRate = baseRate();
+        anchorFrame = framenum;
+        if(grid != null && grid.getData() != null) {
+            anchorFrame = Math.max(1, grid.getData().getFrameNum());
+        }
+        sendPlaybackHint();
+    }
+
+    /**
+     * Lets the dataset know which way and how fast playback is going, so paged datasets can load ahead of it
+     */
+    private void sendPlaybackHint() {
+        if(grid == null || grid.getData() == null) {
+            return;
+        }
+
+        int heading = (int) Math.signum(playbackSpeed) * direction;
+        double rate = baseRate() * Math.abs(playbackSpeed);
+        grid.getData().setPlaybackHint(isPlaying ? heading : 0, isPlaying ? rate : 0);
+    }
+
+    /**
+     * @return frames played each second at 1x speed, the clock's fps cap if no frame rate was set
+     */
+    private double baseRate() {
+        return frameRateHZ > 0 ? frameRateHZ : JFXClock.get().getFpsCap();
+    }
+
+    /**
+     * Playback ran into the first or last frame. Ping-pong playback turns around, everything else stops.
+     */
+    private void reachedEnd() {
+        if(playbackMode == PlaybackMode.PING_PONG) {
+            direction = -direction;
+            anchor();
+        } else {
+            isPlaying = false;
+            sendPlaybackHint();
+        }
+    }
+
+    /**
+     * Moves to the frame that is due on the playback timeline. Single frame steps go through stepForward/stepBack so
+     * chunked datasets can move to the neighbouring chunk, anything larger jumps straight to the frame.
+     */
+    private synchronized void advance() {
+        if(grid == null || grid.getData() == null || playbackSpeed == 0) {
+            return;
+        }
+
+        var dataset = grid.getData();
+        maxFrameNum = dataset.size();
+        if(maxFrameNum <= 0) {
+            return;
+        }
+
+        //Without a frame rate the timeline runs at the fps cap, restarted from the current frame if the cap changes
+        if(baseRate() != anchorRate) {
+            anchor();
+        }
+
+        int heading = (int) Math.signum(playbackSpeed) * direction;
+        double elapsedSeconds = (System.nanoTime() - anchorNano) / 1_000_000_000d;
+        long due = anchorFrame + (long) Math.floor(elapsedSeconds * anchorRate * Math.abs(playbackSpeed)) * heading;
+        boolean atEnd = heading > 0 ? due >= maxFrameNum : due <= 1;
+        due = Math.max(1, Math.min(due, maxFrameNum));
+
+        long current = dataset.getFrameNum();
+        if(due == current + 1) {
+            dataset.moveForward();
+        } else if(due == current - 1) {
+            dataset.moveBack();
+        } else if(due != current) {
+            dataset.moveToFrame((int) due);
+        }
+
+        framenum = dataset.getFrameNum();
+        if(atEnd) {
+            reachedEnd();
         }
     }
 }
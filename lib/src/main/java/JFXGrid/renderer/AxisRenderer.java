@@ -33,18 +33,64 @@ public class AxisRenderer implements Renderer{
     private static Colorizer colorTheme;
     private boolean isDirty = true;
 
+    //The tick labels are formatted once per range change rather than on every redraw
+    private String[] tickLabels = new String[0];
+    private double labelMin = Double.NaN;
+    private double labelMax = Double.NaN;
+    private boolean labelSwitched;
+
+    //The axis state that is currently drawn on the canvas, used to skip redraws when nothing visible has changed
+    private LayerState drawnState;
+
+    private record LayerState(double width, double height, double min, double max, double numTicks, boolean switched,
+                              Axis.Align alignment, double tickLength, double axisSize, double labelDistance) { }
+
     public AxisRenderer(Axis axis) {
         this.axis = axis;
         if(colorTheme == null) colorTheme = new Colorizer();
     }
 
+    /**
+     * Re-formats the cached tick labels if the range or number of ticks changed since the last call
+     */
+    protected void updateLabels() {
+        double min = axis.getMinVal();
+        double max = axis.getMaxVal();
+        int numTicks = (int) axis.getNumTicks();
+
+        if(tickLabels.length == numTicks && labelMin == min && labelMax == max && labelSwitched == axis.isSwitched()) {
+            return;
+        }
+
+        tickLabels = new String[Math.max(numTicks, 0)];
+        for(int i = 0; i < tickLabels.length; i++) {
+            tickLabels[i] = formatTick(getTickValue(max, min, numTicks, i, axis.isSwitched()));
+        }
+
+        labelMin = min;
+        labelMax = max;
+        labelSwitched = axis.isSwitched();
+    }
+
+    /**
+     * Formats a tick value to the nearest whole number, avoiding the overhead of String.format
+     * @param value tick value
+     * @return the label text
+     */
+    protected static String formatTick(double value) {
+        if(!Double.isFinite(value)) {
+            return Double.toString(value);
+        }
+
+        return Long.toString(Math.round(value));
+    }
+
     protected void drawTickMarks() {
         var canvas = axis.getCanvas();
         var gc = axis.getCanvas().getGraphicsContext2D();
-        double min, max;
-        max = axis.getMaxVal();
-        min = axis.getMinVal();
-        final String format = "%.0f";
+        updateLabels();
+        final String[] labels = tickLabels;
+        final double fontSize = gc.getFont().getSize();
 
 //        gc.setLineWidth();
 //        gc.setFontSmoothingType(FontSmoothingType.GRAY);
@@ -58,9 +104,7 @@ public class AxisRenderer implements Renderer{
 
                 for(int i = 0; i < axis.getNumTicks(); i++) {
                     double xVal = (canvas.getWidth()/(axis.getNumTicks() -1)) * i;
-                    double tickVal = getTickValue(max, min, (int) axis.getNumTicks(), i, axis.isSwitched());
-
-                    String labelVal = String.format(format,tickVal);
+                    String labelVal = labels[i];
 
                     gc.strokeLine(xVal, y1, xVal, y2);
                     gc.setTextBaseline(VPos.TOP);
@@ -83,8 +127,7 @@ public class AxisRenderer implements Renderer{
 
                 for(int i = 0; i < axis.getNumTicks(); i++) {
                     double xVal = (canvas.getWidth()/(axis.getNumTicks() -1)) * i;
-                    double tickVal = getTickValue(max, min, (int) axis.getNumTicks(), i, axis.isSwitched());
-                    String labelVal = String.format(format,tickVal);
+                    String labelVal = labels[i];
 
                     gc.setTextBaseline(VPos.BOTTOM);
 
@@ -108,14 +151,12 @@ public class AxisRenderer implements Renderer{
 
                 for(int i = 0; i < axis.getNumTicks(); i++) {
                     double yVal = (canvas.getHeight()/(axis.getNumTicks() -1)) * i;
-                    double tickVal = getTickValue(max, min, (int) axis.getNumTicks(), i, axis.isSwitched());
-
-                    String labelVal = String.format(format,tickVal);
+                    String labelVal = labels[i];
                     gc.strokeLine(x1, yVal, x2, yVal);
                     gc.setTextAlign(TextAlignment.RIGHT);
                     //Change alignment at edges to make sure text doesn't get clipped out
                     if(i == 0) {
-                        yVal += gc.getFont().getSize()/2;
+                        yVal += fontSize/2;
                         gc.setTextBaseline(VPos.CENTER);
                     } else {
                         gc.setTextBaseline(VPos.BOTTOM);
@@ -131,15 +172,14 @@ public class AxisRenderer implements Renderer{
 
                 for(int i = 0; i < axis.getNumTicks(); i++) {
                     double yVal = (canvas.getHeight()/(axis.getNumTicks() -1)) * i;
-                    double tickVal = getTickValue(max, min, (int) axis.getNumTicks(), i, axis.isSwitched());
-                    String labelVal = String.format(format,tickVal);
+                    String labelVal = labels[i];
 
                     gc.strokeLine(x1, yVal, x2, yVal);
                     gc.setTextAlign(TextAlignment.LEFT);
 
                     //Change alignment at edges to make sure text doesn't get clipped out
                     if(i == 0) {
-                        yVal += gc.getFont().getSize()/2;
+                        yVal += fontSize/2;
                     }
 
                     if (i == axis.getNumTicks() - 1) {
@@ -161,9 +201,9 @@ public class AxisRenderer implements Renderer{
 
         //Check if the numbers have to be upside down
         if(isSwitched) {
-            tickVal = Math.abs((max) - (((double) index /((double)numTicks-1d)) * (max-min)));
+            tickVal = max - (((double) index /((double)numTicks-1d)) * (max-min));
         } else {
-            tickVal = Math.floor((double) (index) /(numTicks-1) * (max-min));
+            tickVal = min + ((double) index /((double)numTicks-1d)) * (max-min);
         }
         return tickVal;
     }
@@ -212,14 +252,34 @@ public class AxisRenderer implements Renderer{
         gc.strokeLine(x1, y1, x2, y2);
     }
 
+    /**
+     * Captures everything that affects what is drawn onto the axis canvas
+     */
+    private LayerState currentState() {
+        var canvas = axis.getCanvas();
+        return new LayerState(canvas.getWidth(), canvas.getHeight(), axis.getMinVal(), axis.getMaxVal(),
+                axis.getNumTicks(), axis.isSwitched(), axis.getLabelAlignment(), axis.getTickLength(),
+                axis.getAxisSize(), axis.getTickLabelDistance());
+    }
+
+    /**
+     * Redraws the axis line and tick layer. The canvas keeps the last drawn layer, so nothing is redrawn unless the
+     * range, size or layout of the axis changed since the last draw.
+     */
     @Override
     public void render() {
         if(isDirty) {
+            isDirty = false;
             JFXProcessManager.addFXTask(() -> {
+                var state = currentState();
+                if(state.equals(drawnState)) {
+                    return;
+                }
+
+                drawnState = state;
                 drawLine();
                 drawTickMarks();
             });
-            isDirty = false;
         }
     }
 
@@ -231,9 +291,9 @@ public class AxisRenderer implements Renderer{
      */
     @Override
     public void setDirty(boolean dirty) {
+        isDirty = dirty;
         if(isDirty) {
             render();
-            isDirty = false;
         }
     }
 }
@@ -22,15 +22,21 @@
 package JFXGrid.renderer;
 
 import JFXGrid.core.JFXGrid;
+import JFXGrid.data.FrameSnapshot;
+import JFXGrid.data.SparseFrame;
 import JFXGrid.events.JFXProcessManager;
+import JFXGrid.metrics.FrameRenderEvent;
+import JFXGrid.metrics.GridMetrics;
 import JFXGrid.util.ImageGenerator;
 import JFXGrid.util.ResizableCanvas;
+import JFXGrid.util.SparseRaster;
 import javafx.scene.image.PixelBuffer;
 import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 
 import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 /**
@@ -43,11 +49,31 @@ public class GridRenderer implements Renderer {
     private JFXGrid jfxGrid;
 
     //This is utilized to prevent over processing, this class will only render if there was something that changed requiring an render.
-    protected boolean isDirty = true;
+    //Set from any thread: the clock thread on frame changes, the JavaFX thread on layout and style changes
+    protected final AtomicBoolean isDirty = new AtomicBoolean(true);
 
     private long lastFrameNano = System.nanoTime();
     private long lastFrameDelta = 0;
 
+    //Set while a render is waiting on the JavaFX thread, further requests are coalesced into it and counted as dropped
+    private final AtomicBoolean renderQueued = new AtomicBoolean();
+    private volatile long queuedNano;
+
+    //Pre-multiplied ARGB of Color.WHITESMOKE, used for the grid lines
+    private static final int LINE_COLOR = 0xFFF5F5F5;
+
+    //The cached grid line overlay along with the dimensions it was built for
+    private WritableImage lineLayer;
+    private int lineLayerWidth;
+    private int lineLayerHeight;
+    private int lineLayerRows;
+    private int lineLayerCols;
+
+    //Sparse frames are drawn into one persistent image, only repainting the cells that changed since the last frame
+    private SparseRaster sparseRaster;
+    private PixelBuffer<IntBuffer> sparseBuffer;
+    private WritableImage sparseImage;
+
 
     public GridRenderer(final JFXGrid jfxGrid) {
         this.jfxGrid = jfxGrid;
@@ -58,50 +84,75 @@ public class GridRenderer implements Renderer {
     }
 
     /**
-     * Draws horizontal grid lines
+     * Draws the grid lines from the cached line layer. The layer is only rebuilt when the canvas size or the number of
+     * rows/columns changes, so enabling lines costs a single drawImage call per frame.
+     * Lines are skipped entirely once the cells become smaller than the styler's minimum line spacing, as they would
+     * otherwise cover the heatmap itself.
      */
-    protected void drawHorLines() {
-        int rows;
+    protected void drawLines() {
+        int rows, cols;
         var dataset = jfxGrid.getData();
         if(dataset == null) {
             rows = 1;
+            cols = 1;
         } else {
             rows = dataset.getNumRows();
+            cols = dataset.getNumColumns();
         }
 
         var canvas = getCanvas();
-        var gc = canvas.getGraphicsContext2D();
-        gc.setFill(Color.BLACK);
-        gc.setLineWidth(1);
-        gc.setStroke(Color.WHITESMOKE);
+        int width = (int) Math.round(canvas.getWidth());
+        int height = (int) Math.round(canvas.getHeight());
+        if(width <= 0 || height <= 0 || rows <= 0 || cols <= 0) {
+            return;
+        }
 
-        for (int i = 0; i <= rows; i++) {
-            double yVal = (canvas.getHeight() / (double) rows) * i;
-            gc.strokeLine(0, yVal, canvas.getWidth(), yVal);
+        double minSpacing = jfxGrid.getStylizer().getMinLineSpacing();
+        if((double) width / cols < minSpacing || (double) height / rows < minSpacing) {
+            return;
         }
+
+        if(lineLayer == null || width != lineLayerWidth || height != lineLayerHeight
+                || rows != lineLayerRows || cols != lineLayerCols) {
+            int[] pixels = new int[width * height];
+            drawHorLines(pixels, width, height, rows);
+            drawVerLines(pixels, width, height, cols);
+
+            PixelBuffer<IntBuffer> pixelBuffer = new PixelBuffer<>(
+                    width, height, IntBuffer.wrap(pixels), PixelFormat.getIntArgbPreInstance()
+            );
+            lineLayer = new WritableImage(pixelBuffer);
+            lineLayerWidth = width;
+            lineLayerHeight = height;
+            lineLayerRows = rows;
+            lineLayerCols = cols;
+        }
+
+        canvas.getGraphicsContext2D().drawImage(lineLayer, 0, 0);
     }
 
     /**
-     * Draws vertical grid lines
+     * Writes the horizontal grid lines into the line layer pixels
      */
-    protected void drawVerLines() {
-        int cols;
-        var dataset = jfxGrid.getData();
-        if(dataset == null) {
-            cols = 1;
-        } else {
-            cols = dataset.getNumColumns();
+    protected void drawHorLines(int[] pixels, int width, int height, int rows) {
+        for (int i = 0; i <= rows; i++) {
+            int yVal = Math.min(height - 1, (int) Math.round((height / (double) rows) * i));
+            int rowStart = yVal * width;
+            for(int x = 0; x < width; x++) {
+                pixels[rowStart + x] = LINE_COLOR;
+            }
         }
+    }
 
-        var canvas = getCanvas();
-        var gc = canvas.getGraphicsContext2D();
-        gc.setFill(Color.BLACK);
-        gc.setLineWidth(1);
-        gc.setStroke(Color.WHITESMOKE);
-
+    /**
+     * Writes the vertical grid lines into the line layer pixels
+     */
+    protected void drawVerLines(int[] pixels, int width, int height, int cols) {
         for (int i = 0; i <= cols; i++) {
-            double xVal = (canvas.getWidth() / (double) cols) * i;
-            gc.strokeLine(xVal, 0, xVal, canvas.getHeight());
+            int xVal = Math.min(width - 1, (int) Math.round((width / (double) cols) * i));
+            for(int y = 0; y < height; y++) {
+                pixels[y * width + xVal] = LINE_COLOR;
+            }
         }
     }
 
@@ -118,6 +169,33 @@ public class GridRenderer implements Renderer {
 
     }
 
+    /**
+     * Draws a sparse frame into the persistent sparse image. Only the cells painted by the previous frame and the
+     * non-zero cells of this one are written, unless the colors changed.
+     * @param frameNum number of the frame, for the ColorizeEvent
+     * @return the sparse image
+     */
+    protected WritableImage drawSparse(SparseFrame sparse, int rows, int cols, int frameNum) {
+        var styler = jfxGrid.getStylizer();
+        if(sparseRaster == null || sparseRaster.getRows() != rows || sparseRaster.getColumns() != cols) {
+            sparseRaster = new SparseRaster(rows, cols);
+            sparseRaster.draw(sparse, styler.getColorizer(), jfxGrid.getMask(), styler.getMaskARGB(),
+                    jfxGrid.getGridId(), frameNum);
+            sparseBuffer = new PixelBuffer<>(
+                    cols, rows, IntBuffer.wrap(sparseRaster.getPixels()), PixelFormat.getIntArgbPreInstance()
+            );
+            sparseImage = new WritableImage(sparseBuffer);
+            return sparseImage;
+        }
+
+        sparseBuffer.updateBuffer(buffer -> {
+            sparseRaster.draw(sparse, styler.getColorizer(), jfxGrid.getMask(), styler.getMaskARGB(),
+                    jfxGrid.getGridId(), frameNum);
+            return null;
+        });
+        return sparseImage;
+    }
+
     /**
      * Usually unseen, but draws a background rectangle
      */
@@ -144,49 +222,109 @@ public class GridRenderer implements Renderer {
 
     /**
      * The 'dirty' variable essentially denotes whether or not the renderer needs updating. We use this so we don't flood
-     * the JFXProcessManager with useless runnables.
+     * the JFXProcessManager with useless runnables. Marking the renderer dirty renders straight away, so every change
+     * (e.g. each new frame published by the dataset) is drawn without polling.
      * @param dirty
      */
     @Override
     public void setDirty(boolean dirty) {
-        this.isDirty = dirty;
+        isDirty.set(dirty);
+        if(dirty) {
+            render();
+        }
     }
 
     /**
-     * This is the contained runnable process that is given to the JavaFX thread upon a render call
+     * This is the contained runnable process that is given to the JavaFX thread upon a render call.
+     * Each stage is timed into the grid's metrics, and reported as a FrameRenderEvent while JFR is recording.
      */
     private final Runnable renderRunnable = () -> {
-        drawBackground();
+        renderQueued.set(false);
 
-        if(jfxGrid.getData() != null) {
-            int rows, cols;
-            double[] matrix = jfxGrid.getData().get();
-            rows = jfxGrid.getData().getNumRows();
-            cols = jfxGrid.getData().getNumColumns();
+        GridMetrics metrics = jfxGrid.getMetrics();
+        FrameRenderEvent event = new FrameRenderEvent();
+        event.begin();
+        long start = System.nanoTime();
+        long fxLag = start - queuedNano;
+        metrics.recordFXLag(fxLag);
 
-            if(matrix.length == 0) {
-                return;
-            }
-
-            IntBuffer buf = ImageGenerator.getBufferedARGB(rows, cols, matrix, jfxGrid.getStylizer().getColorizer());
-            PixelBuffer<IntBuffer> pixelBuffer = new PixelBuffer<>(
-                    cols, rows, buf, PixelFormat.getIntArgbPreInstance()
-            );
-
-            final WritableImage image = new WritableImage(pixelBuffer);
+        drawBackground();
 
-            drawImage(image);
-//            pixelBuffer.updateBuffer((val) -> null);
+        //The frame and its number come from one snapshot, published by whichever thread moved the frame pointer
+        var dataset = jfxGrid.getData();
+        var snapshot = dataset == null ? FrameSnapshot.EMPTY : dataset.getSnapshot();
+        int rows = 0, cols = 0;
+        long fetch = 0, colorize = 0, upload = 0, draw = 0;
+        if(dataset != null) {
+            long fetchStart = System.nanoTime();
+            rows = dataset.getNumRows();
+            cols = dataset.getNumColumns();
+            //A sparse frame no plugin replaces only needs its non-zero cells painted, and is never expanded
+            SparseFrame sparse = snapshot.getSparse();
+            boolean drawSparse = sparse != null && !jfxGrid.processesFrames()
+                    && sparse.getRows() == rows && sparse.getColumns() == cols;
+            double[] matrix = drawSparse ? null : jfxGrid.processFrame(snapshot.getFrame());
+            long fetchEnd = System.nanoTime();
+            fetch = fetchEnd - fetchStart;
+            metrics.recordStage(GridMetrics.Stage.DATA_FETCH, fetch);
+
+            //Without a frame only the background is drawn, the frame still counts as rendered
+            if(drawSparse || (matrix != null && matrix.length > 0)) {
+                final WritableImage image;
+                long colorizeEnd;
+                if(drawSparse) {
+                    image = drawSparse(sparse, rows, cols, snapshot.getFrameNum());
+                    colorizeEnd = System.nanoTime();
+                    colorize = colorizeEnd - fetchEnd;
+                    metrics.recordStage(GridMetrics.Stage.COLORIZE, colorize);
+                } else {
+                    var styler = jfxGrid.getStylizer();
+                    IntBuffer buf = ImageGenerator.getBufferedARGB(rows, cols, matrix, styler.getColorizer(),
+                            jfxGrid.getMask(), styler.getMaskARGB(), jfxGrid.getGridId(), snapshot.getFrameNum());
+                    colorizeEnd = System.nanoTime();
+                    colorize = colorizeEnd - fetchEnd;
+                    metrics.recordStage(GridMetrics.Stage.COLORIZE, colorize);
+
+                    PixelBuffer<IntBuffer> pixelBuffer = new PixelBuffer<>(
+                            cols, rows, buf, PixelFormat.getIntArgbPreInstance()
+                    );
+                    image = new WritableImage(pixelBuffer);
+                }
+                long uploadEnd = System.nanoTime();
+                upload = uploadEnd - colorizeEnd;
+                metrics.recordStage(GridMetrics.Stage.UPLOAD, upload);
+
+                drawImage(image);
+                draw = System.nanoTime() - uploadEnd;
+                metrics.recordStage(GridMetrics.Stage.DRAW, draw);
+//                pixelBuffer.updateBuffer((val) -> null);
+            }
         }
 
         if(jfxGrid.getStylizer().showLinesEnabled()) {
-            drawHorLines();
-            drawVerLines();
+            drawLines();
         }
 
         var timeNano = System.nanoTime();
         lastFrameDelta = timeNano-lastFrameNano;
         lastFrameNano = timeNano;
+        metrics.frameRendered();
+
+        event.end();
+        if(event.shouldCommit()) {
+            event.gridId = jfxGrid.getGridId();
+            event.frameNum = snapshot.getFrameNum();
+            event.rows = rows;
+            event.cols = cols;
+            event.canvasWidth = (int) getCanvas().getWidth();
+            event.canvasHeight = (int) getCanvas().getHeight();
+            event.fxLag = fxLag;
+            event.fetch = fetch;
+            event.colorize = colorize;
+            event.upload = upload;
+            event.draw = draw;
+            event.commit();
+        }
     };
 
     /**
@@ -194,11 +332,20 @@ public class GridRenderer implements Renderer {
      */
     @Override
     public void render() {
-        if(isDirty) {
+        if(isDirty.compareAndSet(true, false)) {
+            var metrics = jfxGrid.getMetrics();
+            metrics.frameRequested();
+
+            //A render that hasn't started yet will pick up the latest frame anyway, so we don't queue another
+            if(!renderQueued.compareAndSet(false, true)) {
+                metrics.frameDropped();
+                return;
+            }
+
             //WritableImage is a JavaFX class and throws a fit when trying to make a writable image outside of the fx thread
             //We add this whole rendering process as an JavaFX task
+            queuedNano = System.nanoTime();
             JFXProcessManager.addFXTask(renderRunnable);
-            isDirty = false;
         }
     }
 
@@ -0,0 +1,212 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.util;
+
+import java.util.Arrays;
+
+/**
+ * A set of masked cells stored as one bit per cell, 64 cells to a word. Cells are numbered row by row in image order
+ * ({@code row * columns + column}), so the rasterizer reads the mask sequentially while it writes pixels, and
+ * rectangles, unions, intersections and differences work a whole word at a time.
+ * Not thread-safe, edit it on the JavaFX thread, where it's read while rendering.
+ *
+ * @author aram-ap
+ */
+public class CellMask {
+    private final int rows;
+    private final int columns;
+    private final long[] words;
+
+    public CellMask(int rows, int columns) {
+        if(rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("Rows and columns must be > 0, got " + rows + ", " + columns);
+        }
+
+        this.rows = rows;
+        this.columns = columns;
+        this.words = new long[(int) (((long) rows * columns + 63) >>> 6)];
+    }
+
+    private CellMask(CellMask other) {
+        this.rows = other.rows;
+        this.columns = other.columns;
+        this.words = other.words.clone();
+    }
+
+    public boolean get(int row, int col) {
+        int bit = index(row, col);
+        return (words[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    public void set(int row, int col, boolean masked) {
+        int bit = index(row, col);
+        if(masked) {
+            words[bit >>> 6] |= 1L << bit;
+        } else {
+            words[bit >>> 6] &= ~(1L << bit);
+        }
+    }
+
+    /**
+     * Sets or clears a rectangle of cells, corners are inclusive and may be given in any order
+     */
+    public void setRegion(int row0, int col0, int row1, int col1, boolean masked) {
+        int top = Math.min(row0, row1), bottom = Math.max(row0, row1);
+        int left = Math.min(col0, col1), right = Math.max(col0, col1);
+        index(top, left);
+        index(bottom, right);
+
+        for(int row = top; row <= bottom; row++) {
+            setRange(row * columns + left, row * columns + right + 1, masked);
+        }
+    }
+
+    /**
+     * Sets or clears the bits [from, to) word by word
+     */
+    private void setRange(int from, int to, boolean masked) {
+        int firstWord = from >>> 6, lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+
+        for(int w = firstWord; w <= lastWord; w++) {
+            long bits = -1L;
+            if(w == firstWord) {
+                bits &= firstMask;
+            }
+            if(w == lastWord) {
+                bits &= lastMask;
+            }
+
+            if(masked) {
+                words[w] |= bits;
+            } else {
+                words[w] &= ~bits;
+            }
+        }
+    }
+
+    /**
+     * Masks every cell masked in either this or the other mask
+     */
+    public void or(CellMask other) {
+        checkSize(other);
+        for(int w = 0; w < words.length; w++) {
+            words[w] |= other.words[w];
+        }
+    }
+
+    /**
+     * Keeps only the cells masked in both masks
+     */
+    public void and(CellMask other) {
+        checkSize(other);
+        for(int w = 0; w < words.length; w++) {
+            words[w] &= other.words[w];
+        }
+    }
+
+    /**
+     * Unmasks every cell masked in the other mask
+     */
+    public void andNot(CellMask other) {
+        checkSize(other);
+        for(int w = 0; w < words.length; w++) {
+            words[w] &= ~other.words[w];
+        }
+    }
+
+    /**
+     * Flips every cell, e.g. to turn a focused region into a mask of everything around it
+     */
+    public void invert() {
+        for(int w = 0; w < words.length; w++) {
+            words[w] = ~words[w];
+        }
+        clearTail();
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    public boolean isEmpty() {
+        for(long word : words) {
+            if(word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of masked cells
+     */
+    public int cardinality() {
+        int count = 0;
+        for(long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public CellMask copy() {
+        return new CellMask(this);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return the backing words, bit (i % 64) of word (i / 64) is cell i. Must not be modified.
+     */
+    final long[] words() {
+        return words;
+    }
+
+    //Bits past the last cell are kept clear, so they never count as masked
+    private void clearTail() {
+        int tail = (rows * columns) & 63;
+        if(tail != 0) {
+            words[words.length - 1] &= -1L >>> (64 - tail);
+        }
+    }
+
+    private int index(int row, int col) {
+        if(row < 0 || row >= rows || col < 0 || col >= columns) {
+            throw new IndexOutOfBoundsException("Cell (" + row + ", " + col + ") is outside the " + rows + "x" + columns + " mask");
+        }
+        return row * columns + col;
+    }
+
+    private void checkSize(CellMask other) {
+        if(other.rows != rows || other.columns != columns) {
+            throw new IllegalArgumentException("Masks differ in size: " + rows + "x" + columns + " and "
+                    + other.rows + "x" + other.columns);
+        }
+    }
+}
@@ -10,10 +10,15 @@ import java.util.ArrayList;
  * The colorizer holds a set of colors used to create the color gradients.
  */
 public class Colorizer {
-    private int[] aRGBColors;
+    //Rebuilt as a whole and then swapped in, so renderers never see a partially filled table
+    private volatile int[] aRGBColors;
+
+    //Incremented each time the lookup table is rebuilt, lets views cache anything derived from the table
+    private volatile long version;
     private int numColorGradations = 255 * 255 * 255;
     private final ArrayList<Stop> stops;
     private double brightness = 1.0;
+    private final Normalizer normalizer = new Normalizer();
 
     public Colorizer() {
         stops = new ArrayList<>(Style.DEFAULT.getStops());
@@ -77,7 +82,7 @@ public class Colorizer {
      * @return ARGB color values
      */
     public final void processARGBVals(int gradValues) {
-        aRGBColors = new int[gradValues];
+        final int[] colors = new int[gradValues];
         double refVal = 0;
         for (int colorIndex = 0; colorIndex < gradValues; colorIndex++) {
             Color fxColor = getColorFromValue(refVal);
@@ -87,10 +92,20 @@ public class Colorizer {
             int green = (int) (fxColor.getGreen() * 255);
             int blue = (int) (fxColor.getBlue() * 255);
 
-            aRGBColors[colorIndex] = alpha << 24 | red << 16 | green << 8 | blue;
+            colors[colorIndex] = alpha << 24 | red << 16 | green << 8 | blue;
 
             refVal += 1.0 / gradValues;
         }
+
+        aRGBColors = colors;
+        version++;
+    }
+
+    /**
+     * @return a number that changes every time the color lookup table is rebuilt, e.g. after a style change
+     */
+    public final long getVersion() {
+        return version;
     }
 
     /**
@@ -98,8 +113,23 @@ public class Colorizer {
      * @return aRGB color value
      */
     public final int getNearestARGBColor(final double val) {
-        if (aRGBColors == null || aRGBColors.length == 0 || val > 1 || val < 0) return 0;
-        return aRGBColors[(int) ((aRGBColors.length - 1) * val)];
+        final int[] colors = aRGBColors;
+        if (colors == null || colors.length == 0 || val > 1 || val < 0) return 0;
+        return colors[(int) ((colors.length - 1) * val)];
+    }
+
+    /**
+     * @return the ARGB lookup table backing {@link #getNearestARGBColor(double)}. Must not be modified.
+     */
+    final int[] getLookupTable() {
+        return aRGBColors;
+    }
+
+    /**
+     * @return the normalizer deciding which value range is mapped onto this colorizer's gradient
+     */
+    public final Normalizer getNormalizer() {
+        return normalizer;
     }
 
     public final void setStyleColors(Style style) {
@@ -0,0 +1,323 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.util;
+
+import java.util.Arrays;
+
+/**
+ * Accumulates a stream of equally sized frames into a windowed sum, mean, max, min, or exponential moving average.
+ * The window is a ring buffer of copied frames with running per-cell sums: adding a frame adds the incoming values and
+ * subtracts the outgoing ones, so the cost of each frame is O(frame size) no matter how large the window is.
+ * <p>
+ * Max and min can't be undone by subtraction, so they use the van Herk/Gil-Werman block decomposition instead. The
+ * stream is split into blocks of half the window. Any window is then the tail of the block before last (read from its
+ * suffix maxima), the whole previous block (its total maximum), and the head of the current block (a running maximum).
+ * The suffix maxima of a block are computed in place, one frame per incoming frame while the next block fills, so the
+ * worst case for each frame stays O(frame size) with no spike at block boundaries. This keeps 1.5 windows of frames.
+ * <p>
+ * NaN and infinite values count as missing data and are left out of the results.
+ * Not thread-safe, callers sharing an accumulator between threads must synchronize.
+ *
+ * @author aram-ap
+ */
+public class FrameAccumulator {
+    public enum Mode {
+        //Per-cell mean of the last (window) frames
+        MEAN,
+        //Per-cell sum of the last (window) frames
+        SUM,
+        //Per-cell maximum of the last (window) frames, a 'peak hold'
+        MAX,
+        //Per-cell minimum of the last (window) frames
+        MIN,
+        //Exponential moving average, weighting each new frame by alpha
+        EMA
+    }
+
+    //Running sums pick up rounding error as values are added and subtracted, so they're rebuilt from the ring
+    //after this many passes over the window
+    private static final int REBUILD_PASSES = 64;
+
+    private final int frameSize;
+    private final int windowSize;
+    private final Mode mode;
+    private double alpha = 0.1;
+
+    //windowSize frames laid out back to back, missing values are stored as NaN
+    private double[] ring;
+    private double[] sums;
+    private int[] counts;
+    private double[] ema;
+
+    //MAX/MIN: the ring holds three blocks, values are stored negated for MIN so both share the max code path and
+    //missing values are stored as -infinity
+    private int blockSize;
+    private double sign;
+    private double[] prefix;
+    private double[] previousBlock;
+    private long block;
+    private int blockPos;
+
+    private int head;
+    private int filled;
+    private int sinceRebuild;
+
+    /**
+     * @param frameSize number of values in each frame (rows * columns)
+     * @param windowSize number of frames summed or averaged. Ignored by {@link Mode#EMA}
+     * @param mode how frames are accumulated
+     */
+    public FrameAccumulator(int frameSize, int windowSize, Mode mode) {
+        if(frameSize < 0 || windowSize <= 0) {
+            throw new IllegalArgumentException("Frame size must be >= 0 and window size > 0, got " + frameSize + ", " + windowSize);
+        }
+
+        this.frameSize = frameSize;
+        this.windowSize = windowSize;
+        this.mode = mode == null ? Mode.MEAN : mode;
+
+        if(this.mode == Mode.EMA) {
+            ema = new double[frameSize];
+        } else if(this.mode == Mode.MAX || this.mode == Mode.MIN) {
+            blockSize = (windowSize + 1) / 2;
+            sign = this.mode == Mode.MAX ? 1 : -1;
+            ring = new double[3 * blockSize * frameSize];
+            prefix = new double[frameSize];
+            previousBlock = new double[frameSize];
+        } else {
+            ring = new double[frameSize * windowSize];
+            sums = new double[frameSize];
+            counts = new int[frameSize];
+        }
+        reset();
+    }
+
+    /**
+     * Adds the next frame, dropping the oldest once the window is full
+     * @param frame frame of {@code getFrameSize()} values
+     */
+    public void add(double[] frame) {
+        if(frame.length != frameSize) {
+            throw new IllegalArgumentException("Expected a frame of " + frameSize + " values, got " + frame.length);
+        }
+
+        if(mode == Mode.EMA) {
+            addEMA(frame);
+            return;
+        } else if(mode == Mode.MAX || mode == Mode.MIN) {
+            addExtreme(frame);
+            return;
+        }
+
+        final int base = head * frameSize;
+        final boolean full = filled == windowSize;
+        for(int i = 0; i < frameSize; i++) {
+            if(full) {
+                double old = ring[base + i];
+                if(old == old) {
+                    sums[i] -= old;
+                    counts[i]--;
+                }
+            }
+
+            double val = frame[i];
+            if(Double.isFinite(val)) {
+                ring[base + i] = val;
+                sums[i] += val;
+                counts[i]++;
+            } else {
+                ring[base + i] = Double.NaN;
+            }
+        }
+
+        if(!full) {
+            filled++;
+        }
+        head = (head + 1) % windowSize;
+
+        if(++sinceRebuild >= REBUILD_PASSES * windowSize) {
+            rebuildSums();
+        }
+    }
+
+    private void addEMA(double[] frame) {
+        for(int i = 0; i < frameSize; i++) {
+            double val = frame[i];
+            if(!Double.isFinite(val)) {
+                continue;
+            }
+
+            double prev = ema[i];
+            ema[i] = prev != prev ? val : prev + alpha * (val - prev);
+        }
+
+        filled = Math.min(windowSize, filled + 1);
+    }
+
+    private void addExtreme(double[] frame) {
+        final int base = (blockSlot(block) + blockPos) * frameSize;
+        for(int i = 0; i < frameSize; i++) {
+            double val = frame[i];
+            val = Double.isFinite(val) ? val * sign : Double.NEGATIVE_INFINITY;
+            ring[base + i] = val;
+            if(val > prefix[i]) {
+                prefix[i] = val;
+            }
+        }
+
+        //One step of the previous block's suffix maxima, from its end towards its start
+        int step = blockSize - 2 - blockPos;
+        if(block >= 1 && step >= 0) {
+            int row = (blockSlot(block - 1) + step) * frameSize;
+            int next = row + frameSize;
+            for(int i = 0; i < frameSize; i++) {
+                if(ring[next + i] > ring[row + i]) {
+                    ring[row + i] = ring[next + i];
+                }
+            }
+        }
+
+        filled = Math.min(windowSize, filled + 1);
+        if(++blockPos == blockSize) {
+            System.arraycopy(prefix, 0, previousBlock, 0, frameSize);
+            Arrays.fill(prefix, Double.NEGATIVE_INFINITY);
+            blockPos = 0;
+            block++;
+        }
+    }
+
+    private int blockSlot(long blockNum) {
+        return (int) (blockNum % 3) * blockSize;
+    }
+
+    private void extremeResult(double[] out) {
+        //Frames of the block before last still inside the window start at this index
+        int start = 2 * blockSize - windowSize + blockPos;
+        int suffixRow = block >= 2 && start < blockSize ? (blockSlot(block - 2) + start) * frameSize : -1;
+
+        for(int i = 0; i < frameSize; i++) {
+            double val = prefix[i];
+            if(block >= 1 && previousBlock[i] > val) {
+                val = previousBlock[i];
+            }
+            if(suffixRow >= 0 && ring[suffixRow + i] > val) {
+                val = ring[suffixRow + i];
+            }
+            out[i] = val == Double.NEGATIVE_INFINITY ? Double.NaN : val * sign;
+        }
+    }
+
+    private void rebuildSums() {
+        Arrays.fill(sums, 0);
+        Arrays.fill(counts, 0);
+        for(int f = 0; f < filled; f++) {
+            int base = f * frameSize;
+            for(int i = 0; i < frameSize; i++) {
+                double val = ring[base + i];
+                if(val == val) {
+                    sums[i] += val;
+                    counts[i]++;
+                }
+            }
+        }
+        sinceRebuild = 0;
+    }
+
+    /**
+     * Writes the accumulated frame. Cells without any data are NaN, except for {@link Mode#SUM} where they are 0.
+     * Costs O(frame size) for every mode.
+     * @param out array to write into, a new one is allocated if null or of the wrong size
+     * @return the accumulated frame
+     */
+    public double[] getResult(double[] out) {
+        if(out == null || out.length != frameSize) {
+            out = new double[frameSize];
+        }
+
+        switch(mode) {
+            case MEAN -> {
+                for(int i = 0; i < frameSize; i++) {
+                    out[i] = counts[i] == 0 ? Double.NaN : sums[i] / counts[i];
+                }
+            }
+            case SUM -> System.arraycopy(sums, 0, out, 0, frameSize);
+            case MAX, MIN -> extremeResult(out);
+            case EMA -> System.arraycopy(ema, 0, out, 0, frameSize);
+        }
+
+        return out;
+    }
+
+    /**
+     * Drops every accumulated frame
+     */
+    public void reset() {
+        head = 0;
+        filled = 0;
+        sinceRebuild = 0;
+        if(mode == Mode.EMA) {
+            Arrays.fill(ema, Double.NaN);
+        } else if(mode == Mode.MAX || mode == Mode.MIN) {
+            Arrays.fill(prefix, Double.NEGATIVE_INFINITY);
+            Arrays.fill(previousBlock, Double.NEGATIVE_INFINITY);
+            block = 0;
+            blockPos = 0;
+        } else {
+            Arrays.fill(sums, 0);
+            Arrays.fill(counts, 0);
+        }
+    }
+
+    /**
+     * @param alpha weight of each new frame for {@link Mode#EMA}, between 0 (exclusive) and 1
+     */
+    public void setAlpha(double alpha) {
+        if(!(alpha > 0 && alpha <= 1)) {
+            throw new IllegalArgumentException("Alpha must be in (0, 1], got " + alpha);
+        }
+
+        this.alpha = alpha;
+    }
+
+    public double getAlpha() {
+        return alpha;
+    }
+
+    /**
+     * @return the number of frames currently in the window
+     */
+    public int getCount() {
+        return filled;
+    }
+
+    public int getFrameSize() {
+        return frameSize;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+}
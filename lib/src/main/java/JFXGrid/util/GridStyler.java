@@ -21,11 +21,16 @@
 //SOFTWARE.
 package JFXGrid.util;
 
+import javafx.scene.paint.Color;
+
 public class GridStyler {
     private Style style;
     private final Colorizer colorizer;
     private boolean showLines = true;
+    private double minLineSpacing = 1d;
     private int gradValues = 256 * 256 * 256;
+    private Color maskColor = Color.gray(0.2);
+    private int maskARGB = toPremultipliedARGB(maskColor);
 
     public GridStyler() {
         this(Style.DEFAULT);
@@ -46,6 +51,60 @@ public class GridStyler {
         this.showLines = show;
     }
 
+    /**
+     * @return the smallest cell size, in pixels, at which grid lines are still drawn
+     */
+    public double getMinLineSpacing() {
+        return minLineSpacing;
+    }
+
+    /**
+     * Grid lines are automatically hidden once the cells shrink below this size, since they would otherwise cover the
+     * heatmap itself.
+     * @param spacing minimum cell size in pixels, defaults to 1
+     */
+    public void setMinLineSpacing(double spacing) {
+        if(spacing < 0) {
+            throw new IllegalArgumentException("Minimum line spacing cannot be < 0!");
+        }
+
+        this.minLineSpacing = spacing;
+    }
+
+    /**
+     * @return the color masked cells are drawn in
+     */
+    public Color getMaskColor() {
+        return maskColor;
+    }
+
+    /**
+     * Sets the color masked cells (see {@link CellMask}) are drawn in, defaults to a dark gray
+     */
+    public void setMaskColor(Color color) {
+        if(color == null) {
+            return;
+        }
+
+        this.maskColor = color;
+        this.maskARGB = toPremultipliedARGB(color);
+    }
+
+    /**
+     * @return the mask color as a pre-multiplied ARGB value, the pixel format used by the renderer
+     */
+    public int getMaskARGB() {
+        return maskARGB;
+    }
+
+    private static int toPremultipliedARGB(Color color) {
+        double alpha = color.getOpacity();
+        return (int) Math.round(alpha * 255) << 24
+                | (int) Math.round(color.getRed() * alpha * 255) << 16
+                | (int) Math.round(color.getGreen() * alpha * 255) << 8
+                | (int) Math.round(color.getBlue() * alpha * 255);
+    }
+
     public void setStyle(Style style) {
         this.style = style;
         colorizer.setStyleColors(style);
@@ -21,6 +21,8 @@
 //SOFTWARE.
 package JFXGrid.util;
 
+import JFXGrid.metrics.ColorizeEvent;
+
 import java.nio.IntBuffer;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
@@ -30,6 +32,40 @@ import java.util.concurrent.Future;
  * @author aram-ap
  */
 public abstract class ImageGenerator {
+    //The SIMD kernel requires the incubating Vector API, which is only resolved when started with --add-modules jdk.incubator.vector
+    private static final boolean VECTOR_AVAILABLE = checkVectorSupport();
+
+    //Older runtimes don't intrinsify the double to int lane conversion, which makes the kernel slower than the scalar loop.
+    //The default can be overridden with -Djfxgrid.vector=true/false
+    private static volatile boolean vectorized = VECTOR_AVAILABLE
+            && Boolean.parseBoolean(System.getProperty("jfxgrid.vector", String.valueOf(Runtime.version().feature() >= 21)));
+
+    private static boolean checkVectorSupport() {
+        if(ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+
+        try {
+            return VectorColorKernel.isSupported();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return true if images are colorized with the Vector API kernel rather than the scalar loop
+     */
+    public static boolean isVectorized() {
+        return vectorized;
+    }
+
+    /**
+     * Toggles the Vector API kernel. Has no effect if the jdk.incubator.vector module isn't available.
+     * @param enable true to use the SIMD kernel when available, false to force the scalar loop
+     */
+    public static void setVectorized(boolean enable) {
+        vectorized = enable && VECTOR_AVAILABLE;
+    }
 
     /**
      * A threaded image processor for converting a matrix into an image
@@ -50,16 +86,145 @@ public abstract class ImageGenerator {
      * @param theme ColorTheme for parsing data to colors
      */
     public static IntBuffer getBufferedARGB(final int rows, final int cols, final double[] matrix, Colorizer theme) {
+        return getBufferedARGB(rows, cols, matrix, theme, null, 0);
+    }
+
+    /**
+     * Converts a matrix into an image, drawing masked cells in a flat color. The mask is applied while colorizing, the
+     * matrix itself is left untouched.
+     * @param rows number of rows in the grid
+     * @param cols number of columns in the grid
+     * @param matrix Matrix to create image with
+     * @param theme ColorTheme for parsing data to colors
+     * @param mask cells to draw in the mask color, ignored if null or of a different size
+     * @param maskColor pre-multiplied ARGB color of masked cells
+     */
+    public static IntBuffer getBufferedARGB(final int rows, final int cols, final double[] matrix, Colorizer theme,
+                                            CellMask mask, int maskColor) {
+        return getBufferedARGB(rows, cols, matrix, theme, mask, maskColor, -1, 0);
+    }
+
+    /**
+     * Converts a matrix into an image like {@link #getBufferedARGB(int, int, double[], Colorizer, CellMask, int)},
+     * tagging the ColorizeEvent with the grid and frame it was drawn for
+     * @param gridId id of the grid being drawn, -1 if none
+     * @param frameNum number of the frame being drawn, 0 if unknown
+     */
+    public static IntBuffer getBufferedARGB(final int rows, final int cols, final double[] matrix, Colorizer theme,
+                                            CellMask mask, int maskColor, int gridId, int frameNum) {
         final IntBuffer buffer = IntBuffer.allocate(rows * cols);
-        final int[] pixels = buffer.array();
+        final int[] lut = theme.getLookupTable();
+        if(lut == null || lut.length == 0) {
+            return buffer;
+        }
 
+        ColorizeEvent event = new ColorizeEvent();
+        event.begin();
+
+        //The value range is resolved once per frame and applied while colorizing, so the data never has to be pre-normalized
+        final Normalizer normalizer = theme.getNormalizer();
+        final Normalizer.Range range = normalizer.update(matrix);
+        final boolean useVector = vectorized;
+        final long[] maskWords = mask != null && mask.getRows() == rows && mask.getColumns() == cols ? mask.words() : null;
+        colorize(rows, cols, matrix, lut, range.min(), range.scale(), useVector, maskWords, maskColor,
+                buffer.array(), 0);
+
+        event.end();
+        if(event.shouldCommit()) {
+            event.gridId = gridId;
+            event.frameNum = frameNum;
+            event.rows = rows;
+            event.cols = cols;
+            event.lutSize = lut.length;
+            event.vectorized = useVector;
+            event.normalizerMode = normalizer.getMode().name();
+            event.commit();
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Colorizes a matrix over a fixed value range into part of a larger pixel array, e.g. one slot of a cache holding
+     * many small images back to back. The colorizer's normalizer is neither used nor updated.
+     * @param rows number of rows in the grid
+     * @param cols number of columns in the grid
+     * @param matrix Matrix to create image with
+     * @param theme ColorTheme for parsing data to colors
+     * @param min value mapped onto the first color
+     * @param max value mapped onto the last color, values are drawn in the first color if it isn't greater than min
+     * @param pixels array receiving rows * cols pre-multiplied ARGB pixels, row-major
+     * @param offset index in pixels of the image's first pixel
+     */
+    public static void fillARGB(final int rows, final int cols, final double[] matrix, Colorizer theme, double min,
+                                double max, int[] pixels, int offset) {
+        if(offset < 0 || offset + rows * cols > pixels.length || matrix.length < rows * cols) {
+            throw new IllegalArgumentException("Image of " + rows + "x" + cols + " at " + offset
+                    + " doesn't fit the arrays");
+        }
+
+        final int[] lut = theme.getLookupTable();
+        if(lut == null || lut.length == 0) {
+            return;
+        }
+
+        double scale = max > min ? 1d / (max - min) : 0;
+        colorize(rows, cols, matrix, lut, min, scale, vectorized, null, 0, pixels, offset);
+    }
+
+    /**
+     * Maps the column-major matrix onto row-major ARGB pixels, starting at the given offset in the pixel array. Pixels
+     * whose bit is set in the mask get the mask color.
+     */
+    private static void colorize(int rows, int cols, double[] matrix, int[] lut, double min, double scale,
+                                 boolean useVector, long[] mask, int maskColor, int[] pixels, int offset) {
+        if(useVector) {
+            //Columns are contiguous in the matrix, so the indices are computed per column and then transposed into the image
+            final int[] indices = new int[rows];
+            for(int x = 0; x < cols; x++) {
+                VectorColorKernel.computeIndices(matrix, x * rows, rows, min, scale, lut.length, indices);
+                for(int y = 0; y < rows; y++) {
+                    int pixel = (y * cols) + x;
+                    int index = indices[y];
+                    pixels[offset + pixel] = index < 0 ? 0 : lut[index];
+                    if(mask != null && (mask[pixel >>> 6] & (1L << pixel)) != 0) {
+                        pixels[offset + pixel] = maskColor;
+                    }
+                }
+            }
+
+            return;
+        }
+
+        final double lutScale = lut.length - 1;
         for(int y = 0; y < rows; y++) {
             for(int x = 0; x < cols; x++) {
-                double val = matrix[x * rows + y];
-                pixels[(y * cols) + (x % cols)] = theme.getNearestARGBColor(val);
+                int pixel = (y * cols) + x;
+                if(mask != null && (mask[pixel >>> 6] & (1L << pixel)) != 0) {
+                    pixels[offset + pixel] = maskColor;
+                    continue;
+                }
+
+                int index = lookupIndex(matrix[x * rows + y], min, scale, lutScale);
+                pixels[offset + pixel] = index < 0 ? 0 : lut[index];
             }
         }
+    }
 
-        return buffer;
+    /**
+     * Normalizes a value and converts it into a color lookup table index
+     * @param val raw value
+     * @param min value mapped onto the first color
+     * @param scale factor mapping {@code val - min} onto [0, 1]
+     * @param lutScale size of the lookup table - 1
+     * @return the clamped lookup table index, -1 for NaN
+     */
+    static int lookupIndex(double val, double min, double scale, double lutScale) {
+        double normalized = (val - min) * scale;
+        if(normalized != normalized) {
+            return -1;
+        }
+
+        return (int) (Math.max(0d, Math.min(1d, normalized)) * lutScale);
     }
 }
@@ -0,0 +1,344 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.util;
+
+import JFXGrid.data.SparseFrame;
+
+import java.util.Arrays;
+
+/**
+ * The Normalizer decides which value range is mapped onto the color gradient. It's applied by the ImageGenerator
+ * while the image is being colorized, so raw data can be added to a dataset as-is.
+ * Values outside the active range are clamped to the first/last color, NaN values are left transparent.
+ *
+ * @author aram-ap
+ */
+public class Normalizer {
+    public enum Mode {
+        //A range given by setRange(min, max), defaults to [0, 1]
+        FIXED,
+        //The minimum and maximum of each frame
+        FRAME_MIN_MAX,
+        //The low/high percentiles of each frame, averaged over a rolling window of frames
+        ROLLING_PERCENTILE
+    }
+
+    /**
+     * A value range mapped onto the color gradient, published as one object so its ends are always read together
+     * @param min value mapped onto the first color of the gradient
+     * @param max value mapped onto the last color of the gradient
+     */
+    public record Range(double min, double max) {
+        /**
+         * @return the factor that maps {@code value - min} onto [0, 1], 0 if the range is empty
+         */
+        public double scale() {
+            double range = max - min;
+            return range > 0 ? 1d / range : 0;
+        }
+    }
+
+    //Number of histogram bins used to estimate the percentiles of a frame
+    private static final int HISTOGRAM_BINS = 1024;
+
+    private Mode mode = Mode.FIXED;
+    private double fixedMin = 0;
+    private double fixedMax = 1;
+    private double lowPercentile = 0.01;
+    private double highPercentile = 0.99;
+
+    //Rolling window of per-frame percentiles, with running sums so each frame costs O(1) to add and remove
+    private double[] lowWindow = new double[30];
+    private double[] highWindow = new double[30];
+    private int windowCount;
+    private int windowPos;
+    private double lowSum;
+    private double highSum;
+    private final int[] histogram = new int[HISTOGRAM_BINS];
+
+    //The active range is written by the render thread and read by the color bar
+    private volatile Range active = new Range(0, 1);
+
+    /**
+     * Computes the active range for a frame held sparse, from its non-zero cells and the count of implicit zeros alone.
+     * @param sparse the frame about to be colorized
+     * @return the active range to colorize the frame with
+     */
+    public synchronized Range update(SparseFrame sparse) {
+        if(sparse == null) {
+            return active;
+        }
+
+        final int nonZeros = sparse.getNonZeros();
+        final int zeros = sparse.getRows() * sparse.getColumns() - nonZeros;
+        switch(mode) {
+            case FIXED -> setActive(fixedMin, fixedMax);
+            case FRAME_MIN_MAX -> {
+                double min = zeros > 0 ? 0 : Double.POSITIVE_INFINITY;
+                double max = zeros > 0 ? 0 : Double.NEGATIVE_INFINITY;
+                for(int i = 0; i < nonZeros; i++) {
+                    double val = sparse.getValue(i);
+                    if(!Double.isFinite(val)) continue;
+                    if(val < min) min = val;
+                    if(val > max) max = val;
+                }
+
+                if(min <= max && Double.isFinite(min) && Double.isFinite(max)) {
+                    setActive(min, max);
+                }
+            }
+            case ROLLING_PERCENTILE -> {
+                double min = zeros > 0 ? 0 : Double.POSITIVE_INFINITY;
+                double max = zeros > 0 ? 0 : Double.NEGATIVE_INFINITY;
+                int count = zeros;
+                for(int i = 0; i < nonZeros; i++) {
+                    double val = sparse.getValue(i);
+                    if(!Double.isFinite(val)) continue;
+                    if(val < min) min = val;
+                    if(val > max) max = val;
+                    count++;
+                }
+                if(count == 0) {
+                    return active;
+                }
+
+                if(max > min) {
+                    Arrays.fill(histogram, 0);
+                    double binScale = HISTOGRAM_BINS / (max - min);
+                    histogram[Math.min(HISTOGRAM_BINS - 1, (int) ((0 - min) * binScale))] += zeros;
+                    for(int i = 0; i < nonZeros; i++) {
+                        double val = sparse.getValue(i);
+                        if(!Double.isFinite(val)) continue;
+                        histogram[Math.min(HISTOGRAM_BINS - 1, (int) ((val - min) * binScale))]++;
+                    }
+                }
+                addPercentiles(count, min, max);
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Computes the active range for the given frame. Every call counts as a new frame, there's no caching by array
+     * since callers such as plugins reuse their output buffers.
+     * @param frame the frame about to be colorized
+     * @return the active range to colorize the frame with
+     */
+    public synchronized Range update(double[] frame) {
+        if(frame == null) {
+            return active;
+        }
+
+        switch(mode) {
+            case FIXED -> setActive(fixedMin, fixedMax);
+            case FRAME_MIN_MAX -> {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for(double val : frame) {
+                    if(!Double.isFinite(val)) continue;
+                    if(val < min) min = val;
+                    if(val > max) max = val;
+                }
+
+                if(min <= max && Double.isFinite(min) && Double.isFinite(max)) {
+                    setActive(min, max);
+                }
+            }
+            case ROLLING_PERCENTILE -> updatePercentiles(frame);
+        }
+        return active;
+    }
+
+    /**
+     * Estimates the low and high percentile of the frame from a histogram, then adds them to the rolling window.
+     */
+    private void updatePercentiles(double[] frame) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        int count = 0;
+        for(double val : frame) {
+            if(!Double.isFinite(val)) continue;
+            if(val < min) min = val;
+            if(val > max) max = val;
+            count++;
+        }
+
+        if(count == 0) {
+            return;
+        }
+
+        if(max > min) {
+            Arrays.fill(histogram, 0);
+            double binScale = HISTOGRAM_BINS / (max - min);
+            for(double val : frame) {
+                if(!Double.isFinite(val)) continue;
+                histogram[Math.min(HISTOGRAM_BINS - 1, (int) ((val - min) * binScale))]++;
+            }
+        }
+        addPercentiles(count, min, max);
+    }
+
+    /**
+     * Reads the low and high percentile from the histogram of a frame's finite values, then adds them to the rolling
+     * window
+     */
+    private void addPercentiles(int count, double min, double max) {
+        double low = min;
+        double high = max;
+        if(max > min) {
+            low = percentileValue(lowPercentile * count, min, max);
+            high = percentileValue(highPercentile * count, min, max);
+        }
+
+        if(windowCount == lowWindow.length) {
+            lowSum -= lowWindow[windowPos];
+            highSum -= highWindow[windowPos];
+        } else {
+            windowCount++;
+        }
+
+        lowWindow[windowPos] = low;
+        highWindow[windowPos] = high;
+        lowSum += low;
+        highSum += high;
+        windowPos = (windowPos + 1) % lowWindow.length;
+
+        setActive(lowSum / windowCount, highSum / windowCount);
+    }
+
+    /**
+     * @return the upper edge of the first histogram bin at which the cumulative count reaches {@code rank}
+     */
+    private double percentileValue(double rank, double min, double max) {
+        long cumulative = 0;
+        for(int i = 0; i < HISTOGRAM_BINS; i++) {
+            cumulative += histogram[i];
+            if(cumulative >= rank) {
+                return min + (max - min) * (i + 1) / HISTOGRAM_BINS;
+            }
+        }
+        return max;
+    }
+
+    private void setActive(double min, double max) {
+        active = new Range(min, max);
+    }
+
+    /**
+     * @return the active range, read this once when both ends are needed
+     */
+    public Range getRange() {
+        return active;
+    }
+
+    /**
+     * @return the value mapped onto the first color of the gradient
+     */
+    public double getMin() {
+        return active.min();
+    }
+
+    /**
+     * @return the value mapped onto the last color of the gradient
+     */
+    public double getMax() {
+        return active.max();
+    }
+
+    /**
+     * @return the factor that maps {@code value - getMin()} onto [0, 1], 0 if the active range is empty
+     */
+    public double getScale() {
+        return active.scale();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public synchronized void setMode(Mode mode) {
+        if(mode == null) {
+            return;
+        }
+
+        this.mode = mode;
+        resetWindow();
+        if(mode == Mode.FIXED) {
+            setActive(fixedMin, fixedMax);
+        }
+    }
+
+    /**
+     * Sets the range used by {@link Mode#FIXED} and switches to that mode.
+     * @param min value mapped onto the first color
+     * @param max value mapped onto the last color
+     * @throws IllegalArgumentException if max is not greater than min
+     */
+    public synchronized void setRange(double min, double max) {
+        if(!(max > min)) {
+            throw new IllegalArgumentException("Max must be greater than min, got min: " + min + ", max: " + max);
+        }
+
+        fixedMin = min;
+        fixedMax = max;
+        setMode(Mode.FIXED);
+    }
+
+    /**
+     * Sets the percentiles used by {@link Mode#ROLLING_PERCENTILE}
+     * @param low lower percentile between 0 and 1, e.g. 0.01
+     * @param high upper percentile between 0 and 1, e.g. 0.99
+     */
+    public synchronized void setPercentiles(double low, double high) {
+        if(low < 0 || high > 1 || low >= high) {
+            throw new IllegalArgumentException("Percentiles must satisfy 0 <= low < high <= 1, got " + low + ", " + high);
+        }
+
+        lowPercentile = low;
+        highPercentile = high;
+        resetWindow();
+    }
+
+    /**
+     * @param frames number of frames the percentiles are averaged over in {@link Mode#ROLLING_PERCENTILE}
+     */
+    public synchronized void setWindowSize(int frames) {
+        if(frames <= 0) {
+            throw new IllegalArgumentException("Window size must be > 0!");
+        }
+
+        lowWindow = new double[frames];
+        highWindow = new double[frames];
+        resetWindow();
+    }
+
+    public int getWindowSize() {
+        return lowWindow.length;
+    }
+
+    private void resetWindow() {
+        windowCount = 0;
+        windowPos = 0;
+        lowSum = 0;
+        highSum = 0;
+    }
+}
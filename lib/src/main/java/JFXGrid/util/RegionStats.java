@@ -0,0 +1,94 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.util;
+
+/**
+ * Statistics of a rectangle of cells, see {@link SummedAreaTable}. Cells holding NaN or infinite values are left out.
+ *
+ * @author aram-ap
+ */
+public final class RegionStats {
+    private final int count;
+    private final double sum;
+    private final double mean;
+    private final double variance;
+    private final double min;
+    private final double max;
+
+    public RegionStats(int count, double sum, double mean, double variance, double min, double max) {
+        this.count = count;
+        this.sum = sum;
+        this.mean = mean;
+        this.variance = variance;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @return the number of cells with data
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return the mean, NaN if no cell has data
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return the population variance, NaN if no cell has data
+     */
+    public double getVariance() {
+        return variance;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(variance);
+    }
+
+    /**
+     * @return the smallest value, NaN if no cell has data
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return the largest value, NaN if no cell has data
+     */
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d sum=%.4g mean=%.4g sd=%.4g min=%.4g max=%.4g",
+                count, sum, mean, getStandardDeviation(), min, max);
+    }
+}
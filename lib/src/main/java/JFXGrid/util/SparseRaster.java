@@ -0,0 +1,177 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.util;
+
+import JFXGrid.data.SparseFrame;
+import JFXGrid.metrics.ColorizeEvent;
+
+import java.util.Arrays;
+
+/**
+ * Rasterizes sparse frames into a persistent row-major ARGB image. The background (the color of 0) is filled once,
+ * then each frame only puts back the background under the cells the previous frame painted and paints its own
+ * non-zero cells, so a frame costs O(non-zero cells) instead of O(rows * columns). The whole image is only repainted
+ * when the colors change: a new lookup table, normalizer range, or mask.
+ * <p>
+ * Not thread-safe, meant to be drawn on the JavaFX thread into a PixelBuffer wrapping {@link #getPixels()}.
+ *
+ * @author aram-ap
+ */
+public class SparseRaster {
+    private final int rows;
+    private final int columns;
+    private final int[] pixels;
+
+    //Pixels painted by the last frame, which are reset to the background before the next one is painted
+    private int[] painted = new int[0];
+    private int paintedCount;
+
+    //The colors the image was last filled with, if any of them change the whole image is repainted
+    private int[] lut;
+    private double min = Double.NaN;
+    private double scale = Double.NaN;
+    private long[] maskWords;
+    private int maskColor;
+
+    public SparseRaster(int rows, int columns) {
+        if(rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("Rows and columns must be > 0, got " + rows + ", " + columns);
+        }
+
+        this.rows = rows;
+        this.columns = columns;
+        this.pixels = new int[rows * columns];
+    }
+
+    /**
+     * Draws the next frame into the pixels, without ever expanding it
+     * @param sparse the frame, of this raster's rows and columns
+     * @param theme colors and normalization
+     * @param mask cells to draw in the mask color, ignored if null or of a different size
+     * @param maskColor pre-multiplied ARGB color of masked cells
+     * @return true if the whole image was repainted, false if only the changed cells were
+     */
+    public boolean draw(SparseFrame sparse, Colorizer theme, CellMask mask, int maskColor) {
+        return draw(sparse, theme, mask, maskColor, -1, 0);
+    }
+
+    /**
+     * Draws the next frame like {@link #draw(SparseFrame, Colorizer, CellMask, int)}, tagging the ColorizeEvent with
+     * the grid and frame it was drawn for
+     * @param gridId id of the grid being drawn, -1 if none
+     * @param frameNum number of the frame being drawn, 0 if unknown
+     */
+    public boolean draw(SparseFrame sparse, Colorizer theme, CellMask mask, int maskColor, int gridId, int frameNum) {
+        if(sparse.getRows() != rows || sparse.getColumns() != columns) {
+            throw new IllegalArgumentException("Expected a " + rows + "x" + columns + " frame, got "
+                    + sparse.getRows() + "x" + sparse.getColumns());
+        }
+
+        final int[] lut = theme.getLookupTable();
+        if(lut == null || lut.length == 0) {
+            return false;
+        }
+
+        ColorizeEvent event = new ColorizeEvent();
+        event.begin();
+
+        final Normalizer normalizer = theme.getNormalizer();
+        final Normalizer.Range range = normalizer.update(sparse);
+        final double min = range.min();
+        final double scale = range.scale();
+        final double lutScale = lut.length - 1;
+        final long[] words = mask != null && mask.getRows() == rows && mask.getColumns() == columns ? mask.words() : null;
+        final int background = color(0, lut, min, scale, lutScale);
+
+        boolean full = lut != this.lut || Double.compare(min, this.min) != 0 || Double.compare(scale, this.scale) != 0
+                || maskColor != this.maskColor || !Arrays.equals(words, maskWords);
+        if(full) {
+            Arrays.fill(pixels, background);
+            if(words != null) {
+                for(int pixel = 0; pixel < pixels.length; pixel++) {
+                    if((words[pixel >>> 6] & (1L << pixel)) != 0) {
+                        pixels[pixel] = maskColor;
+                    }
+                }
+            }
+
+            this.lut = lut;
+            this.min = min;
+            this.scale = scale;
+            this.maskColor = maskColor;
+            maskWords = words == null ? null : words.clone();
+        } else {
+            for(int i = 0; i < paintedCount; i++) {
+                int pixel = painted[i];
+                pixels[pixel] = words != null && (words[pixel >>> 6] & (1L << pixel)) != 0 ? maskColor : background;
+            }
+        }
+
+        final int nonZeros = sparse.getNonZeros();
+        if(painted.length < nonZeros) {
+            painted = new int[Math.max(nonZeros, painted.length * 2)];
+        }
+        for(int i = 0; i < nonZeros; i++) {
+            //Frames are column-major, pixels row-major
+            int index = sparse.getIndex(i);
+            int pixel = (index % rows) * columns + index / rows;
+            painted[i] = pixel;
+            if(words == null || (words[pixel >>> 6] & (1L << pixel)) == 0) {
+                pixels[pixel] = color(sparse.getValue(i), lut, min, scale, lutScale);
+            }
+        }
+        paintedCount = nonZeros;
+
+        event.end();
+        if(event.shouldCommit()) {
+            event.gridId = gridId;
+            event.frameNum = frameNum;
+            event.rows = rows;
+            event.cols = columns;
+            event.lutSize = lut.length;
+            event.vectorized = false;
+            event.normalizerMode = normalizer.getMode().name();
+            event.commit();
+        }
+        return full;
+    }
+
+    private static int color(double val, int[] lut, double min, double scale, double lutScale) {
+        int index = ImageGenerator.lookupIndex(val, min, scale, lutScale);
+        return index < 0 ? 0 : lut[index];
+    }
+
+    /**
+     * @return the row-major pre-multiplied ARGB pixels, the same array for the raster's lifetime
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+}
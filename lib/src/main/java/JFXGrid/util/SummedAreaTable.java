@@ -0,0 +1,224 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.util;
+
+import java.util.Arrays;
+
+/**
+ * Summed-area (integral) tables of a frame's values, squared values and data counts, for statistics over any
+ * rectangle of cells in O(1) no matter its size. Min/max can't be taken from a prefix sum, so the table also keeps the
+ * min/max of each 16x16 block. A min/max query reads the blocks fully inside the rectangle and scans the cells along its
+ * edges, roughly (area / 256 + perimeter * 16) reads.
+ * <p>
+ * Everything is built in one pass over the frame by {@link #build}. Values are stored relative to the frame's first
+ * finite value, which keeps the variance from cancelling out on data with a large offset.
+ * NaN and infinite values count as missing data.
+ *
+ * @author aram-ap
+ */
+public class SummedAreaTable {
+    private static final int BLOCK = 16;
+
+    private final int rows;
+    private final int columns;
+
+    //(columns + 1) * (rows + 1) tables, column-major like the frames. Column 0 and row 0 stay 0
+    private final double[] sums;
+    private final double[] squares;
+    private final int[] counts;
+    private double shift;
+
+    private final int blockRows;
+    private final double[] blockMin;
+    private final double[] blockMax;
+
+    private double[] frame;
+
+    public SummedAreaTable(int rows, int columns) {
+        if(rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("Rows and columns must be > 0, got " + rows + ", " + columns);
+        }
+
+        this.rows = rows;
+        this.columns = columns;
+        int size = (columns + 1) * (rows + 1);
+        sums = new double[size];
+        squares = new double[size];
+        counts = new int[size];
+
+        blockRows = (rows + BLOCK - 1) / BLOCK;
+        int blocks = blockRows * ((columns + BLOCK - 1) / BLOCK);
+        blockMin = new double[blocks];
+        blockMax = new double[blocks];
+    }
+
+    /**
+     * Builds the tables for a frame. The frame is kept to scan rectangle edges for min/max, so it must not change
+     * until the next build.
+     * @param frame column-major frame of rows * columns values
+     */
+    public void build(double[] frame) {
+        if(frame.length != rows * columns) {
+            throw new IllegalArgumentException("Expected a frame of " + (rows * columns) + " values, got " + frame.length);
+        }
+
+        this.frame = frame;
+        shift = 0;
+        for(double val : frame) {
+            if(Double.isFinite(val)) {
+                shift = val;
+                break;
+            }
+        }
+        Arrays.fill(blockMin, Double.POSITIVE_INFINITY);
+        Arrays.fill(blockMax, Double.NEGATIVE_INFINITY);
+
+        final int stride = rows + 1;
+        for(int x = 0; x < columns; x++) {
+            double colSum = 0, colSquares = 0;
+            int colCount = 0;
+            final int src = x * rows;
+            final int left = x * stride + 1;
+            final int dst = left + stride;
+            final int blockCol = (x / BLOCK) * blockRows;
+
+            for(int y = 0; y < rows; y++) {
+                double val = frame[src + y];
+                if(Double.isFinite(val)) {
+                    double d = val - shift;
+                    colSum += d;
+                    colSquares += d * d;
+                    colCount++;
+
+                    int block = blockCol + y / BLOCK;
+                    if(val < blockMin[block]) {
+                        blockMin[block] = val;
+                    }
+                    if(val > blockMax[block]) {
+                        blockMax[block] = val;
+                    }
+                }
+
+                sums[dst + y] = sums[left + y] + colSum;
+                squares[dst + y] = squares[left + y] + colSquares;
+                counts[dst + y] = counts[left + y] + colCount;
+            }
+        }
+    }
+
+    /**
+     * Gets the statistics of a rectangle of cells, corners are inclusive and may be given in any order
+     * @throws IllegalArgumentException if a corner is outside the grid
+     * @throws IllegalStateException if nothing has been built yet
+     */
+    public RegionStats query(int row0, int col0, int row1, int col1) {
+        if(frame == null) {
+            throw new IllegalStateException("No frame has been built yet");
+        }
+        if(Math.min(row0, row1) < 0 || Math.max(row0, row1) >= rows
+                || Math.min(col0, col1) < 0 || Math.max(col0, col1) >= columns) {
+            throw new IllegalArgumentException("Region (" + row0 + ", " + col0 + ") to (" + row1 + ", " + col1
+                    + ") is outside the " + rows + "x" + columns + " grid");
+        }
+
+        int top = Math.min(row0, row1), bottom = Math.max(row0, row1);
+        int left = Math.min(col0, col1), right = Math.max(col0, col1);
+
+        int count = rectangle(counts, top, left, bottom, right);
+        if(count == 0) {
+            return new RegionStats(0, 0, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        }
+
+        double sum = rectangle(sums, top, left, bottom, right);
+        double sumSquares = rectangle(squares, top, left, bottom, right);
+        double meanShifted = sum / count;
+        double variance = Math.max(0, sumSquares / count - meanShifted * meanShifted);
+
+        double[] minMax = minMax(top, left, bottom, right);
+        return new RegionStats(count, sum + shift * count, meanShifted + shift, variance, minMax[0], minMax[1]);
+    }
+
+    private double rectangle(double[] table, int top, int left, int bottom, int right) {
+        final int stride = rows + 1;
+        return table[(right + 1) * stride + bottom + 1] - table[left * stride + bottom + 1]
+                - table[(right + 1) * stride + top] + table[left * stride + top];
+    }
+
+    private int rectangle(int[] table, int top, int left, int bottom, int right) {
+        final int stride = rows + 1;
+        return table[(right + 1) * stride + bottom + 1] - table[left * stride + bottom + 1]
+                - table[(right + 1) * stride + top] + table[left * stride + top];
+    }
+
+    private double[] minMax(int top, int left, int bottom, int right) {
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+
+        //Blocks entirely inside the rectangle, [blockLeft, blockRight) x [blockTop, blockBottom)
+        int blockLeft = (left + BLOCK - 1) / BLOCK, blockRight = (right + 1) / BLOCK;
+        int blockTop = (top + BLOCK - 1) / BLOCK, blockBottom = (bottom + 1) / BLOCK;
+        boolean inner = blockLeft < blockRight && blockTop < blockBottom;
+        if(inner) {
+            for(int bx = blockLeft; bx < blockRight; bx++) {
+                for(int by = blockTop; by < blockBottom; by++) {
+                    int block = bx * blockRows + by;
+                    min = Math.min(min, blockMin[block]);
+                    max = Math.max(max, blockMax[block]);
+                }
+            }
+        }
+
+        //Cells around the inner blocks
+        int innerLeft = blockLeft * BLOCK, innerRight = blockRight * BLOCK;
+        int innerTop = blockTop * BLOCK, innerBottom = blockBottom * BLOCK;
+        for(int x = left; x <= right; x++) {
+            int base = x * rows;
+            boolean innerColumn = inner && x >= innerLeft && x < innerRight;
+            for(int y = top; y <= bottom; y++) {
+                if(innerColumn && y == innerTop) {
+                    y = innerBottom - 1;
+                    continue;
+                }
+
+                double val = frame[base + y];
+                if(!Double.isFinite(val)) {
+                    continue;
+                }
+                if(val < min) {
+                    min = val;
+                }
+                if(val > max) {
+                    max = val;
+                }
+            }
+        }
+
+        return new double[]{min, max};
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+}
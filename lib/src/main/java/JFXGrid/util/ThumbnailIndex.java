@@ -0,0 +1,330 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.util;
+
+import JFXGrid.data.ChunkStats;
+import JFXGrid.data.JFXDataset;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Small thumbnails of evenly spaced frames across a whole dataset, e.g. to preview any point of a timeline or scrubber
+ * while hovering it, without reading the full frames.
+ * <p>
+ * Thumbnails are built on a single low priority background thread: each sampled frame is read through
+ * {@link JFXDataset#frame(int)} (so the dataset's own current frame doesn't move), shrunk by averaging the cells under
+ * each thumbnail pixel and colorized through {@link ImageGenerator#fillARGB}. Every thumbnail is stored back to back in
+ * one contiguous pre-multiplied ARGB array. They are built coarse to fine (the first, middle, quarters, ...), so the
+ * whole timeline can be previewed early on and {@link #nearestBuilt} only gets more precise as the build goes on.
+ * <p>
+ * Colors use a single value range for every thumbnail, the whole dataset's range from its chunk stats unless set with
+ * {@link #setRange}. The lookup table is read while building, build a new index to follow a change of theme.
+ * Thumbnails can be read from any thread while they're being built.
+ *
+ * @author aram-ap
+ */
+public class ThumbnailIndex {
+    public static final int DEFAULT_SIZE = 64;
+
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "JFXGrid-Thumbnails");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private final JFXDataset dataset;
+    private final Colorizer colorizer;
+    private final int count;
+    private final int width;
+    private final int height;
+    private final int[] frameNums;
+
+    //Each thumbnail's pixels, row-major, thumbnail i starting at i * width * height
+    private final int[] pixels;
+    //1 once a thumbnail is built, set after its pixels are written so reading a set flag makes them visible
+    private final AtomicIntegerArray built;
+    private volatile int builtCount;
+
+    private double min = Double.NaN, max = Double.NaN;
+    private CompletableFuture<ThumbnailIndex> future;
+    private volatile boolean cancelled;
+
+    /**
+     * Thumbnails fitting {@link #DEFAULT_SIZE} x {@link #DEFAULT_SIZE} pixels
+     * @param count number of evenly spaced frames to sample, at most the number of frames
+     */
+    public ThumbnailIndex(JFXDataset dataset, Colorizer colorizer, int count) {
+        this(dataset, colorizer, count, DEFAULT_SIZE);
+    }
+
+    /**
+     * @param dataset dataset to sample, frames added to it afterwards aren't covered
+     * @param colorizer colors of the thumbnails
+     * @param count number of evenly spaced frames to sample, at most the number of frames
+     * @param size the longest side of a thumbnail in pixels, the aspect ratio of the grid is kept. Grids smaller than
+     *             this aren't enlarged
+     */
+    public ThumbnailIndex(JFXDataset dataset, Colorizer colorizer, int count, int size) {
+        if(dataset == null || colorizer == null) {
+            throw new IllegalArgumentException("Dataset and colorizer cannot be null!");
+        }
+        if(size <= 0) {
+            throw new IllegalArgumentException("Size must be > 0, got " + size);
+        }
+
+        this.dataset = dataset;
+        this.colorizer = colorizer;
+        this.count = Math.max(0, Math.min(count, dataset.size()));
+
+        int rows = dataset.getNumRows(), cols = dataset.getNumColumns();
+        if(cols >= rows) {
+            width = Math.min(cols, size);
+            height = Math.max(1, Math.min(rows, (int) Math.round((double) rows * width / cols)));
+        } else {
+            height = Math.min(rows, size);
+            width = Math.max(1, Math.min(cols, (int) Math.round((double) cols * height / rows)));
+        }
+
+        frameNums = new int[this.count];
+        for(int i = 0; i < this.count; i++) {
+            frameNums[i] = this.count == 1 ? 1 : 1 + (int) ((long) i * (dataset.size() - 1) / (this.count - 1));
+        }
+        pixels = new int[this.count * width * height];
+        built = new AtomicIntegerArray(this.count);
+    }
+
+    /**
+     * Sets the value range of the thumbnail colors, instead of the dataset's range. Must be called before {@link #start()}
+     * @param min value mapped onto the first color
+     * @param max value mapped onto the last color
+     */
+    public synchronized void setRange(double min, double max) {
+        if(!(max > min)) {
+            throw new IllegalArgumentException("Max must be greater than min, got min: " + min + ", max: " + max);
+        }
+        if(future != null) {
+            throw new IllegalStateException("The thumbnails are already being built");
+        }
+
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Starts building the thumbnails in the background. Calling it again returns the same future
+     * @return completes with this index once every thumbnail is built
+     */
+    public synchronized CompletableFuture<ThumbnailIndex> start() {
+        if(future == null) {
+            future = CompletableFuture.supplyAsync(() -> {
+                buildAll();
+                return this;
+            }, worker);
+        }
+        return future;
+    }
+
+    /**
+     * Stops the build after the thumbnail in progress, thumbnails already built stay readable
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    private void buildAll() {
+        if(!(max > min)) {
+            resolveRange();
+        }
+
+        final int rows = dataset.getNumRows(), cols = dataset.getNumColumns();
+        final double[] thumbnail = new double[width * height];
+        final double[] sums = new double[width * height];
+        final int[] counts = new int[width * height];
+
+        //Bit-reversed order visits the samples coarse to fine
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(1, count - 1)));
+        for(int n = 0; n < 1 << bits && !cancelled; n++) {
+            int i = Integer.reverse(n) >>> (32 - bits);
+            if(i >= count) {
+                continue;
+            }
+
+            double[] frame = dataset.frame(frameNums[i]);
+            if(frame == null) {
+                continue;
+            }
+
+            shrink(frame, rows, cols, thumbnail, sums, counts);
+            ImageGenerator.fillARGB(height, width, thumbnail, colorizer, min, max, pixels, i * width * height);
+            built.set(i, 1);
+            builtCount++;
+        }
+    }
+
+    /**
+     * Uses the range of the whole dataset, from its chunk stats
+     */
+    private void resolveRange() {
+        double low = Double.POSITIVE_INFINITY, high = Double.NEGATIVE_INFINITY;
+        for(ChunkStats stats : dataset.getChunkStats()) {
+            if(stats.getMin() == stats.getMin()) {
+                low = Math.min(low, stats.getMin());
+                high = Math.max(high, stats.getMax());
+            }
+        }
+
+        min = low <= high ? low : 0;
+        max = low <= high ? high : 1;
+    }
+
+    /**
+     * Averages the finite cells under each thumbnail pixel into a column-major thumbnail, NaN if there's none
+     */
+    private void shrink(double[] frame, int rows, int cols, double[] thumbnail, double[] sums, int[] counts) {
+        Arrays.fill(sums, 0);
+        Arrays.fill(counts, 0);
+        for(int x = 0; x < cols; x++) {
+            int tx = (int) ((long) x * width / cols);
+            int base = x * rows;
+            for(int y = 0; y < rows; y++) {
+                double val = frame[base + y];
+                if(Double.isFinite(val)) {
+                    int cell = tx * height + (int) ((long) y * height / rows);
+                    sums[cell] += val;
+                    counts[cell]++;
+                }
+            }
+        }
+
+        for(int i = 0; i < thumbnail.length; i++) {
+            thumbnail[i] = counts[i] == 0 ? Double.NaN : sums[i] / counts[i];
+        }
+    }
+
+    /**
+     * @return the number of thumbnails
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return width of each thumbnail in pixels
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return height of each thumbnail in pixels
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the number of thumbnails built so far
+     */
+    public int getBuiltCount() {
+        return builtCount;
+    }
+
+    /**
+     * @return true once every thumbnail is built
+     */
+    public boolean isDone() {
+        return builtCount == count;
+    }
+
+    /**
+     * @return the frame number shown by a thumbnail
+     */
+    public int getFrameNum(int index) {
+        return frameNums[index];
+    }
+
+    /**
+     * @return the thumbnail sampled closest to the frame, -1 if there are none
+     */
+    public int indexOf(int frameNum) {
+        if(count == 0) {
+            return -1;
+        }
+        if(count == 1) {
+            return 0;
+        }
+
+        long frame = Math.max(1, Math.min(dataset.size(), frameNum));
+        int index = (int) Math.round((double) (frame - 1) * (count - 1) / Math.max(1, dataset.size() - 1));
+        return Math.max(0, Math.min(count - 1, index));
+    }
+
+    /**
+     * @return true if the thumbnail is built and its pixels can be read
+     */
+    public boolean isBuilt(int index) {
+        return built.get(index) != 0;
+    }
+
+    /**
+     * Finds the built thumbnail closest to a frame, e.g. for the point of the timeline under the mouse
+     * @return the thumbnail index, -1 if none is built yet
+     */
+    public int nearestBuilt(int frameNum) {
+        int index = indexOf(frameNum);
+        if(index < 0 || builtCount == 0) {
+            return -1;
+        }
+
+        for(int d = 0; d < count; d++) {
+            if(index - d >= 0 && built.get(index - d) != 0) {
+                return index - d;
+            }
+            if(index + d < count && built.get(index + d) != 0) {
+                return index + d;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the cache holding every thumbnail. Thumbnail i is {@link #getHeight()} rows of {@link #getWidth()}
+     * pre-multiplied ARGB pixels starting at {@link #getOffset}(i), e.g. for
+     * {@code PixelWriter.setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), pixels, offset, width)}.
+     * The array is shared, don't modify it.
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    /**
+     * @return the index in {@link #getPixels()} of a thumbnail's first pixel
+     */
+    public int getOffset(int index) {
+        return index * width * height;
+    }
+}
@@ -0,0 +1,89 @@
+//MIT License
+//
+//Copyright (c) 2024 Aram Aprahamian
+//
+//Permission is hereby granted, free of charge, to any person obtaining a copy
+//of this software and associated documentation files (the "Software"), to deal
+//in the Software without restriction, including without limitation the rights
+//to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//copies of the Software, and to permit persons to whom the Software is
+//furnished to do so, subject to the following conditions:
+//
+//The above copyright notice and this permission notice shall be included in all
+//copies or substantial portions of the Software.
+//
+//THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+//SOFTWARE.
+package JFXGrid.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernel used by the ImageGenerator to turn matrix values into color lookup table indices a whole vector lane at
+ * a time. Only loaded when the jdk.incubator.vector module is present, see {@link ImageGenerator#isVectorized()}.
+ *
+ * @author aram-ap
+ */
+final class VectorColorKernel {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    //Integer species with the same number of lanes as the double species, so one conversion fills exactly one vector
+    private static final VectorSpecies<Integer> INTS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.length() * Integer.SIZE));
+
+    private VectorColorKernel() { }
+
+    /**
+     * @return true if the platform offers more than a single double lane
+     */
+    static boolean isSupported() {
+        return DOUBLES.length() > 1;
+    }
+
+    /**
+     * Computes the lookup table index of {@code length} values starting at {@code src[offset]}. Each value is
+     * normalized with {@code (value - min) * scale} and clamped to [0, 1]. NaN values are given the index -1.
+     *
+     * @param src source matrix
+     * @param offset index of the first value to convert
+     * @param length number of values to convert
+     * @param min value mapped onto the first color
+     * @param scale factor mapping {@code value - min} onto [0, 1]
+     * @param lutSize size of the color lookup table
+     * @param dst destination for the indices, starting at 0
+     */
+    static void computeIndices(final double[] src, final int offset, final int length, final double min,
+                               final double scale, final int lutSize, final int[] dst) {
+        final double lutScale = lutSize - 1;
+        final int lanes = DOUBLES.length();
+        final int bound = DOUBLES.loopBound(length);
+
+        int i = 0;
+        for(; i < bound; i += lanes) {
+            //min/max propagate NaN, which is then flagged in the double domain so the mask never has to change shape
+            DoubleVector values = DoubleVector.fromArray(DOUBLES, src, offset + i)
+                    .sub(min).mul(scale)
+                    .max(0d).min(1d)
+                    .mul(lutScale);
+            VectorMask<Double> isNaN = values.test(VectorOperators.IS_NAN);
+
+            values.blend(-1d, isNaN)
+                    .convertShape(VectorOperators.D2I, INTS, 0)
+                    .reinterpretAsInts()
+                    .intoArray(dst, i);
+        }
+
+        for(; i < length; i++) {
+            dst[i] = ImageGenerator.lookupIndex(src[offset + i], min, scale, lutScale);
+        }
+    }
+}
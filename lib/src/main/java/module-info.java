@@ -6,6 +6,9 @@ module JFXGrid {
     requires ojalgo;
     requires org.slf4j;
     requires org.apache.commons.lang3;
+    requires static jdk.incubator.vector;
+    requires java.management;
+    requires jdk.jfr;
 
     exports JFXGrid.core;
     exports JFXGrid.util;
@@ -13,4 +16,5 @@ module JFXGrid {
     exports JFXGrid.data;
     exports JFXGrid.events;
     exports JFXGrid.renderer;
+    exports JFXGrid.metrics;
 }
\ No newline at end of file
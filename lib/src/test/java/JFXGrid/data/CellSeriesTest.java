@@ -0,0 +1,106 @@
+package JFXGrid.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class CellSeriesTest {
+
+    @Test
+    void seriesMatchFrames(@TempDir Path dir) throws Exception {
+        int rows = 5, cols = 6, numFrames = 53;
+        Random rand = new Random(3);
+        double[][] frames = new double[numFrames][rows * cols];
+        JFXDatasetFactory memory = new JFXDatasetFactory(rows, cols);
+        JFXDatasetFactory paged = new JFXDatasetFactory(rows, cols);
+        for(double[] frame : frames) {
+            for(int i = 0; i < frame.length; i++) {
+                frame[i] = rand.nextGaussian();
+            }
+            memory.add(frame);
+            paged.add(frame);
+        }
+        memory.setDataType(JFXDatasetFactory.DataType.Batch_Chunking).setChunkSize(10);
+        paged.setDataType(JFXDatasetFactory.DataType.Batch_Chunking).setChunkSize(10)
+                .setChunkFileManager(new ChunkFileManager(dir));
+
+        JFXDataset pagedData = paged.build();
+        try(CellSeries inMemory = CellSeries.build(memory.build(), 8).get();
+            CellSeries stored = CellSeries.build(pagedData, 8).get();
+            CellSeries reopened = CellSeries.open(pagedData)) {
+            assertNotNull(reopened);
+            assertEquals(8, reopened.getBlockFrames());
+
+            for(CellSeries series : new CellSeries[]{inMemory, stored, reopened}) {
+                for(int col = 0; col < cols; col++) {
+                    for(int row = 0; row < rows; row++) {
+                        assertArrayEquals(expected(frames, col * rows + row, 1, numFrames), series.series(row, col));
+                    }
+                }
+                assertArrayEquals(expected(frames, 7, 6, 19), series.series(2, 1, 6, 19));
+
+                double[][] region = series.region(1, 2, 3, 4, 12, 50);
+                assertEquals(9, region.length);
+                for(int col = 2; col <= 4; col++) {
+                    for(int row = 1; row <= 3; row++) {
+                        assertArrayEquals(expected(frames, col * rows + row, 12, 50), region[(col - 2) * 3 + row - 1]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void tilesSplitIntoBands(@TempDir Path dir) throws Exception {
+        //Tiles of 32x32 with partial tiles on both edges, built a couple of tiles at a time
+        int rows = 70, cols = 45, numFrames = 21;
+        Random rand = new Random(4);
+        double[][] frames = new double[numFrames][rows * cols];
+        JFXDatasetFactory memory = new JFXDatasetFactory(rows, cols);
+        JFXDatasetFactory paged = new JFXDatasetFactory(rows, cols);
+        for(double[] frame : frames) {
+            for(int i = 0; i < frame.length; i++) {
+                frame[i] = rand.nextGaussian();
+            }
+            memory.add(frame);
+            paged.add(frame);
+        }
+        memory.setDataType(JFXDatasetFactory.DataType.Batch_Chunking).setChunkSize(4);
+        paged.setDataType(JFXDatasetFactory.DataType.Batch_Chunking).setChunkSize(4)
+                .setChunkFileManager(new ChunkFileManager(dir));
+
+        int bufferBytes = 2 * 32 * 32 * 5 * Double.BYTES;
+        try(CellSeries inMemory = CellSeries.build(memory.build(), 5, bufferBytes).get();
+            CellSeries stored = CellSeries.build(paged.build(), 5, bufferBytes).get()) {
+            for(CellSeries series : new CellSeries[]{inMemory, stored}) {
+                for(int col = 0; col < cols; col += 4) {
+                    for(int row = 0; row < rows; row += 3) {
+                        assertArrayEquals(expected(frames, col * rows + row, 1, numFrames), series.series(row, col));
+                    }
+                }
+
+                //Crosses tiles both ways
+                double[][] region = series.region(28, 29, 66, 44, 3, 19);
+                for(int col = 29; col <= 44; col++) {
+                    for(int row = 28; row <= 66; row++) {
+                        assertArrayEquals(expected(frames, col * rows + row, 3, 19), region[(col - 29) * 39 + row - 28]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static double[] expected(double[][] frames, int cell, int fromFrame, int toFrame) {
+        double[] out = new double[toFrame - fromFrame + 1];
+        for(int f = fromFrame; f <= toFrame; f++) {
+            out[f - fromFrame] = frames[f - 1][cell];
+        }
+        return out;
+    }
+}
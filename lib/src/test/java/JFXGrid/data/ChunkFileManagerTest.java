@@ -0,0 +1,104 @@
+package JFXGrid.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChunkFileManagerTest {
+
+    @Test
+    void roundTrip(@TempDir Path dir) throws IOException {
+        ChunkFileManager manager = new ChunkFileManager(dir);
+        double[][] frames = {{1, 2, 3, 4, 5, 6}, {Double.NaN, -1, 0.5, 1e300, 0, 7}};
+        manager.write(new DataChunk(frames, 10), 2, 3);
+        manager.write(new DataChunk(new double[][]{new double[6]}, 12), 2, 3);
+
+        DataChunk chunk = manager.read(10, 2, 3);
+        assertEquals(10, chunk.uid);
+        assertArrayEquals(frames, chunk.toList());
+        assertThrows(IOException.class, () -> manager.read(10, 3, 2));
+
+        assertEquals(13, manager.getTotalFrames());
+        assertEquals(10, manager.getChunkUid(12));
+        assertEquals(12, manager.getChunkUid(13));
+        assertEquals(-1, manager.getChunkUid(14));
+        assertEquals(12, manager.getNextUid(10));
+        assertEquals(-1, manager.getPreviousUid(10));
+    }
+
+    @Test
+    void indexesExistingFiles(@TempDir Path dir) throws IOException {
+        new ChunkFileManager(dir).write(new DataChunk(new double[][]{{1}, {2}, {3}}, 0), 1, 1);
+
+        ChunkFileManager reopened = new ChunkFileManager(dir);
+        assertEquals(1, reopened.getNumChunks());
+        assertEquals(3, reopened.getTotalFrames());
+        assertArrayEquals(new double[]{2}, reopened.read(0, 1, 1).gotoFrame(2));
+    }
+
+    @Test
+    void statsPersistWithChunk(@TempDir Path dir) throws IOException {
+        int rows = 5, cols = 4;
+        Random rand = new Random(11);
+        double[][] frames = new double[9][rows * cols];
+        for(double[] frame : frames) {
+            for(int i = 0; i < frame.length; i++) {
+                frame[i] = rand.nextInt(4) == 0 ? 0 : rand.nextGaussian() * 10;
+            }
+        }
+        frames[2][3] = Double.NaN;
+        frames[4][0] = Double.POSITIVE_INFINITY;
+
+        //Every other frame held sparse, which must summarize the same as dense
+        List<double[]> dense = Arrays.asList(frames.clone());
+        SparseFrame[] sparse = new SparseFrame[frames.length];
+        for(int f = 0; f < frames.length; f += 2) {
+            sparse[f] = SparseFrame.fromDense(rows, cols, frames[f]);
+            dense.set(f, null);
+        }
+        DataChunk chunk = new DataChunk(dense, Arrays.asList(sparse), 0);
+        new ChunkFileManager(dir).write(chunk, rows, cols);
+
+        ChunkStats stats = new ChunkFileManager(dir).readStats(0);
+        assertEquals(frames.length, stats.size());
+        assertEquals(2, stats.getNonFinite());
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        for(int f = 0; f < frames.length; f++) {
+            double frameMin = Double.POSITIVE_INFINITY, frameMax = Double.NEGATIVE_INFINITY, sum = 0;
+            int nonFinite = 0;
+            for(double val : frames[f]) {
+                if(!Double.isFinite(val)) {
+                    nonFinite++;
+                    continue;
+                }
+                frameMin = Math.min(frameMin, val);
+                frameMax = Math.max(frameMax, val);
+                sum += val;
+            }
+            min = Math.min(min, frameMin);
+            max = Math.max(max, frameMax);
+
+            assertEquals(frameMin, stats.getMin(f + 1));
+            assertEquals(frameMax, stats.getMax(f + 1));
+            assertEquals(sum, stats.getSum(f + 1), 1e-9);
+            assertEquals(nonFinite, stats.getNonFinite(f + 1));
+            assertEquals(rows * cols - nonFinite, Arrays.stream(stats.getHistogram(f + 1)).sum());
+        }
+        assertEquals(min, stats.getMin());
+        assertEquals(max, stats.getMax());
+        assertEquals(stats.getCount(), Arrays.stream(stats.getHistogram()).sum());
+
+        //The chunk read back carries the same stats
+        ChunkStats read = new ChunkFileManager(dir).read(0, rows, cols).getStats();
+        assertArrayEquals(stats.getHistogram(), read.getHistogram());
+    }
+}
@@ -0,0 +1,98 @@
+package JFXGrid.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EventBinnerTest {
+
+    @Test
+    void matchesBruteForce() {
+        int rows = 300, cols = 250, numEvents = 200_000;
+        long window = 1000;
+        Random rand = new Random(3);
+        int[] x = new int[numEvents], y = new int[numEvents];
+        long[] t = new long[numEvents];
+        double[] values = new double[numEvents];
+        long time = 0;
+        for(int i = 0; i < numEvents; i++) {
+            //A few events fall outside the grid, and one long gap leaves empty windows
+            x[i] = rand.nextInt(cols + 2) - 1;
+            y[i] = rand.nextInt(rows);
+            time += i == numEvents / 2 ? 3 * window : rand.nextInt(3);
+            t[i] = time;
+            values[i] = rand.nextDouble();
+        }
+
+        int numFrames = (int) (time / window) + 1;
+        double[][] expected = new double[numFrames][rows * cols];
+        long outside = 0;
+        for(int i = 0; i < numEvents; i++) {
+            if(x[i] < 0 || x[i] >= cols) {
+                outside++;
+                continue;
+            }
+            expected[(int) (t[i] / window)][x[i] * rows + y[i]] += values[i];
+        }
+
+        List<double[]> frames = new ArrayList<>();
+        EventBinner binner = new EventBinner(rows, cols, window, 4).setSink(frames::add);
+        binner.addAll(x, y, t, values, 0, 1000);
+        binner.addAll(x, y, t, values, 1000, numEvents - 1000);
+        binner.flush();
+
+        assertEquals(numFrames, frames.size());
+        assertEquals(outside, binner.getDroppedEvents());
+        for(int f = 0; f < numFrames; f++) {
+            assertArrayEquals(expected[f], frames.get(f), 1e-9, "frame " + f);
+        }
+    }
+
+    @Test
+    void appendsToDeque() {
+        JFXDataDeque deque = (JFXDataDeque) new JFXDatasetFactory(2, 2)
+                .setDataType(JFXDatasetFactory.DataType.Batch_Chunking).setChunkSize(4).build();
+        EventBinner binner = new EventBinner(2, 2, 10).setSink(deque, 4);
+        for(int f = 0; f < 10; f++) {
+            binner.add(f % 2, 1, f * 10L + 5, f + 1);
+        }
+        //Late, and outside of the grid
+        binner.add(0, 0, 0, 1);
+        binner.add(2, 0, 100, 1);
+        binner.flush();
+
+        assertEquals(2, binner.getDroppedEvents());
+        assertEquals(10, binner.getFramesEmitted());
+        //Appended chunks are linked in by the next move
+        assertEquals(1, deque.moveToFrame(1).getFrame()[1]);
+        assertEquals(10, deque.size());
+        assertEquals(3, deque.getNumChunks());
+        for(int f = 2; f <= 10; f++) {
+            assertEquals(f, deque.stepForward()[(f - 1) % 2 * 2 + 1]);
+        }
+    }
+
+    @Test
+    void corruptEventsDontFloodSink() {
+        List<double[]> frames = new ArrayList<>();
+        EventBinner binner = new EventBinner(2, 2, 10).setMaxEmptyFrames(3).setSink(frames::add);
+        binner.add(0, 0, 5, 1);
+        //Outside of the grid with a far off time, must not move time forward
+        binner.add(-1, 0, Long.MAX_VALUE / 2, 1);
+        binner.add(1, 1, 15, 2);
+        //A long gap only leaves the capped number of empty frames
+        binner.add(0, 1, 10_005, 3);
+        binner.flush();
+
+        assertEquals(1, binner.getDroppedEvents());
+        assertEquals(6, frames.size());
+        assertEquals(995, binner.getSkippedWindows());
+        assertEquals(2, frames.get(1)[3]);
+        assertEquals(3, frames.get(5)[1]);
+    }
+}
@@ -0,0 +1,100 @@
+package JFXGrid.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrameQueryTest {
+
+    @Test
+    void matchesBruteForce(@TempDir Path dir) throws Exception {
+        int rows = 6, cols = 5, numFrames = 200;
+        Random rand = new Random(5);
+        double[][] frames = new double[numFrames][rows * cols];
+        JFXDatasetFactory factory = new JFXDatasetFactory(rows, cols);
+        for(int f = 0; f < numFrames; f++) {
+            for(int i = 0; i < frames[f].length; i++) {
+                frames[f][i] = rand.nextDouble();
+            }
+            //A few short events, all inside the last 5 chunks
+            if(f >= 150 && rand.nextInt(4) == 0) {
+                frames[f][rand.nextInt(frames[f].length)] = 5 + rand.nextDouble();
+            }
+            if(f % 37 == 0) {
+                frames[f][7] = Double.NaN;
+            }
+            factory.add(frames[f]);
+        }
+        JFXDataset data = factory.setDataType(JFXDatasetFactory.DataType.Batch_Chunking).setChunkSize(10)
+                .setChunkFileManager(new ChunkFileManager(dir)).build();
+
+        FrameQuery query = data.query().anyAbove(4);
+        assertArrayEquals(expected(frames, f -> max(f, rows, 0, 0, rows - 1, cols - 1) > 4), query.findAll());
+        //The whole frame's max settles every frame without reading any chunk
+        assertEquals(20, query.getSkippedChunks());
+        assertEquals(0, query.getScannedChunks());
+
+        query.region(1, 1, 3, 2);
+        assertArrayEquals(expected(frames, f -> max(f, rows, 1, 1, 3, 2) > 4), query.findAll());
+        assertEquals(15, query.getSkippedChunks());
+        assertEquals(5, query.getScannedChunks());
+
+        query.meanAbove(0.6);
+        assertArrayEquals(expected(frames, f -> mean(f, rows, 1, 1, 3, 2) > 0.6), query.findAll());
+        query.meanBelow(0.4).wholeFrame();
+        assertArrayEquals(expected(frames, f -> mean(f, rows, 0, 0, rows - 1, cols - 1) < 0.4), query.findAll());
+        query.anyBelow(0.01).region(0, 0, 2, 2);
+        assertArrayEquals(expected(frames, f -> min(f, rows, 0, 0, 2, 2) < 0.01), query.findAll());
+
+        int[] events = data.query().anyAbove(4).findAll();
+        assertTrue(events.length > 1);
+        assertEquals(events[0], query.anyAbove(4).wholeFrame().findNext(1));
+        assertEquals(events[1], query.findNext(events[0]));
+        assertEquals(events[0], query.findPrevious(events[1]));
+        assertEquals(-1, query.findPrevious(events[0]));
+        assertEquals(-1, query.findNext(events[events.length - 1]));
+    }
+
+    private static int[] expected(double[][] frames, Predicate<double[]> predicate) {
+        return IntStream.range(0, frames.length).filter(f -> predicate.test(frames[f])).map(f -> f + 1).toArray();
+    }
+
+    private static double max(double[] frame, int rows, int row0, int col0, int row1, int col1) {
+        double max = Double.NEGATIVE_INFINITY;
+        for(int c = col0; c <= col1; c++) for(int r = row0; r <= row1; r++) {
+            double val = frame[c * rows + r];
+            if(Double.isFinite(val)) max = Math.max(max, val);
+        }
+        return max;
+    }
+
+    private static double min(double[] frame, int rows, int row0, int col0, int row1, int col1) {
+        double min = Double.POSITIVE_INFINITY;
+        for(int c = col0; c <= col1; c++) for(int r = row0; r <= row1; r++) {
+            double val = frame[c * rows + r];
+            if(Double.isFinite(val)) min = Math.min(min, val);
+        }
+        return min;
+    }
+
+    private static double mean(double[] frame, int rows, int row0, int col0, int row1, int col1) {
+        double sum = 0;
+        int count = 0;
+        for(int c = col0; c <= col1; c++) for(int r = row0; r <= row1; r++) {
+            double val = frame[c * rows + r];
+            if(Double.isFinite(val)) {
+                sum += val;
+                count++;
+            }
+        }
+        return count == 0 ? Double.NaN : sum / count;
+    }
+}
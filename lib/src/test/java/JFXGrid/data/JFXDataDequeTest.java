@@ -0,0 +1,197 @@
+package JFXGrid.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JFXDataDequeTest {
+
+    @Test
+    void buildsChunks() {
+        JFXDataDeque deque = fakeDequeBuilder(95, 10);
+        assertEquals(10, deque.getNumChunks());
+        assertEquals(95, deque.size());
+        assertEquals(1, deque.get()[0]);
+        assertEquals(1, deque.getFrameNum());
+    }
+
+    @Test
+    void gotoFrame() {
+        JFXDataDeque deque = fakeDequeBuilder(95, 10);
+
+        assertEquals(37, deque.gotoFrame(37)[0]);
+        assertEquals(37, deque.getFrameNum());
+        assertEquals(95, deque.gotoFrame(95)[0]);
+        assertEquals(1, deque.gotoFrame(1)[0]);
+        assertNull(deque.gotoFrame(96));
+        assertNull(deque.gotoFrame(0));
+    }
+
+    @Test
+    void stepsAcrossChunks() {
+        JFXDataDeque deque = fakeDequeBuilder(95, 10);
+        deque.gotoFrame(10);
+
+        assertEquals(11, deque.stepForward()[0]);
+        assertEquals(11, deque.getFrameNum());
+        assertEquals(10, deque.stepBack()[0]);
+        assertEquals(10, deque.getFrameNum());
+    }
+
+    @Test
+    void insertOutOfOrder() {
+        JFXDataDeque deque = new JFXDataDeque(1, 1);
+        DataChunk first = new DataChunk(new double[][]{{1}, {2}}, 0);
+        DataChunk second = new DataChunk(new double[][]{{3}, {4}}, 2);
+        DataChunk third = new DataChunk(new double[][]{{5}, {6}}, 4);
+
+        deque.insert(second);
+        deque.insert(third);
+        deque.insert(first);
+
+        assertEquals(3, deque.getNumChunks());
+        assertEquals(6, deque.size());
+        for(int frame = 1; frame <= 6; frame++) {
+            assertArrayEquals(new double[]{frame}, deque.gotoFrame(frame));
+        }
+        assertSame(second, deque.stepNodeBackward());
+    }
+
+    @Test
+    void pagedStepsBothWays(@TempDir Path dir) throws IOException {
+        JFXDatasetFactory factory = new JFXDatasetFactory(1, 1)
+                .setDataType(JFXDatasetFactory.DataType.Batch_Chunking)
+                .setChunkSize(10)
+                .setChunkFileManager(new ChunkFileManager(dir));
+        for(int i = 1; i <= 95; i++) {
+            factory.add(new double[]{i});
+        }
+        JFXDataDeque deque = (JFXDataDeque) factory.build();
+
+        assertEquals(95, deque.size());
+        assertEquals(1, deque.get()[0]);
+        for(int frame = 2; frame <= 95; frame++) {
+            assertEquals(frame, deque.stepForward()[0]);
+            assertTrue(deque.getNumChunks() <= 3, "only the chunks around the current frame are held");
+        }
+        assertEquals(95, deque.size());
+
+        for(int frame = 94; frame >= 1; frame--) {
+            assertEquals(frame, deque.stepBack()[0]);
+            assertTrue(deque.getNumChunks() <= 3, "only the chunks around the current frame are held");
+        }
+        assertEquals(-1, deque.getDirection());
+        assertEquals(57, deque.gotoFrame(57)[0]);
+    }
+
+    @Test
+    void cursorsReadIndependently() {
+        JFXDataDeque deque = fakeDequeBuilder(95, 10);
+        deque.gotoFrame(40);
+
+        FrameCursor first = deque.cursor();
+        FrameCursor second = deque.cursor();
+        assertEquals(1, first.get()[0]);
+        assertEquals(73, second.gotoFrame(73)[0]);
+        for(int frame = 2; frame <= 25; frame++) {
+            assertEquals(frame, first.stepForward()[0]);
+        }
+        assertEquals(72, second.stepBack()[0]);
+        assertNull(second.gotoFrame(96));
+        assertEquals(72, second.getFrameNum());
+
+        assertEquals(40, deque.getFrameNum());
+        assertEquals(40, deque.get()[0]);
+        assertEquals(88, deque.frame(88)[0]);
+        assertNull(deque.frame(0));
+    }
+
+    @Test
+    void pagedFramesReadWithoutMoving(@TempDir Path dir) throws IOException {
+        JFXDatasetFactory factory = new JFXDatasetFactory(1, 1)
+                .setDataType(JFXDatasetFactory.DataType.Batch_Chunking)
+                .setChunkSize(10)
+                .setChunkFileManager(new ChunkFileManager(dir));
+        for(int i = 1; i <= 95; i++) {
+            factory.add(new double[]{i});
+        }
+        JFXDataDeque deque = (JFXDataDeque) factory.build();
+        deque.gotoFrame(5);
+        int held = deque.getNumChunks();
+
+        for(int frame = 95; frame >= 1; frame--) {
+            assertEquals(frame, deque.frame(frame)[0]);
+        }
+        assertEquals(5, deque.getFrameNum());
+        assertEquals(held, deque.getNumChunks());
+    }
+
+    @Test
+    void snapshotFollowsFramePointer() {
+        JFXDataDeque deque = fakeDequeBuilder(25, 10);
+        //The first frame is published when the deque is built, reading it publishes nothing new
+        FrameSnapshot first = deque.getSnapshot();
+        assertEquals(1, first.getFrameNum());
+        assertEquals(1, first.getFrame()[0]);
+        deque.get();
+        assertSame(first, deque.current());
+
+        deque.gotoFrame(10);
+        deque.stepForward();
+        FrameSnapshot crossed = deque.getSnapshot();
+        assertEquals(11, crossed.getFrameNum());
+        assertEquals(11, crossed.getFrame()[0]);
+        assertTrue(crossed.getVersion() > first.getVersion());
+
+        deque.get();
+        assertSame(crossed, deque.getSnapshot());
+        deque.gotoFrame(1);
+        deque.stepBack();
+        assertEquals(1, deque.getSnapshot().getFrameNum());
+
+        deque.clearData();
+        assertSame(FrameSnapshot.EMPTY, deque.getSnapshot());
+    }
+
+    @Test
+    void listenersSeeEveryFrameChange() {
+        JFXDataDeque deque = fakeDequeBuilder(25, 10);
+        List<Integer> seen = new ArrayList<>();
+        deque.addFrameListener(snapshot -> seen.add(snapshot.getFrameNum()));
+
+        deque.get();
+        deque.get();
+        deque.stepForward();
+        deque.stepBack();
+        deque.stepBack();
+        deque.gotoFrame(20);
+        deque.clearData();
+        //Only moves publish, reads don't
+        assertEquals(List.of(2, 1, 20, 0), seen);
+    }
+
+    /**
+     * Builds a deque where each frame holds its own frame number
+     */
+    public static JFXDataDeque fakeDequeBuilder(int numFrames, int chunkSize) {
+        JFXDatasetFactory factory = new JFXDatasetFactory(1, 1)
+                .setDataType(JFXDatasetFactory.DataType.Batch_Chunking)
+                .setChunkSize(chunkSize);
+
+        for(int i = 1; i <= numFrames; i++) {
+            factory.add(new double[]{i});
+        }
+
+        return (JFXDataDeque) factory.build();
+    }
+}
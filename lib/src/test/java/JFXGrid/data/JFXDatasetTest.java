@@ -8,6 +8,8 @@ import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class JFXDatasetTest {
 
@@ -97,4 +99,50 @@ class JFXDatasetTest {
 
         return data.build();
     }
-}
\ No newline at end of file
+
+    @Test
+    void sparseFramesReadDense() {
+        int rows = 4, cols = 3;
+        double[][] frames = new double[7][rows * cols];
+        JFXDatasetFactory factory = new JFXDatasetFactory(rows, cols);
+        for(int f = 0; f < frames.length; f++) {
+            frames[f][(f * 5) % frames[f].length] = f + 1;
+            frames[f][7] = Double.NaN;
+            if(f % 2 == 0) {
+                factory.add(SparseFrame.fromDense(rows, cols, frames[f]));
+            } else {
+                factory.add(frames[f]);
+            }
+        }
+
+        JFXDataset data = factory.setDataType(JFXDatasetFactory.DataType.Batch_Chunking).setChunkSize(3).build();
+        for(int f = 1; f <= frames.length; f++) {
+            assertArrayEquals(frames[f - 1], data.frame(f));
+        }
+
+        for(int f = 1; f <= frames.length; f++) {
+            double[] frame = data.gotoFrame(f);
+            assertArrayEquals(frames[f - 1], frame);
+            assertSame(frame, data.get());
+
+            var snapshot = data.getSnapshot();
+            if(f % 2 == 1) {
+                assertEquals(2, snapshot.getSparse().getNonZeros());
+                assertEquals(f, snapshot.getSparse().get(((f - 1) * 5) % 12 % rows, ((f - 1) * 5) % 12 / rows));
+            } else {
+                assertNull(snapshot.getSparse());
+            }
+        }
+
+        //Moving without reading publishes sparse frames as they're held, they're only expanded once read
+        data.moveToFrame(1);
+        for(int f = 2; f <= frames.length; f++) {
+            var snapshot = data.moveForward();
+            assertSame(snapshot, data.getSnapshot());
+            assertEquals(f, snapshot.getFrameNum());
+            assertEquals(f % 2 == 1, snapshot.getHeld() == null);
+            assertArrayEquals(frames[f - 1], snapshot.getFrame());
+            assertSame(snapshot.getFrame(), snapshot.getFrame());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package JFXGrid.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TemporalPyramidTest {
+
+    @Test
+    void blocksMatchBruteForce(@TempDir Path dir) throws Exception {
+        int rows = 3, cols = 4, numFrames = 203;
+        Random rand = new Random(9);
+        double[][] frames = new double[numFrames][rows * cols];
+        JFXDatasetFactory memory = new JFXDatasetFactory(rows, cols);
+        JFXDatasetFactory paged = new JFXDatasetFactory(rows, cols);
+        for(double[] frame : frames) {
+            for(int i = 0; i < frame.length; i++) {
+                frame[i] = rand.nextInt(20) == 0 ? Double.NaN : rand.nextGaussian();
+            }
+            memory.add(frame);
+            paged.add(frame);
+        }
+        memory.setDataType(JFXDatasetFactory.DataType.Batch_Chunking).setChunkSize(16);
+        paged.setDataType(JFXDatasetFactory.DataType.Batch_Chunking).setChunkSize(16)
+                .setChunkFileManager(new ChunkFileManager(dir));
+
+        JFXDataset pagedData = paged.build();
+        try(TemporalPyramid inMemory = TemporalPyramid.build(memory.build(), 2).get();
+            TemporalPyramid stored = TemporalPyramid.build(pagedData, 2).get();
+            TemporalPyramid reopened = TemporalPyramid.open(pagedData)) {
+            assertNotNull(reopened);
+            assertEquals(8, inMemory.getMaxLevel());
+
+            for(TemporalPyramid pyramid : new TemporalPyramid[]{inMemory, stored, reopened}) {
+                for(int level = 2; level <= 8; level++) {
+                    int size = 1 << level;
+                    for(int start = 0; start < numFrames; start += size) {
+                        int end = Math.min(numFrames, start + size);
+                        double[][] expected = summarize(frames, start, end);
+                        int frameNum = start + 1 + rand.nextInt(end - start);
+                        assertArrayEquals(expected[0], pyramid.block(level, frameNum, TemporalPyramid.Mode.MIN));
+                        assertArrayEquals(expected[1], pyramid.block(level, frameNum, TemporalPyramid.Mode.MAX));
+                        assertArrayEquals(expected[2], pyramid.block(level, frameNum, TemporalPyramid.Mode.MEAN), 1e-9);
+                    }
+                }
+            }
+
+            assertEquals(0, inMemory.levelFor(1));
+            assertEquals(2, inMemory.levelFor(3));
+            assertEquals(4, inMemory.levelFor(15));
+            assertEquals(4, inMemory.levelFor(16));
+            assertEquals(5, inMemory.levelFor(17));
+            assertEquals(8, inMemory.levelFor(100_000));
+        }
+    }
+
+    @Test
+    void stepsCoverEveryFrame() throws Exception {
+        int rows = 2, cols = 3, numFrames = 300;
+        Random rand = new Random(5);
+        double[][] frames = new double[numFrames][rows * cols];
+        JFXDatasetFactory factory = new JFXDatasetFactory(rows, cols);
+        for(double[] frame : frames) {
+            for(int i = 0; i < frame.length; i++) {
+                frame[i] = rand.nextDouble();
+            }
+            factory.add(frame);
+        }
+        //A one frame event, in the middle of a range a step of 15 would jump over
+        frames[19][4] = 100;
+        factory.setDataType(JFXDatasetFactory.DataType.Batch_Chunking).setChunkSize(32);
+
+        try(TemporalPyramid pyramid = TemporalPyramid.build(factory.build()).get()) {
+            for(int step : new int[]{3, 15, 27}) {
+                int level = pyramid.levelFor(step);
+                boolean eventShown = false;
+                for(int last = 1, frameNum = 1 + step; frameNum <= numFrames; last = frameNum, frameNum += step) {
+                    double[] max = pyramid.range(level, last + 1, frameNum, TemporalPyramid.Mode.MAX);
+                    for(int f = last + 1; f <= frameNum; f++) {
+                        for(int i = 0; i < max.length; i++) {
+                            assertTrue(max[i] >= frames[f - 1][i]);
+                        }
+                    }
+                    eventShown |= max[4] == 100;
+
+                    //The blocks overlapping the range, combined
+                    int size = 1 << level;
+                    int start = (last / size) * size, end = Math.min(numFrames, ((frameNum - 1) / size + 1) * size);
+                    double[][] expected = summarize(frames, start, end);
+                    assertArrayEquals(expected[0], pyramid.range(level, last + 1, frameNum, TemporalPyramid.Mode.MIN));
+                    assertArrayEquals(expected[1], max);
+                    assertArrayEquals(expected[2], pyramid.range(level, last + 1, frameNum, TemporalPyramid.Mode.MEAN), 1e-9);
+                }
+                assertTrue(eventShown, "Step " + step);
+            }
+        }
+    }
+
+    private static double[][] summarize(double[][] frames, int start, int end) {
+        int cells = frames[0].length;
+        double[][] out = new double[3][cells];
+        for(int i = 0; i < cells; i++) {
+            double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY, sum = 0;
+            int count = 0;
+            for(int f = start; f < end; f++) {
+                double val = frames[f][i];
+                if(!Double.isFinite(val)) continue;
+                min = Math.min(min, val);
+                max = Math.max(max, val);
+                sum += val;
+                count++;
+            }
+            out[0][i] = count == 0 ? Double.NaN : min;
+            out[1][i] = count == 0 ? Double.NaN : max;
+            out[2][i] = count == 0 ? Double.NaN : sum / count;
+        }
+        return out;
+    }
+}
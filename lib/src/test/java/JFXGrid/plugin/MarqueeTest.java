@@ -0,0 +1,48 @@
+package JFXGrid.plugin;
+
+import JFXGrid.data.FrameSnapshot;
+import JFXGrid.data.JFXDataset;
+import JFXGrid.data.JFXDatasetFactory;
+import JFXGrid.data.SparseFrame;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MarqueeTest {
+
+    @Test
+    void followsSparsePlayback() {
+        int rows = 5, cols = 4, numFrames = 9;
+        double[][] frames = new double[numFrames][rows * cols];
+        JFXDatasetFactory factory = new JFXDatasetFactory(rows, cols);
+        for(int f = 0; f < numFrames; f++) {
+            //One cell inside the selection and one outside of it
+            frames[f][1 * rows + 2] = f + 1;
+            frames[f][3 * rows + 4] = 100;
+            factory.add(SparseFrame.fromDense(rows, cols, frames[f]));
+        }
+        JFXDataset data = factory.setDataType(JFXDatasetFactory.DataType.Batch_Chunking).setChunkSize(4).build();
+
+        Marquee marquee = new Marquee(data);
+        assertFalse(marquee.processesFrames());
+        marquee.setSelection(0, 0, 2, 2);
+        assertTrue(marquee.processesFrames());
+
+        //Like the renderer, sparse frames are only expanded and processed while a plugin asks for them
+        FrameSnapshot snapshot = data.current();
+        for(int f = 1; f <= numFrames; f++) {
+            assertNotNull(snapshot.getSparse());
+            if(marquee.processesFrames()) {
+                marquee.process(snapshot.getFrame());
+            }
+
+            assertEquals(9, marquee.getStats().getCount());
+            assertEquals(f, marquee.getStats().getSum());
+            assertEquals(f, marquee.getStats().getMax());
+            snapshot = data.moveForward();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package JFXGrid.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CellMaskTest {
+
+    @Test
+    void regionsAndSetOperations() {
+        int rows = 9, cols = 100;
+        CellMask a = new CellMask(rows, cols);
+        a.setRegion(1, 10, 3, 80, true);
+        assertEquals(3 * 71, a.cardinality());
+        assertTrue(a.get(2, 64));
+        assertFalse(a.get(2, 81));
+        assertFalse(a.get(0, 10));
+
+        CellMask b = new CellMask(rows, cols);
+        b.setRegion(3, 50, 5, 99, true);
+
+        CellMask union = a.copy();
+        union.or(b);
+        CellMask intersection = a.copy();
+        intersection.and(b);
+        CellMask difference = a.copy();
+        difference.andNot(b);
+        for(int row = 0; row < rows; row++) {
+            for(int col = 0; col < cols; col++) {
+                assertEquals(a.get(row, col) || b.get(row, col), union.get(row, col));
+                assertEquals(a.get(row, col) && b.get(row, col), intersection.get(row, col));
+                assertEquals(a.get(row, col) && !b.get(row, col), difference.get(row, col));
+            }
+        }
+
+        a.invert();
+        assertEquals(rows * cols - 3 * 71, a.cardinality());
+        a.clear();
+        assertTrue(a.isEmpty());
+    }
+
+    @Test
+    void maskedCellsAreDrawnInMaskColor() {
+        int rows = 3, cols = 2;
+        double[] matrix = {0.1, 0.5, 0.9, 0.2, Double.NaN, 1};
+        Colorizer colorizer = new Colorizer();
+        colorizer.processARGBVals(256);
+        CellMask mask = new CellMask(rows, cols);
+        mask.set(1, 0, true);
+        mask.set(2, 1, true);
+
+        int[] plain = ImageGenerator.getBufferedARGB(rows, cols, matrix, colorizer).array();
+        int[] masked = ImageGenerator.getBufferedARGB(rows, cols, matrix, colorizer, mask, 7).array();
+        plain[1 * cols + 0] = 7;
+        plain[2 * cols + 1] = 7;
+        assertArrayEquals(plain, masked);
+        assertEquals(0.5, matrix[1]);
+    }
+}
@@ -0,0 +1,95 @@
+package JFXGrid.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FrameAccumulatorTest {
+
+    @Test
+    void meanMatchesWindow() {
+        int frameSize = 7, window = 5;
+        FrameAccumulator accumulator = new FrameAccumulator(frameSize, window, FrameAccumulator.Mode.MEAN);
+        Random rand = new Random(7);
+        double[][] frames = new double[1000][frameSize];
+
+        for(int f = 0; f < frames.length; f++) {
+            for(int i = 0; i < frameSize; i++) {
+                frames[f][i] = rand.nextInt(10) == 0 ? Double.NaN : rand.nextDouble() * 100;
+            }
+            accumulator.add(frames[f]);
+
+            double[] expected = new double[frameSize];
+            for(int i = 0; i < frameSize; i++) {
+                double sum = 0;
+                int count = 0;
+                for(int w = Math.max(0, f - window + 1); w <= f; w++) {
+                    if(!Double.isNaN(frames[w][i])) {
+                        sum += frames[w][i];
+                        count++;
+                    }
+                }
+                expected[i] = count == 0 ? Double.NaN : sum / count;
+            }
+            assertArrayEquals(expected, accumulator.getResult(null), 1e-9);
+        }
+        assertEquals(window, accumulator.getCount());
+    }
+
+    @Test
+    void sumAndEMA() {
+        FrameAccumulator sum = new FrameAccumulator(2, 2, FrameAccumulator.Mode.SUM);
+        sum.add(new double[]{1, Double.NaN});
+        sum.add(new double[]{2, 3});
+        sum.add(new double[]{4, 5});
+        assertArrayEquals(new double[]{6, 8}, sum.getResult(null));
+
+        FrameAccumulator ema = new FrameAccumulator(2, 1, FrameAccumulator.Mode.EMA);
+        ema.setAlpha(0.5);
+        ema.add(new double[]{2, Double.NaN});
+        ema.add(new double[]{4, 8});
+        assertArrayEquals(new double[]{3, 8}, ema.getResult(null));
+
+        ema.reset();
+        assertEquals(0, ema.getCount());
+        assertArrayEquals(new double[]{Double.NaN, Double.NaN}, ema.getResult(null));
+    }
+
+    @Test
+    void maxAndMinMatchWindow() {
+        int frameSize = 5;
+        Random rand = new Random(11);
+        for(int window : new int[]{1, 2, 3, 4, 7, 10}) {
+            FrameAccumulator max = new FrameAccumulator(frameSize, window, FrameAccumulator.Mode.MAX);
+            FrameAccumulator min = new FrameAccumulator(frameSize, window, FrameAccumulator.Mode.MIN);
+            double[][] frames = new double[200][frameSize];
+
+            for(int f = 0; f < frames.length; f++) {
+                for(int i = 0; i < frameSize; i++) {
+                    frames[f][i] = rand.nextInt(4) == 0 ? Double.NaN : rand.nextDouble() * 200 - 100;
+                }
+                max.add(frames[f]);
+                min.add(frames[f]);
+
+                double[] expectedMax = new double[frameSize];
+                double[] expectedMin = new double[frameSize];
+                for(int i = 0; i < frameSize; i++) {
+                    expectedMax[i] = Double.NaN;
+                    expectedMin[i] = Double.NaN;
+                    for(int w = Math.max(0, f - window + 1); w <= f; w++) {
+                        double val = frames[w][i];
+                        if(!Double.isNaN(val)) {
+                            expectedMax[i] = Double.isNaN(expectedMax[i]) ? val : Math.max(expectedMax[i], val);
+                            expectedMin[i] = Double.isNaN(expectedMin[i]) ? val : Math.min(expectedMin[i], val);
+                        }
+                    }
+                }
+                assertArrayEquals(expectedMax, max.getResult(null), "window " + window + ", frame " + f);
+                assertArrayEquals(expectedMin, min.getResult(null), "window " + window + ", frame " + f);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package JFXGrid.util;
+
+import JFXGrid.data.SparseFrame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ImageGeneratorTest {
+
+    private final boolean vectorDefault = ImageGenerator.isVectorized();
+
+    @AfterEach
+    void restoreKernel() {
+        ImageGenerator.setVectorized(vectorDefault);
+    }
+
+    @Test
+    void vectorKernelMatchesScalar() {
+        ImageGenerator.setVectorized(true);
+        assumeTrue(ImageGenerator.isVectorized(), "jdk.incubator.vector is not available");
+
+        int rows = 37, cols = 23;
+        double[] matrix = new double[rows * cols];
+        Random rand = new Random(42);
+        for(int i = 0; i < matrix.length; i++) {
+            matrix[i] = rand.nextDouble() * 1.2 - 0.1;
+        }
+        matrix[3] = Double.NaN;
+        matrix[4] = 1;
+        matrix[5] = 0;
+
+        Colorizer colorizer = new Colorizer();
+        int[] vectorPixels = ImageGenerator.getBufferedARGB(rows, cols, matrix, colorizer).array();
+
+        ImageGenerator.setVectorized(false);
+        int[] scalarPixels = ImageGenerator.getBufferedARGB(rows, cols, matrix, colorizer).array();
+
+        assertArrayEquals(scalarPixels, vectorPixels);
+    }
+
+    @Test
+    void frameMinMaxNormalization() {
+        int rows = 2, cols = 2;
+        double[] matrix = {100, 150, 175, 200};
+
+        Colorizer colorizer = new Colorizer();
+        colorizer.setNumColorGradations(256);
+        colorizer.getNormalizer().setMode(Normalizer.Mode.FRAME_MIN_MAX);
+
+        int[] pixels = ImageGenerator.getBufferedARGB(rows, cols, matrix, colorizer).array();
+
+        assertEquals(100, colorizer.getNormalizer().getMin());
+        assertEquals(200, colorizer.getNormalizer().getMax());
+        assertEquals(colorizer.getNearestARGBColor(0), pixels[0]);
+        assertEquals(colorizer.getNearestARGBColor(1), pixels[3]);
+    }
+
+    @Test
+    void frameMinMaxSkipsNonFiniteValues() {
+        Normalizer normalizer = new Normalizer();
+        normalizer.setMode(Normalizer.Mode.FRAME_MIN_MAX);
+
+        normalizer.update(new double[]{3, Double.POSITIVE_INFINITY, 7, Double.NaN, Double.NEGATIVE_INFINITY});
+        assertEquals(3, normalizer.getMin());
+        assertEquals(7, normalizer.getMax());
+
+        double[] sparse = {0, 0, 2, Double.NEGATIVE_INFINITY, 9, Double.POSITIVE_INFINITY};
+        normalizer.update(SparseFrame.fromDense(2, 3, sparse));
+        assertEquals(0, normalizer.getMin());
+        assertEquals(9, normalizer.getMax());
+    }
+
+    @Test
+    void sparseRasterMatchesDense() {
+        ImageGenerator.setVectorized(false);
+        int rows = 19, cols = 13;
+        Random rand = new Random(7);
+        for(Normalizer.Mode mode : Normalizer.Mode.values()) {
+            sparseRasterMatchesDense(rows, cols, rand, mode);
+        }
+    }
+
+    private static void sparseRasterMatchesDense(int rows, int cols, Random rand, Normalizer.Mode mode) {
+        //Separate colorizers, so each normalizer sees every frame once
+        Colorizer colorizer = new Colorizer();
+        colorizer.getNormalizer().setMode(mode);
+        Colorizer denseColorizer = new Colorizer();
+        denseColorizer.getNormalizer().setMode(mode);
+        CellMask mask = new CellMask(rows, cols);
+        mask.setRegion(2, 3, 5, 6, true);
+        SparseRaster raster = new SparseRaster(rows, cols);
+
+        for(int f = 0; f < 20; f++) {
+            double[] matrix = new double[rows * cols];
+            for(int i = 0; i < matrix.length; i++) {
+                if(rand.nextInt(10) == 0) {
+                    matrix[i] = rand.nextDouble() * 4 - 1;
+                }
+            }
+            if(f == 10) {
+                mask.invert();
+            }
+
+            raster.draw(SparseFrame.fromDense(rows, cols, matrix), colorizer, mask, 0xFF333333);
+            int[] dense = ImageGenerator.getBufferedARGB(rows, cols, matrix, denseColorizer, mask, 0xFF333333).array();
+            assertArrayEquals(dense, raster.getPixels(), mode + " frame " + f);
+        }
+    }
+}
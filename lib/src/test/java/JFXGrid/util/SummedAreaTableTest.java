@@ -0,0 +1,75 @@
+package JFXGrid.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SummedAreaTableTest {
+
+    @Test
+    void matchesBruteForce() {
+        int rows = 45, cols = 37;
+        Random rand = new Random(3);
+        double[] frame = new double[rows * cols];
+        for(int i = 0; i < frame.length; i++) {
+            int roll = rand.nextInt(20);
+            frame[i] = roll == 0 ? Double.NaN : roll == 1 ? Double.POSITIVE_INFINITY : 1000 + rand.nextGaussian();
+        }
+
+        SummedAreaTable table = new SummedAreaTable(rows, cols);
+        table.build(frame);
+
+        for(int q = 0; q < 500; q++) {
+            int row0 = rand.nextInt(rows), row1 = rand.nextInt(rows);
+            int col0 = rand.nextInt(cols), col1 = rand.nextInt(cols);
+            RegionStats stats = table.query(row0, col0, row1, col1);
+
+            int count = 0;
+            double sum = 0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+            for(int x = Math.min(col0, col1); x <= Math.max(col0, col1); x++) {
+                for(int y = Math.min(row0, row1); y <= Math.max(row0, row1); y++) {
+                    double val = frame[x * rows + y];
+                    if(Double.isFinite(val)) {
+                        count++;
+                        sum += val;
+                        min = Math.min(min, val);
+                        max = Math.max(max, val);
+                    }
+                }
+            }
+            double mean = sum / count, variance = 0;
+            for(int x = Math.min(col0, col1); x <= Math.max(col0, col1); x++) {
+                for(int y = Math.min(row0, row1); y <= Math.max(row0, row1); y++) {
+                    double val = frame[x * rows + y];
+                    if(Double.isFinite(val)) {
+                        variance += (val - mean) * (val - mean) / count;
+                    }
+                }
+            }
+
+            assertEquals(count, stats.getCount());
+            if(count == 0) {
+                assertTrue(Double.isNaN(stats.getMean()));
+                continue;
+            }
+            assertEquals(sum, stats.getSum(), 1e-6);
+            assertEquals(mean, stats.getMean(), 1e-9);
+            assertEquals(variance, stats.getVariance(), 1e-9);
+            assertEquals(min, stats.getMin());
+            assertEquals(max, stats.getMax());
+        }
+    }
+
+    @Test
+    void rejectsRegionsOutsideGrid() {
+        SummedAreaTable table = new SummedAreaTable(2, 2);
+        assertThrows(IllegalStateException.class, () -> table.query(0, 0, 1, 1));
+        table.build(new double[]{1, 2, 3, 4});
+        assertEquals(10, table.query(0, 0, 1, 1).getSum());
+        assertThrows(IllegalArgumentException.class, () -> table.query(0, 0, 2, 1));
+    }
+}
@@ -0,0 +1,62 @@
+package JFXGrid.util;
+
+import JFXGrid.data.JFXDataset;
+import JFXGrid.data.JFXDatasetFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThumbnailIndexTest {
+
+    @Test
+    void thumbnailsShowSampledFrames() throws Exception {
+        int rows = 20, cols = 40, numFrames = 101;
+        JFXDatasetFactory factory = new JFXDatasetFactory(rows, cols);
+        for(int f = 1; f <= numFrames; f++) {
+            double[] frame = new double[rows * cols];
+            for(int x = 0; x < cols; x++) {
+                for(int y = 0; y < rows; y++) {
+                    //Each 2x2 block averages to the frame number, the left half of the grid is twice that
+                    double val = x < cols / 2 ? 2 * f : f;
+                    frame[x * rows + y] = val + ((x + y) % 2 == 0 ? 0.5 : -0.5);
+                }
+            }
+            factory.add(frame);
+        }
+        factory.setDataType(JFXDatasetFactory.DataType.Batch_Chunking).setChunkSize(16);
+        JFXDataset data = factory.build();
+
+        Colorizer colorizer = new Colorizer();
+        ThumbnailIndex index = new ThumbnailIndex(data, colorizer, 11, 20);
+        assertEquals(20, index.getWidth());
+        assertEquals(10, index.getHeight());
+        assertEquals(-1, index.nearestBuilt(50));
+
+        index.start().get(10, TimeUnit.SECONDS);
+        assertTrue(index.isDone());
+        assertEquals(11, index.getBuiltCount());
+        assertEquals(1, data.getSnapshot().getFrameNum());
+
+        int[] lut = colorizer.getLookupTable();
+        double min = 0.5, scale = 1d / (2 * numFrames + 0.5 - min);
+        int[] pixels = index.getPixels();
+        for(int i = 0; i < index.getCount(); i++) {
+            int frameNum = index.getFrameNum(i);
+            assertEquals(1 + i * 10, frameNum);
+            assertEquals(i, index.indexOf(frameNum));
+            assertEquals(i, index.nearestBuilt(frameNum + 4));
+
+            int offset = index.getOffset(i);
+            for(int y = 0; y < index.getHeight(); y++) {
+                for(int x = 0; x < index.getWidth(); x++) {
+                    double expected = x < index.getWidth() / 2 ? 2 * frameNum : frameNum;
+                    int color = lut[ImageGenerator.lookupIndex(expected, min, scale, lut.length - 1)];
+                    assertEquals(color, pixels[offset + y * index.getWidth() + x]);
+                }
+            }
+        }
+    }
+}